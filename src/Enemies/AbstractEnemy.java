@@ -0,0 +1,188 @@
+package Enemies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import effects.Effect;
+import model.Hero;
+
+/**
+ * Behaviour shared by every enemy. The fighting stats (hp, attack, defense,
+ * intents) live in the slot of an {@link EnemyGroup}: a new enemy has a group
+ * of its own until a room gathers its enemies into one group.
+ */
+public abstract class AbstractEnemy implements Enemy {
+
+    private final String tag;
+    private final int id;
+    private final int xp;
+    private final String description;
+    private final ArrayList<Effect> effects;
+    private EnemyGroup group;
+    private int slot;
+
+    /**
+     * @param tag         Name shown by toString
+     * @param id          Unique ID
+     * @param hpMax       Max health
+     * @param hp          Current health
+     * @param attack      Attack, restored by baseShape
+     * @param defense     Defense when defending
+     * @param xp          XP awarded when defeated
+     * @param description Brief description
+     * @param effects     Effects applied with the effect intent
+     * @param intents     Mask of Intent bits
+     */
+    protected AbstractEnemy(String tag, int id, int hpMax, int hp, int attack, int defense, int xp,
+            String description, ArrayList<Effect> effects, int intents) {
+        if (hp < 0)
+            throw new IllegalArgumentException("hp < 0");
+        if (hpMax < 0)
+            throw new IllegalArgumentException("hpMax < 0");
+        if (attack < 0)
+            throw new IllegalArgumentException("attack < 0");
+        if (defense < 0)
+            throw new IllegalArgumentException("defense < 0");
+        this.tag = tag;
+        this.id = id;
+        this.xp = xp;
+        this.description = description;
+        this.effects = effects;
+        this.group = new EnemyGroup(1);
+        this.slot = group.reserve(hpMax, hp, attack, defense, intents);
+    }
+
+    /**
+     * Finishes building an enemy: it becomes the member of its own group. The
+     * constructors leave this to the create factories, so that the group never
+     * sees a half-built enemy.
+     *
+     * @param enemy a newly constructed enemy
+     * @return the same enemy
+     */
+    protected static <E extends AbstractEnemy> E register(E enemy) {
+        Objects.requireNonNull(enemy);
+        enemy.group().bind(enemy);
+        return enemy;
+    }
+
+    // Called by EnemyGroup.add once the stats have moved
+    void join(EnemyGroup group, int slot) {
+        this.group = group;
+        this.slot = slot;
+    }
+
+    /** @return Group holding the stats of this enemy */
+    public EnemyGroup group() {
+        return group;
+    }
+
+    /** @return Slot of this enemy in its group */
+    public int slot() {
+        return slot;
+    }
+
+    // --- Getters ---
+
+    public int id() {
+        return id;
+    }
+
+    public int hpMax() {
+        return group.hpMax(slot);
+    }
+
+    public int hp() {
+        return group.hp(slot);
+    }
+
+    public int attack() {
+        return group.attack(slot);
+    }
+
+    public int defense() {
+        return group.defense(slot);
+    }
+
+    public int exp() {
+        return xp;
+    }
+
+    public int intents() {
+        return group.intents(slot);
+    }
+
+    public String description() {
+        return description;
+    }
+
+    /** @return Effects applied with the effect intent, unmodifiable */
+    public List<Effect> effects() {
+        return Collections.unmodifiableList(effects);
+    }
+
+    // --- Gameplay ---
+
+    /** @param amount HP added to the current ones, up to the maximum */
+    public void setHp(int amount) {
+        group.setHp(slot, Math.min(hpMax(), amount + hp()));
+    }
+
+    @Override
+    public void execute(Hero hero) {
+        Objects.requireNonNull(hero);
+        if (hasIntent(Intent.EFFECT)) {
+            for (var effect : effects) {
+                effect.execute(hero, null, this, null);
+            }
+        }
+        if (hasIntent(Intent.ATTACK)) {
+            hero.takeDamage(this);
+        }
+    }
+
+    public Enemy getAttacked(int effectiveDamage) {
+        if (hasIntent(Intent.DEFEND)) {
+            return defend(effectiveDamage);
+        }
+        group.setHp(slot, Math.max(0, hp() - effectiveDamage));
+        return this;
+    }
+
+    public Enemy defend(int effectiveDamage) {
+        group.setHp(slot, Math.max(0, hp() - Math.max(0, effectiveDamage - defense())));
+        return this;
+    }
+
+    @Override
+    public void setAttack(int i) {
+        group.setAttack(slot, attack() + i);
+    }
+
+    @Override
+    public void setIntents(int mask) {
+        group.setIntents(slot, mask);
+    }
+
+    public void apply(Hero hero, ArrayList<Enemy> enemies) {
+        Objects.requireNonNull(hero);
+        Objects.requireNonNull(enemies);
+        for (var eff : effects) {
+            eff.execute(hero, enemies, this, null);
+        }
+    }
+
+    /** Restores the attack the enemy was created with. */
+    public void baseShape() {
+        group.resetAttack(slot);
+    }
+
+    @Override
+    public String toString() {
+        return tag + " [HP=" + hp() + "/" + hpMax() +
+                ", Attack=" + attack() +
+                ", Defense=" + defense() + "]";
+    }
+}
@@ -1,9 +1,10 @@
 package Enemies;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import model.Hero;
 
@@ -41,10 +42,15 @@ public interface Enemy {
 
     void setAttack(int attack);
 
-    // Set of possible actions the enemy can perform
-    HashSet<Integer> actions();
+    // Intents announced for the next turn, as a mask of Intent bits
+    int intents();
 
-    void setActions(HashSet<Integer> h);
+    void setIntents(int mask);
+
+    // true if the enemy announced the given intent
+    default boolean hasIntent(Intent intent) {
+        return (intents() & intent.bit()) != 0;
+    }
     // Set of previous actions performed by the enemy
     // HashSet<Integer> previousAction();
 
@@ -65,17 +71,22 @@ public interface Enemy {
 
     // Generate Random Enemies
     static List<Enemy> generateEnmies() {
-        Random random = new Random();
+        return generateEnmies(new SplittableRandom());
+    }
+
+    // Generate Random Enemies from the spawn stream of a run
+    static List<Enemy> generateEnmies(RandomGenerator random) {
+        Objects.requireNonNull(random);
         ArrayList<Enemy> lst = new ArrayList<>();
         int size = random.nextInt(3) + 1;
         for (int i = 0; i < size; i++) {
             int choice = random.nextInt(5);
             Enemy e = switch (choice) {
-                case 0 -> new Ratwolf();
-                case 1 -> new SmallRatwolf();
-                case 2 -> new FrogWizard();
-                case 3 -> new QueenBee();
-                default -> new LivingShadow();
+                case 0 -> Ratwolf.create();
+                case 1 -> SmallRatwolf.create();
+                case 2 -> FrogWizard.create();
+                case 3 -> QueenBee.create();
+                default -> LivingShadow.create();
             };
             lst.add(e);
         }
@@ -0,0 +1,328 @@
+package Enemies;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import model.Zobrist;
+
+/**
+ * Stats of a group of enemies fighting together, stored in parallel primitive
+ * arrays (one slot per enemy) so that effects hitting every enemy run as plain
+ * loops over ints.
+ * <p>
+ * An enemy keeps its slot while it is in the group: removing an enemy only
+ * frees its slot, the others do not move. Freed slots are reused by the next
+ * enemies added. A removed enemy goes back to a group of its own, with its
+ * stats, as it was before joining.
+ * </p>
+ * <p>
+ * The group keeps a Zobrist hash of the stats of its enemies, updated by each
+ * change of a stat.
+ * </p>
+ */
+public final class EnemyGroup {
+    // Enemies by slot, null for a free slot
+    private AbstractEnemy[] members;
+    private int[] hp;
+    private int[] hpMax;
+    private int[] attack;
+    private int[] baseAttack;
+    private int[] defense;
+    private int[] intents;
+    // Bit i of word i / 64 set when slot i holds an enemy
+    private long[] used;
+    private int size;
+    private long hash;
+
+    public EnemyGroup() {
+        this(8);
+    }
+
+    /** @param capacity number of slots allocated at first */
+    public EnemyGroup(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity < 1");
+        }
+        members = new AbstractEnemy[capacity];
+        hp = new int[capacity];
+        hpMax = new int[capacity];
+        attack = new int[capacity];
+        baseAttack = new int[capacity];
+        defense = new int[capacity];
+        intents = new int[capacity];
+        used = new long[(capacity + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * Returns the group holding exactly the given enemies, so that an effect on
+     * all of them can use the bulk operations.
+     *
+     * @param enemies a list of enemies
+     * @return their group, or null if they are not exactly the members of one
+     *         group
+     */
+    public static EnemyGroup of(List<Enemy> enemies) {
+        Objects.requireNonNull(enemies);
+        if (enemies.isEmpty() || !(enemies.get(0) instanceof AbstractEnemy first)) {
+            return null;
+        }
+        EnemyGroup group = first.group();
+        if (group.size != enemies.size()) {
+            return null;
+        }
+        for (int i = 1; i < enemies.size(); i++) {
+            if (!(enemies.get(i) instanceof AbstractEnemy e) || e.group() != group) {
+                return null;
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Moves an enemy into this group, with its current stats.
+     *
+     * @param enemy the enemy to add
+     * @return the slot of the enemy
+     */
+    public int add(Enemy enemy) {
+        Objects.requireNonNull(enemy);
+        if (!(enemy instanceof AbstractEnemy e)) {
+            throw new IllegalArgumentException("unsupported enemy " + enemy.getClass().getName());
+        }
+        if (e.group() == this) {
+            return e.slot();
+        }
+        return take(e);
+    }
+
+    // Moves an enemy of another group into the lowest free slot, with its stats
+    private int take(AbstractEnemy e) {
+        EnemyGroup old = e.group();
+        int from = e.slot();
+        int slot = reserve(old.hpMax[from], old.hp[from], old.attack[from], old.defense[from], old.intents[from]);
+        members[slot] = e;
+        baseAttack[slot] = old.baseAttack[from];
+        old.release(from);
+        e.join(this, slot);
+        return slot;
+    }
+
+    // Stores the stats of a new enemy in the lowest free slot; the enemy
+    // itself is bound to the slot once fully built
+    int reserve(int hpMax, int hp, int attack, int defense, int intents) {
+        int slot = freeSlot();
+        used[slot >>> 6] |= 1L << slot;
+        size++;
+        this.hpMax[slot] = hpMax;
+        this.hp[slot] = hp;
+        this.attack[slot] = attack;
+        this.baseAttack[slot] = attack;
+        this.defense[slot] = defense;
+        this.intents[slot] = intents & Intent.ALL;
+        toggle(slot);
+        return slot;
+    }
+
+    // Makes a fully built enemy the member of the slot reserved for it
+    void bind(AbstractEnemy e) {
+        members[e.slot()] = e;
+    }
+
+    /**
+     * Removes an enemy from the group, without moving the others. The enemy
+     * moves into a one-slot group of its own, keeping its stats.
+     *
+     * @param enemy the enemy to remove
+     * @return true if the enemy was in the group
+     */
+    public boolean remove(Enemy enemy) {
+        Objects.requireNonNull(enemy);
+        if (!(enemy instanceof AbstractEnemy e) || e.group() != this) {
+            return false;
+        }
+        int slot = e.slot();
+        if (members[slot] != e) {
+            return false;
+        }
+        new EnemyGroup(1).take(e);
+        return true;
+    }
+
+    // Frees a slot, whose enemy has moved to another group
+    private void release(int slot) {
+        toggle(slot);
+        used[slot >>> 6] &= ~(1L << slot);
+        members[slot] = null;
+        size--;
+    }
+
+    // Adds or removes the keys of the stats of a slot
+    private void toggle(int slot) {
+        hash ^= Zobrist.key(Zobrist.ENEMY, slot, hpMax[slot] << 16 ^ defense[slot])
+                ^ Zobrist.key(Zobrist.ENEMY_HP, slot, hp[slot])
+                ^ Zobrist.key(Zobrist.ENEMY_ATTACK, slot, attack[slot])
+                ^ Zobrist.key(Zobrist.ENEMY_INTENTS, slot, intents[slot]);
+    }
+
+    private int freeSlot() {
+        for (int w = 0; w < used.length; w++) {
+            if (used[w] != -1L) {
+                int slot = w * Long.SIZE + Long.numberOfTrailingZeros(~used[w]);
+                if (slot >= members.length) {
+                    grow();
+                }
+                return slot;
+            }
+        }
+        int slot = used.length * Long.SIZE;
+        grow();
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = members.length * 2;
+        members = Arrays.copyOf(members, capacity);
+        hp = Arrays.copyOf(hp, capacity);
+        hpMax = Arrays.copyOf(hpMax, capacity);
+        attack = Arrays.copyOf(attack, capacity);
+        baseAttack = Arrays.copyOf(baseAttack, capacity);
+        defense = Arrays.copyOf(defense, capacity);
+        intents = Arrays.copyOf(intents, capacity);
+        used = Arrays.copyOf(used, (capacity + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /* =========================
+       Bulk operations
+       ========================= */
+
+    /**
+     * Attacks every enemy: a defending enemy subtracts its defense, as in
+     * Enemy.getAttacked.
+     *
+     * @param damage damage dealt to each enemy
+     */
+    public void damageAll(int damage) {
+        int defend = Intent.DEFEND.bit();
+        for (int w = 0; w < used.length; w++) {
+            for (long bits = used[w]; bits != 0L; bits &= bits - 1) {
+                int i = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                int taken = (intents[i] & defend) != 0 ? Math.max(0, damage - defense[i]) : damage;
+                setHp(i, Math.max(0, hp[i] - taken));
+            }
+        }
+    }
+
+    /**
+     * Poisons every enemy: HP are lost whatever the defense.
+     *
+     * @param amount HP lost by each enemy
+     */
+    public void poisonAll(int amount) {
+        for (int w = 0; w < used.length; w++) {
+            for (long bits = used[w]; bits != 0L; bits &= bits - 1) {
+                int i = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                setHp(i, Math.min(hpMax[i], hp[i] - amount));
+            }
+        }
+    }
+
+    /**
+     * Heals every enemy, up to its maximum HP.
+     *
+     * @param amount HP gained by each enemy
+     */
+    public void healAll(int amount) {
+        for (int w = 0; w < used.length; w++) {
+            for (long bits = used[w]; bits != 0L; bits &= bits - 1) {
+                int i = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                setHp(i, Math.min(hpMax[i], hp[i] + amount));
+            }
+        }
+    }
+
+    /* =========================
+       Slots
+       ========================= */
+
+    /** @return Zobrist hash of the stats of the enemies, by slot */
+    public long hash() {
+        return hash;
+    }
+
+    /** @return Number of enemies in the group */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param from first slot to look at
+     * @return the lowest slot holding an enemy from the given one, -1 if none
+     */
+    public int nextSlot(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        for (int w = from >>> 6; w < used.length; w++) {
+            long bits = w == from >>> 6 ? used[w] & (-1L << from) : used[w];
+            if (bits != 0L) {
+                return w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    /** @return Enemy of a slot, null if free */
+    public Enemy member(int slot) {
+        return members[slot];
+    }
+
+    /** @return HP of the enemy of a slot */
+    public int hp(int slot) {
+        return hp[slot];
+    }
+
+    /** @return Maximum HP of the enemy of a slot */
+    public int hpMax(int slot) {
+        return hpMax[slot];
+    }
+
+    /** @return Attack of the enemy of a slot */
+    public int attack(int slot) {
+        return attack[slot];
+    }
+
+    /** @return Attack restored by baseShape for the enemy of a slot */
+    public int baseAttack(int slot) {
+        return baseAttack[slot];
+    }
+
+    /** @return Defense of the enemy of a slot */
+    public int defense(int slot) {
+        return defense[slot];
+    }
+
+    /** @return Intents of the enemy of a slot */
+    public int intents(int slot) {
+        return intents[slot];
+    }
+
+    void setHp(int slot, int value) {
+        hash ^= Zobrist.update(Zobrist.ENEMY_HP, slot, hp[slot], value);
+        hp[slot] = value;
+    }
+
+    void setAttack(int slot, int value) {
+        hash ^= Zobrist.update(Zobrist.ENEMY_ATTACK, slot, attack[slot], value);
+        attack[slot] = value;
+    }
+
+    void resetAttack(int slot) {
+        setAttack(slot, baseAttack[slot]);
+    }
+
+    void setIntents(int slot, int mask) {
+        hash ^= Zobrist.update(Zobrist.ENEMY_INTENTS, slot, intents[slot], mask & Intent.ALL);
+        intents[slot] = mask & Intent.ALL;
+    }
+}
@@ -0,0 +1,66 @@
+package Enemies;
+
+/**
+ * Action an enemy announces for its next turn. The intents of an enemy are
+ * stored as a bitmask of {@link #bit()} values.
+ */
+public enum Intent {
+    ATTACK("Attack"), DEFEND("Defend"), EFFECT("Effect");
+
+    // Intents in declaration order, shared to avoid copying values()
+    private static final Intent[] VALUES = values();
+    /** Number of intents */
+    public static final int COUNT = VALUES.length;
+    /** Mask of every intent */
+    public static final int ALL = (1 << COUNT) - 1;
+
+    // Text shown for each mask, computed once
+    private static final String[] LABELS = new String[ALL + 1];
+
+    static {
+        for (int mask = 0; mask <= ALL; mask++) {
+            StringBuilder sb = new StringBuilder();
+            for (Intent intent : VALUES) {
+                if ((mask & intent.bit()) != 0) {
+                    if (sb.length() > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append(intent.label);
+                }
+            }
+            LABELS[mask] = sb.toString();
+        }
+    }
+
+    private final String label;
+
+    Intent(String label) {
+        this.label = label;
+    }
+
+    /** @return Bit of this intent in a mask */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /** @return Text shown for this intent */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * @param index position of a bit in a mask of intents
+     * @return the intent of that bit
+     */
+    public static Intent of(int index) {
+        return VALUES[index];
+    }
+
+    /**
+     * @param mask a mask of intents
+     * @return the labels of the intents of the mask, comma separated
+     */
+    public static String label(int mask) {
+        return LABELS[mask & ALL];
+    }
+}
@@ -1,162 +1,27 @@
 package Enemies;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Objects;
 
 import effects.Effect;
-import model.Hero;
+import model.RunContext;
 
-public class Ratwolf implements Enemy {
-
-    private int id;
-    private int hpMax;
-    private int hp;
-    private int attack;
-    private int defense;
-    private int xp;
-    private String description;
-    private ArrayList<Effect> effects;
-    private HashSet<Integer> actions;
-
-    public static int ID = 0;
+public class Ratwolf extends AbstractEnemy {
 
     // Constructeur principal
-    public Ratwolf(int id,
-            int hpMax,
-            int hp,
-            int attack,
-            int defense,
-            int xp,
-            String description,
-            ArrayList<Effect> effects,
-            HashSet<Integer> actions) {
-
-        this.id = id;
-        this.hpMax = hpMax;
-        this.hp = hp;
-        this.attack = attack;
-        this.defense = defense;
-        this.xp = xp;
-        this.effects = effects;
-        this.description = description;
-        this.actions = Objects.requireNonNull(actions, "actions cannot be null");
-        if (hp < 0)
-            throw new IllegalArgumentException("hp < 0");
-        if (hpMax < 0)
-            throw new IllegalArgumentException("hpMax < 0");
-        if (attack < 0)
-            throw new IllegalArgumentException("attack < 0");
-        if (defense < 0)
-            throw new IllegalArgumentException("defense < 0");
+    protected Ratwolf(int id, int hpMax, int hp, int attack, int defense, int xp, String description,
+            ArrayList<Effect> effects, int intents) {
+        super("RatLoup", id, hpMax, hp, attack, defense, xp, description, effects, intents);
     }
 
     // Constructeur simplifié
-    public Ratwolf() {
-        this(ID++, 45, 45, 9, 13, 6,
+    protected Ratwolf() {
+        this(RunContext.current().nextEnemyId(), 45, 45, 9, 13, 6,
                 "The ratwolf has long patrolled these halls, \nkilling adventurers who stray too far",
-                new ArrayList<Effect>(), new HashSet<>());
-    }
-
-    // --- Getters (style record) ---
-
-    public int id() {
-        return id;
-    }
-
-    public int hpMax() {
-        return hpMax;
-    }
-
-    public int hp() {
-        return hp;
-    }
-
-    public int attack() {
-        return attack;
-    }
-
-    public int defense() {
-        return defense;
-    }
-
-    public int exp() {
-        return xp;
-    }
-
-    public HashSet<Integer> actions() {
-        return actions; // copie défensive
-    }
-
-    public String description() {
-        return description;
-    }
-
-    // --- Gameplay ---
-    public void setHp(int amount) {
-        hp = Math.min(hpMax, amount + hp);
-    }
-
-    @Override
-    public void execute(Hero hero) {
-        Objects.requireNonNull(hero);
-        if (actions.contains(3)) {
-            for (var effect : effects) {
-                effect.execute(hero, null, this, null);
-            }
-        }
-        if (actions.contains(1)) {
-            hero.takeDamage(this);
-        }
-    }
-
-    public Enemy getAttacked(int effectiveDamage) {
-        if (actions.contains(2)) {
-            return defend(effectiveDamage);
-        }
-        return weaponAttacked(effectiveDamage);
-    }
-
-    public Enemy defend(int effectiveDamage) {
-        return weaponAttacked(effectiveDamage, defense);
-    }
-
-    private Enemy weaponAttacked(int effectiveDamage) {
-        this.hp = Math.max(0, hp - effectiveDamage);
-        return this;
-    }
-
-    private Enemy weaponAttacked(int effectiveDamage, int defence) {
-        this.hp = Math.max(0, hp - Math.max(0, effectiveDamage - defence));
-        return this;
-    }
-
-    @Override
-    public String toString() {
-        return "RatLoup [HP=" + hp + "/" + hpMax +
-                ", Attack=" + attack +
-                ", Defense=" + defense + "]";
-    }
-
-    @Override
-    public void setAttack(int i) {
-        attack += i;
-
-    }
-
-    @Override
-    public void setActions(HashSet<Integer> h) {
-        Objects.requireNonNull(h);
-        actions = new HashSet<>(h);
-    }
-
-    public void apply(Hero hero, ArrayList<Enemy> enemies) {
-        Objects.requireNonNull(hero);
-        Objects.requireNonNull(enemies);
-
+                new ArrayList<Effect>(), 0);
     }
 
-    public void baseShape() {
-        this.attack = 9;
+    /** @return A new Ratwolf, registered in a group of its own */
+    public static Ratwolf create() {
+        return register(new Ratwolf());
     }
 }
@@ -1,12 +1,12 @@
 package Items;
 
-import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Objects;
 
 import Enemies.Enemy;
 import effects.Effect;
 import model.Hero;
+import model.RunContext;
 
 /**
  * Represents an Armor item.
@@ -17,17 +17,6 @@ import model.Hero;
  */
 public class Armor implements Item {
 
-    /*
-     * =========================
-     * Static fields
-     * =========================
-     */
-
-    /**
-     * Auto-incremented ID counter for Armors
-     */
-    public static int ID = 0;
-
     /*
      * =========================
      * Instance fields
@@ -45,7 +34,12 @@ public class Armor implements Item {
     private String description;
 
     private ArrayList<Effect> effects;
-    private ArrayList<Point> occupiedCases;
+    private final Shape shape;
+    // Effects by trigger, resolved once from the item definition
+    private final EffectTable table;
+    // Value restored by baseShape, without any bonus
+    private final int baseProtection;
+    private int rotation;
 
     /*
      * =========================
@@ -66,11 +60,11 @@ public class Armor implements Item {
             int protectionValue,
             String description,
             ArrayList<Effect> effects,
-            ArrayList<Point> occupiedCases) {
+            Shape shape) {
 
         // Field validation (equivalent to record compact constructor)
         Objects.requireNonNull(name, "name must not be null");
-        Objects.requireNonNull(occupiedCases, "occupiedCases must not be null");
+        Objects.requireNonNull(shape, "shape must not be null");
 
         if (energyCost < 0) {
             throw new IllegalArgumentException("energyCost < 0");
@@ -88,7 +82,9 @@ public class Armor implements Item {
         this.protectionValue = protectionValue;
         this.description = description;
         this.effects = effects;
-        this.occupiedCases = occupiedCases;
+        this.shape = shape;
+        this.table = tableOf(name, effects);
+        this.baseProtection = this.protectionValue;
     }
 
     /**
@@ -102,10 +98,10 @@ public class Armor implements Item {
             int protectionValue,
             String description,
             ArrayList<Effect> effects,
-            ArrayList<Point> occupiedCases) {
+            Shape shape) {
 
-        this(ID++, name, x, y, energyCost, rarity, protectionValue,
-                description, effects, occupiedCases);
+        this(RunContext.current().nextItemId(), name, x, y, energyCost, rarity, protectionValue,
+                description, effects, shape);
     }
 
     /*
@@ -150,8 +146,23 @@ public class Armor implements Item {
         return effects;
     }
 
-    public ArrayList<Point> occupiedCases() {
-        return occupiedCases;
+    @Override
+    public EffectTable effectTable() {
+        return table;
+    }
+
+    public Shape shape() {
+        return shape;
+    }
+
+    @Override
+    public int rotation() {
+        return rotation;
+    }
+
+    @Override
+    public void setRotation(int rotation) {
+        this.rotation = rotation & 3;
     }
 
     public void setProtection(int protection) {
@@ -200,16 +211,19 @@ public class Armor implements Item {
      */
     @Override
     public Item createNewInstance() {
-        return new Armor(
+        Armor copy = new Armor(
                 name,
                 x,
                 y,
                 energyCost,
                 rarity,
-                protectionValue,
+                baseProtection,
                 description,
                 effects,
-                new ArrayList<>(occupiedCases));
+                shape);
+        copy.table.copyState(table);
+        copy.setRotation(rotation);
+        return copy;
     }
 
     /*
@@ -220,14 +234,7 @@ public class Armor implements Item {
      */
     public void notOnUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
         Objects.requireNonNull(hero);
-
-        if (this instanceof Armor armor &&
-                (armor.name().equals("Tunic") || armor.name().equals("Wizards Robe"))) {
-
-            for (Effect ef : armor.effects()) {
-                ef.execute(hero, enemies, e, armor);
-            }
-        }
+        table.run(Trigger.PASSIVE, hero, enemies, e, this);
     }
 
     public void onUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
@@ -240,14 +247,21 @@ public class Armor implements Item {
     }
 
     public void baseShape() {
-        if (this instanceof Armor armor) {
-            if (armor.name.equals("Tunic")) {
-                armor.setProtection(5);
-            } else if (armor.name.equals("Chainmail")) {
-                armor.setProtection(10);
-            } else {
-                armor.setProtection(6);
-            }
+        setProtection(baseProtection);
+    }
+
+    /*
+     * =========================
+     * Definition
+     * =========================
+     */
+
+    // Only the Tunic and the Wizards Robe have (passive) effects
+    private static EffectTable tableOf(String name, ArrayList<Effect> effects) {
+        EffectTable.Builder builder = new EffectTable.Builder();
+        if (name.equals("Tunic") || name.equals("Wizards Robe")) {
+            builder.addAllPassive(effects);
         }
+        return builder.build();
     }
 }
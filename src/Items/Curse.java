@@ -4,10 +4,12 @@ import java.awt.Point;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import Enemies.Enemy;
 import model.Hero;
+import model.RunContext;
 
 import effects.Effect;
 
@@ -15,24 +17,37 @@ public class Curse implements Item {
 
     private String name;
     private String description;
-    private ArrayList<Point> shape;
+    private final Shape shape;
     private int damage;
     private int id;
-    static int ID = 0;
 
     public Curse(String name) {
-        this(name, "A dark energy taking the shape of an L.", new ArrayList<>(List.of(
-                new Point(0, 0),
-                new Point(0, 1),
-                new Point(1, 1))));
+        this(name, new SplittableRandom());
     }
 
-    public Curse(String name, String description, ArrayList<Point> shape) {
+    /**
+     * @param name   name of the curse
+     * @param random draws the HP the curse costs, from 1 to 9
+     */
+    public Curse(String name, RandomGenerator random) {
+        this(name, "A dark energy taking the shape of an L.", Shape.THREE_BATON_AXE_CASES, random.nextInt(1, 10));
+    }
+
+    public Curse(String name, String description, Shape shape) {
+        this(name, description, shape, new SplittableRandom().nextInt(1, 10));
+    }
+
+    private Curse(String name, String description, Shape shape, int damage) {
         this.name = name;
         this.description = description;
         this.shape = shape;
-        this.damage = new Random().nextInt(1, 10);
-        this.id = ID++;
+        this.damage = damage;
+        this.id = RunContext.current().nextItemId();
+    }
+
+    /** @return HP lost by the hero when the curse is used */
+    public int damage() {
+        return damage;
     }
 
     @Override
@@ -42,7 +57,7 @@ public class Curse implements Item {
 
     @Override
     public Item createNewInstance() {
-        return new Curse(this.name, this.description, new ArrayList<>(this.shape));
+        return new Curse(this.name, this.description, this.shape, this.damage);
     }
 
     @Override
@@ -56,7 +71,7 @@ public class Curse implements Item {
     }
 
     @Override
-    public ArrayList<Point> occupiedCases() {
+    public Shape shape() {
         return shape;
     }
 
@@ -81,8 +96,7 @@ public class Curse implements Item {
         Objects.requireNonNull(hero);
 
         hero.setHp(hero.getHp() - damage);
-        var p = hero.getBackpack().getItems().get(this).getFirst();
-        hero.getBackpack().removeItem(p.x, p.y);
+        hero.getBackpack().removeItem(this);
     }
 
     @Override
@@ -97,6 +111,6 @@ public class Curse implements Item {
 
     @Override
     public List<Point> rotatePoints() {
-        return shape;
+        return occupiedCases();
     }
 }
@@ -0,0 +1,223 @@
+package Items;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import Enemies.Enemy;
+import effects.Aura;
+import effects.Effect;
+import effects.Stateful;
+import model.Hero;
+
+/**
+ * Effects of an item grouped by the trigger they run on.
+ * <p>
+ * Tables are built once when the item is created, so running the effects of a
+ * trigger is a loop over a plain array: no name comparison nor type test on
+ * the hot path.
+ * </p>
+ * <p>
+ * Effects are immutable and may be shared by many items. The counters of the
+ * {@link Stateful} effects are the only state of a table, kept in one int
+ * array: copying a table copies the array and shares everything else.
+ * </p>
+ */
+public final class EffectTable {
+
+    /* =========================
+       Static fields
+       ========================= */
+
+    private static final Effect[] NONE = new Effect[0];
+    private static final int[] NO_SLOT = new int[0];
+    private static final Trigger[] TRIGGERS = Trigger.values();
+
+    /** Table without any effect */
+    public static final EffectTable EMPTY = new Builder().build();
+
+    /* =========================
+       Instance fields
+       ========================= */
+
+    // Effects of each trigger, indexed by ordinal
+    private final Effect[][] effects;
+    // Index in state of the counter of each effect, -1 for stateless effects
+    private final int[][] slots;
+    // Counters of the stateful effects of this item
+    private final int[] state;
+
+    private EffectTable(Effect[][] effects, int[][] slots, int[] state) {
+        this.effects = effects;
+        this.slots = slots;
+        this.state = state;
+    }
+
+    /**
+     * Sets the counters of this table to those of another table built from
+     * the same effects.
+     *
+     * @param other the table to copy the counters from
+     */
+    public void copyState(EffectTable other) {
+        Objects.requireNonNull(other);
+        if (other.state.length != state.length) {
+            throw new IllegalArgumentException("tables of different effects");
+        }
+        System.arraycopy(other.state, 0, state, 0, state.length);
+    }
+
+    /* =========================
+       Getters
+       ========================= */
+
+    /** @return Number of effects run on the given trigger */
+    public int count(Trigger trigger) {
+        return effects[trigger.ordinal()].length;
+    }
+
+    /** @return Effect i of the given trigger */
+    public Effect effect(Trigger trigger, int i) {
+        return effects[trigger.ordinal()][i];
+    }
+
+    /**
+     * @return Counter of effect i of the given trigger, 0 for a stateless
+     *         effect
+     */
+    public int state(Trigger trigger, int i) {
+        int slot = slots[trigger.ordinal()][i];
+        return slot < 0 ? 0 : state[slot];
+    }
+
+    /** @return Number of counters of the stateful effects */
+    public int stateSize() {
+        return state.length;
+    }
+
+    /** @return Counter k, counters being numbered by trigger then effect */
+    public int state(int k) {
+        return state[k];
+    }
+
+    /** @return true if a counter of the given trigger says the item is used up */
+    public boolean exhausted(Trigger trigger) {
+        Effect[] list = effects[trigger.ordinal()];
+        int[] index = slots[trigger.ordinal()];
+        for (int i = 0; i < list.length; i++) {
+            if (index[i] >= 0 && ((Stateful) list[i]).exhausted(state[index[i]])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs every effect of a trigger, in order.
+     *
+     * @param trigger the trigger
+     * @param hero    the hero
+     * @param enemies the enemies of the fight, may be null out of combat
+     * @param e       the targeted enemy, may be null
+     * @param item    the item owning the effects
+     */
+    public void run(Trigger trigger, Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item) {
+        Effect[] list = effects[trigger.ordinal()];
+        int[] index = slots[trigger.ordinal()];
+        for (int i = 0; i < list.length; i++) {
+            if (index[i] >= 0) {
+                state[index[i]] = ((Stateful) list[i]).execute(hero, enemies, e, item, state[index[i]]);
+            } else {
+                list[i].execute(hero, enemies, e, item);
+            }
+        }
+    }
+
+    /* =========================
+       Builder
+       ========================= */
+
+    /**
+     * Collects the effects of each trigger before freezing them in a table.
+     */
+    public static final class Builder {
+        private final ArrayList<ArrayList<Effect>> effects = new ArrayList<>();
+
+        public Builder() {
+            for (int i = 0; i < TRIGGERS.length; i++) {
+                effects.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * @param trigger the trigger
+         * @param effect  an effect to run on it
+         * @return this builder
+         */
+        public Builder add(Trigger trigger, Effect effect) {
+            Objects.requireNonNull(trigger);
+            Objects.requireNonNull(effect);
+            effects.get(trigger.ordinal()).add(effect);
+            return this;
+        }
+
+        /**
+         * @param trigger the trigger
+         * @param list    effects to run on it, may be null
+         * @return this builder
+         */
+        public Builder addAll(Trigger trigger, List<? extends Effect> list) {
+            if (list != null) {
+                list.forEach(effect -> add(trigger, effect));
+            }
+            return this;
+        }
+
+        /**
+         * Adds a passive effect: auras go to Trigger.AURA, other effects to
+         * Trigger.PASSIVE.
+         *
+         * @param effect a passive effect
+         * @return this builder
+         */
+        public Builder addPassive(Effect effect) {
+            return add(effect instanceof Aura ? Trigger.AURA : Trigger.PASSIVE, effect);
+        }
+
+        /**
+         * @param list passive effects, may be null
+         * @return this builder
+         */
+        public Builder addAllPassive(List<? extends Effect> list) {
+            if (list != null) {
+                list.forEach(this::addPassive);
+            }
+            return this;
+        }
+
+        /** @return the table of the collected effects */
+        public EffectTable build() {
+            Effect[][] table = new Effect[TRIGGERS.length][];
+            int[][] slots = new int[TRIGGERS.length][];
+            int[] state = new int[8];
+            int count = 0;
+            for (int i = 0; i < table.length; i++) {
+                table[i] = effects.get(i).isEmpty() ? NONE : effects.get(i).toArray(NONE);
+                slots[i] = table[i].length == 0 ? NO_SLOT : new int[table[i].length];
+                for (int j = 0; j < table[i].length; j++) {
+                    if (table[i][j] instanceof Stateful stateful) {
+                        if (count == state.length) {
+                            state = Arrays.copyOf(state, count * 2);
+                        }
+                        state[count] = stateful.initialState();
+                        slots[i][j] = count++;
+                    } else {
+                        slots[i][j] = -1;
+                    }
+                }
+            }
+            return new EffectTable(table, slots, Arrays.copyOf(state, count));
+        }
+    }
+}
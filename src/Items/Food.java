@@ -1,14 +1,13 @@
 package Items;
 
-import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Objects;
 
 import Enemies.Enemy;
 import effects.AddProtectionAdj;
 import effects.Effect;
-import effects.NumberUses;
 import model.Hero;
+import model.RunContext;
 
 /**
  * Represents a Food item.
@@ -20,15 +19,6 @@ import model.Hero;
  */
 public class Food implements Item {
 
-    /* =========================
-       Static fields
-       ========================= */
-
-    /**
-     * Auto-incremented ID counter
-     */
-    public static int ID = 0;
-
     /* =========================
        Instance fields
        ========================= */
@@ -41,7 +31,10 @@ public class Food implements Item {
     private  int rarity;
     private  boolean destroy;
     private  ArrayList<Effect> effects;
-    private  ArrayList<Point> occupiedCases;
+    private final Shape shape;
+    // Effects by trigger, resolved once from the item definition
+    private final EffectTable table;
+    private int rotation;
     private  String description;
 
     /* =========================
@@ -58,12 +51,12 @@ public class Food implements Item {
                 int rarity,
                 boolean destroy,
                 ArrayList<Effect> effects,
-                ArrayList<Point> occupiedCases,
+                Shape shape,
                 String description) {
 
         // Validation (equivalent to record compact constructor)
         Objects.requireNonNull(name, "name must not be null");
-        Objects.requireNonNull(occupiedCases, "occupiedCases must not be null");
+        Objects.requireNonNull(shape, "shape must not be null");
 
         this.id = id;
         this.name = name;
@@ -72,7 +65,8 @@ public class Food implements Item {
         this.rarity = rarity;
         this.destroy = destroy;
         this.effects = effects;
-        this.occupiedCases = occupiedCases;
+        this.shape = shape;
+        this.table = tableOf(name, effects);
         this.description = description;
     }
 
@@ -85,10 +79,10 @@ public class Food implements Item {
                 int rarity,
                 boolean destroy,
                 ArrayList<Effect> effects,
-                ArrayList<Point> occupiedCases,
+                Shape shape,
                 String description) {
 
-        this(ID++, name, x, y, rarity, destroy, effects, occupiedCases, description);
+        this(RunContext.current().nextItemId(), name, x, y, rarity, destroy, effects, shape, description);
     }
 
     /* =========================
@@ -123,8 +117,23 @@ public class Food implements Item {
         return effects;
     }
 
-    public ArrayList<Point> occupiedCases() {
-        return occupiedCases;
+    @Override
+    public EffectTable effectTable() {
+        return table;
+    }
+
+    public Shape shape() {
+        return shape;
+    }
+
+    @Override
+    public int rotation() {
+        return rotation;
+    }
+
+    @Override
+    public void setRotation(int rotation) {
+        this.rotation = rotation & 3;
     }
 
     public String description() {
@@ -166,16 +175,19 @@ public class Food implements Item {
      */
     @Override
     public Item createNewInstance() {
-        return new Food(
+        Food copy = new Food(
                 name,
                 x,
                 y,
                 rarity,
                 destroy,
                 new ArrayList<>(effects),
-                new ArrayList<>(occupiedCases),
+                shape,
                 description
         );
+        copy.table.copyState(table);
+        copy.setRotation(rotation);
+        return copy;
     }
     /*
                     new ArrayList<>(List.of(new AddHpHero(2), new NumberUses(1))),
@@ -189,37 +201,14 @@ public class Food implements Item {
     public void notOnUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
         Objects.requireNonNull(hero);
 
-        if (this instanceof Food food &&
-            food.name().equals("Steak")) {
-
-            for (Effect ef : food.effects()) {
-                System.out.println("description : " + food.description());
-                if(ef instanceof AddProtectionAdj) {
-                	ef.execute(hero, enemies, e, food);
-                }
-                
-            }
-        }
+        table.run(Trigger.PASSIVE, hero, enemies, e, this);
     }
     public void onUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
         Objects.requireNonNull(hero);
-        boolean del = false;
         if (this instanceof Food food) {
-        	for (Effect ef : food.effects()) {
-                System.out.println("description : " + food.description());
-                if((ef instanceof AddProtectionAdj) == false) {
-                	ef.execute(hero, enemies, e, food);
-                }
-                if(ef instanceof NumberUses eff) {
-                	if(eff.n() <= 0) {
-                		del = true;
-                	}
-                }
-                
-            }
-        	if(del) {
-        		var p = hero.getBackpack().getItems().get(this).getFirst();
-        		hero.getBackpack().removeItem(p.x, p.y);
+        	table.run(Trigger.ON_USE, hero, enemies, e, food);
+        	if(table.exhausted(Trigger.ON_USE)) {
+        		hero.getBackpack().removeItem(this);
         		System.out.println("Item removed");
         	}
         }
@@ -227,4 +216,23 @@ public class Food implements Item {
     public void baseShape() {
     	
     }
+
+    /* =========================
+       Definition
+       ========================= */
+
+    // Adjacency bonuses are passive (Steak only), every other effect runs on use
+    private static EffectTable tableOf(String name, ArrayList<Effect> effects) {
+        EffectTable.Builder builder = new EffectTable.Builder();
+        if (effects != null) {
+            for (Effect ef : effects) {
+                if (!(ef instanceof AddProtectionAdj)) {
+                    builder.add(Trigger.ON_USE, ef);
+                } else if (name.equals("Steak")) {
+                    builder.addPassive(ef);
+                }
+            }
+        }
+        return builder.build();
+    }
 }
@@ -2,7 +2,6 @@ package Items;
 
 import java.awt.Point;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 import Enemies.Enemy;
@@ -31,7 +30,8 @@ public class Gold implements Item {
 
     private int rarity;
     private int goldValue;
-    private ArrayList<Point> occupiedCases;
+    private final Shape shape;
+    private int rotation;
 
     /*
      * =========================
@@ -47,11 +47,11 @@ public class Gold implements Item {
             int y,
             int rarity,
             int goldValue,
-            ArrayList<Point> occupiedCases) {
+            Shape shape) {
 
         // Validation (equivalent to record compact constructor)
         Objects.requireNonNull(name, "name must not be null");
-        Objects.requireNonNull(occupiedCases, "occupiedCases must not be null");
+        Objects.requireNonNull(shape, "shape must not be null");
 
         if (goldValue < 0) {
             throw new IllegalArgumentException("goldValue < 0");
@@ -62,7 +62,7 @@ public class Gold implements Item {
         this.y = y;
         this.rarity = rarity;
         this.goldValue = goldValue;
-        this.occupiedCases = occupiedCases;
+        this.shape = shape;
     }
 
     /**
@@ -77,7 +77,7 @@ public class Gold implements Item {
                 1,
                 rarity,
                 goldValue,
-                new ArrayList<>(List.of(new Point(0, 0))));
+                Shape.ONE_CASE);
     }
 
     /*
@@ -106,8 +106,18 @@ public class Gold implements Item {
         return goldValue;
     }
 
-    public ArrayList<Point> occupiedCases() {
-        return occupiedCases;
+    public Shape shape() {
+        return shape;
+    }
+
+    @Override
+    public int rotation() {
+        return rotation;
+    }
+
+    @Override
+    public void setRotation(int rotation) {
+        this.rotation = rotation & 3;
     }
 
     public String description() {
@@ -142,27 +152,16 @@ public class Gold implements Item {
      */
     public static boolean hasGold(BackPack b) {
         Objects.requireNonNull(b);
-        return b.getItems()
-                .keySet()
-                .stream()
-                .anyMatch(i -> i instanceof Gold);
+        return b.getGold() != null;
     }
 
     /**
-     * Returns the position of the first Gold item found in the backpack grid.
+     * Returns the position of the canonical Gold stack of the backpack.
      */
     public static Point getGold(BackPack b) {
         Objects.requireNonNull(b);
 
-        // Scan the grid to find gold position
-        for (int i = 0; i < 5; i++) {
-            for (int j = 0; j < 7; j++) {
-                if (b.getGrille()[i][j] instanceof Gold) {
-                    return new Point(i, j);
-                }
-            }
-        }
-        return null;
+        return b.goldPosition();
     }
 
     /*
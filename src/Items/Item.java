@@ -3,7 +3,9 @@ package Items;
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import Enemies.Enemy;
 import effects.AddDamageAdjWeapon;
@@ -30,7 +32,22 @@ public interface Item {
 
     }
 
-    ArrayList<Point> occupiedCases();
+    /** @return Shared shape of the item */
+    Shape shape();
+
+    /** @return Current rotation index (0 to 3, 90 degree steps) */
+    default int rotation() {
+        return 0;
+    }
+
+    /** @param rotation New rotation index, taken modulo 4 */
+    default void setRotation(int rotation) {
+    }
+
+    /** @return Occupied points for the current rotation (x = column, y = row) */
+    default List<Point> occupiedCases() {
+        return shape().points(rotation());
+    }
 
     int rarity();
 
@@ -40,6 +57,11 @@ public interface Item {
 
     ArrayList<Effect> effects();
 
+    /** @return Effects of the item by trigger, resolved when it was created */
+    default EffectTable effectTable() {
+        return EffectTable.EMPTY;
+    }
+
     Item createNewInstance();
 
     void notOnUse(Hero hero, Enemy e, ArrayList<Enemy> enemies);
@@ -47,11 +69,11 @@ public interface Item {
     void onUse(Hero hero, Enemy e, ArrayList<Enemy> enemies);
 
     default int widthItem() {
-        return occupiedCases().stream().mapToInt(p -> p.x).max().orElse(0) + 1;
+        return shape().width(rotation());
     }
 
     default int heightItem() {
-        return occupiedCases().stream().mapToInt(p -> p.y).max().orElse(0) + 1;
+        return shape().height(rotation());
     }
 
     default int calculatePrice() {
@@ -60,63 +82,46 @@ public interface Item {
 
     // ================== CASE SHAPES ==================
 
-    static ArrayList<Point> oneCase() {
-        return new ArrayList<>(List.of(new Point(0, 0)));
+    static Shape oneCase() {
+        return Shape.ONE_CASE;
     }
 
-    static ArrayList<Point> twoCasesArmor() {
-        return new ArrayList<>(List.of(
-                new Point(0, 0), new Point(1, 0),
-                new Point(0, 1), new Point(1, 1)));
+    static Shape twoCasesArmor() {
+        return Shape.TWO_CASES_ARMOR;
     }
 
-    static ArrayList<Point> twoFoodCases() {
-        return new ArrayList<>(List.of(
-                new Point(0, 0), new Point(1, 0) // vertical
-        ));
+    static Shape twoFoodCases() {
+        return Shape.TWO_FOOD_CASES;
     }
 
-    static ArrayList<Point> twoBatonCases() {
-        return new ArrayList<>(List.of(
-                new Point(0, 0), new Point(0, 1) // changed from horizontal to vertical
-        ));
+    static Shape twoBatonCases() {
+        return Shape.TWO_BATON_CASES;
     }
 
-    static ArrayList<Point> threeBatonCases() {
-        return new ArrayList<>(List.of(
-                new Point(0, 0), new Point(0, 1), new Point(0, 2) // vertical line of 3
-        ));
+    static Shape threeBatonCases() {
+        return Shape.THREE_BATON_CASES;
     }
 
-    static ArrayList<Point> fourBatonCases() {
-        return new ArrayList<>(List.of(
-                new Point(0, 0), new Point(0, 1),
-                new Point(0, 2), new Point(0, 3) // vertical line of 4
-        ));
+    static Shape fourBatonCases() {
+        return Shape.FOUR_BATON_CASES;
     }
 
-    static ArrayList<Point> threeBatonAxeCases() {
-        return new ArrayList<>(List.of(
-                new Point(0, 0), new Point(0, 1), new Point(1, 1) // vertical stem + one to right
-        ));
+    static Shape threeBatonAxeCases() {
+        return Shape.THREE_BATON_AXE_CASES;
     }
 
-    static ArrayList<Point> threeAxeRare() {
-        return new ArrayList<>(List.of(
-                new Point(0, 0), new Point(1, 0), new Point(1, 1) // "L" shape rotated
-        ));
+    static Shape threeAxeRare() {
+        return Shape.THREE_AXE_RARE;
     }
 
-    static ArrayList<Point> twoWandCases() {
-        return new ArrayList<>(List.of(
-                new Point(0, 0), new Point(1, 1) // diagonal from top-left to bottom-right
-        ));
+    static Shape twoWandCases() {
+        return Shape.TWO_WAND_CASES;
     }
 
     // ================== GOLD ==================
 
-    static Gold generateGold() {
-        int prob = new Random().nextInt(100);
+    static Gold generateGold(RandomGenerator r) {
+        int prob = r.nextInt(100);
         return new Gold("Gold", prob, prob);
     }
 
@@ -126,8 +131,7 @@ public interface Item {
 
     // ================== FOOD ==================
 
-    static Food generateFood() {
-        Random r = new Random();
+    static Food generateFood(RandomGenerator r) {
         int prob = r.nextInt(100);
 
         return switch (r.nextInt(3)) {
@@ -149,7 +153,7 @@ public interface Item {
     }
 
     // ================== WEAPONS ==================
-    static Item generateWeaponMelee(Random r) {
+    static Item generateWeaponMelee(RandomGenerator r) {
         int prob = r.nextInt(100);
 
         if (prob < 70) {
@@ -176,7 +180,7 @@ public interface Item {
         }
     }
 
-    static Item generateWeaponRanged(Random r) {
+    static Item generateWeaponRanged(RandomGenerator r) {
         int prob = r.nextInt(100);
 
         if (prob < 70) {
@@ -205,8 +209,7 @@ public interface Item {
 
     // ================== ARMOR ==================
 
-    static Armor generateArmor() {
-        Random r = new Random();
+    static Armor generateArmor(RandomGenerator r) {
         int prob = r.nextInt(100);
 
         if (prob < 70) {
@@ -237,8 +240,7 @@ public interface Item {
 
     // ================== SHIELDS ==================
 
-    static Shield generateShield() {
-        Random r = new Random();
+    static Shield generateShield(RandomGenerator r) {
         int prob = r.nextInt(100);
 
         if (prob < 70) {
@@ -269,7 +271,7 @@ public interface Item {
 
     // ================== MAGIC ITEMS ==================
 
-    static MagicItem generateMagicItem(Random r) {
+    static MagicItem generateMagicItem(RandomGenerator r) {
         int prob = r.nextInt(100);
 
         if (prob < 70) {
@@ -300,8 +302,7 @@ public interface Item {
 
     // ================== POTIONS ==================
 
-    static Potion generatePotion() {
-        Random r = new Random();
+    static Potion generatePotion(RandomGenerator r) {
         int prob = r.nextInt(100);
 
         if (prob < 70) {
@@ -331,8 +332,7 @@ public interface Item {
         );
     }
 
-    static ManaStone generateManaStone() {
-        Random r = new Random();
+    static ManaStone generateManaStone(RandomGenerator r) {
         int prob = r.nextInt(100);
 
         if (prob < 90) {
@@ -355,7 +355,7 @@ public interface Item {
         }
     }
 
-    static Item generateWeapon(Random r) {
+    static Item generateWeapon(RandomGenerator r) {
         if (r.nextInt(1) == 0) {
             return generateWeaponMelee(r);
         } else {
@@ -365,7 +365,15 @@ public interface Item {
     // ================== ITEM LIST GENERATION ==================
 
     static List<Item> generateItems() {
-        Random r = new Random();
+        return generateItems(new SplittableRandom());
+    }
+
+    /**
+     * @param r generator of the loot
+     * @return between 4 and 13 random items, at least one of them a weapon
+     */
+    static List<Item> generateItems(RandomGenerator r) {
+        Objects.requireNonNull(r);
         int min = 4;
         int size = r.nextInt(10) + min;
 
@@ -375,14 +383,14 @@ public interface Item {
             int roll = r.nextInt(9);
 
             Item item = switch (roll) {
-                case 0 -> generateArmor();
-                case 1 -> generateShield();
-                case 2 -> generateFood();
-                case 3 -> generatePotion();
+                case 0 -> generateArmor(r);
+                case 1 -> generateShield(r);
+                case 2 -> generateFood(r);
+                case 3 -> generatePotion(r);
                 case 4 -> generateMagicItem(r);
                 case 5 -> generateWeapon(r);
-                case 6 -> generateGold();
-                case 7 -> generateManaStone();
+                case 6 -> generateGold(r);
+                case 7 -> generateManaStone(r);
                 default -> generateKey();
             };
             items.add(item);
@@ -396,27 +404,11 @@ public interface Item {
         return List.copyOf(items);
     }
 
-    // Helper method: rotate a point 90 degrees clockwise within a bounding box of
-    // given width and height
-    private Point rotatePoint90Clockwise(Point p, int width, int height) {
-        int x = p.x;
-        int y = p.y;
-        int newX = y;
-        int newY = width - 1 - x;
-        return new Point(newX, newY);
-    }
-
-    // Rotate all occupied points 90 degrees clockwise and update the occupiedCases
-    // list accordingly
+    // Rotate the item 90 degrees clockwise: only the rotation index changes, the
+    // rotated points come from the shared shape table
     public default List<Point> rotatePoints() {
-        List<Point> rotated = new ArrayList<>();
-        for (Point p : this.occupiedCases()) {
-            rotated.add(rotatePoint90Clockwise(p, this.widthItem(), this.heightItem()));
-        }
-        // Clear and replace the occupiedCases with rotated points (modifies state!)
-        this.occupiedCases().clear();
-        this.occupiedCases().addAll(rotated);
-        return rotated;
+        setRotation(rotation() + 1);
+        return occupiedCases();
     }
 
 }
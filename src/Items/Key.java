@@ -1,31 +1,25 @@
 package Items;
 
-import java.awt.Point;
 import java.util.ArrayList;
 
 import Enemies.Enemy;
 import effects.Effect;
 import model.Hero;
+import model.RunContext;
 
 public record Key(
         int id,
         String name,
         int x, int y,
         int rarity,
-        ArrayList<Point> occupiedCases) implements Item {
+        Shape shape) implements Item {
 
     public String description() {
         return "A key that might open something.";
     }
 
-    public static int ID = 0;
-
     public Key(String name, int rarity) {
-        this(ID++, name, 1, 1, rarity, new ArrayList<>() {
-            {
-                add(new Point(0, 0));
-            }
-        });
+        this(RunContext.current().nextItemId(), name, 1, 1, rarity, Shape.ONE_CASE);
     }
 
     // @Override
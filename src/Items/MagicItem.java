@@ -1,6 +1,5 @@
 package Items;
 
-import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Objects;
 
@@ -8,6 +7,7 @@ import Enemies.Enemy;
 import effects.AttackAllEnemies;
 import effects.Effect;
 import model.Hero;
+import model.RunContext;
 
 /**
  * Represents a Magic Item.
@@ -18,17 +18,6 @@ import model.Hero;
  */
 public class MagicItem implements Item, Weapon {
 
-    /*
-     * =========================
-     * Static fields
-     * =========================
-     */
-
-    /**
-     * Auto-incremented ID counter
-     */
-    public static int ID = 0;
-
     /*
      * =========================
      * Instance fields
@@ -46,7 +35,12 @@ public class MagicItem implements Item, Weapon {
     private boolean destroy;
 
     private ArrayList<Effect> effects;
-    private ArrayList<Point> occupiedCases;
+    private final Shape shape;
+    // Effects by trigger, resolved once from the item definition
+    private final EffectTable table;
+    // Value restored by baseShape, without any bonus
+    private final int baseDamage;
+    private int rotation;
     private String description;
 
     /*
@@ -67,12 +61,12 @@ public class MagicItem implements Item, Weapon {
             int damage,
             boolean destroy,
             ArrayList<Effect> effects,
-            ArrayList<Point> occupiedCases,
+            Shape shape,
             String description) {
 
         // Validation (equivalent to record compact constructor)
         Objects.requireNonNull(name, "name must not be null");
-        Objects.requireNonNull(occupiedCases, "occupiedCases must not be null");
+        Objects.requireNonNull(shape, "shape must not be null");
 
         if (manaCost < 0) {
             throw new IllegalArgumentException("manaCost < 0");
@@ -90,7 +84,9 @@ public class MagicItem implements Item, Weapon {
         this.damage = damage;
         this.destroy = destroy;
         this.effects = effects;
-        this.occupiedCases = occupiedCases;
+        this.shape = shape;
+        this.table = tableOf(name, effects);
+        this.baseDamage = this.damage;
         this.description = description;
     }
 
@@ -105,11 +101,11 @@ public class MagicItem implements Item, Weapon {
             int damage,
             boolean destroy,
             ArrayList<Effect> effects,
-            ArrayList<Point> occupiedCases,
+            Shape shape,
             String description) {
 
-        this(ID++, name, x, y, manaCost, rarity, damage,
-                destroy, effects, occupiedCases, description);
+        this(RunContext.current().nextItemId(), name, x, y, manaCost, rarity, damage,
+                destroy, effects, shape, description);
     }
 
     /*
@@ -154,8 +150,23 @@ public class MagicItem implements Item, Weapon {
         return effects;
     }
 
-    public ArrayList<Point> occupiedCases() {
-        return occupiedCases;
+    @Override
+    public EffectTable effectTable() {
+        return table;
+    }
+
+    public Shape shape() {
+        return shape;
+    }
+
+    @Override
+    public int rotation() {
+        return rotation;
+    }
+
+    @Override
+    public void setRotation(int rotation) {
+        this.rotation = rotation & 3;
     }
 
     public String description() {
@@ -204,17 +215,20 @@ public class MagicItem implements Item, Weapon {
 
     @Override
     public Item createNewInstance() {
-        return new MagicItem(
+        MagicItem copy = new MagicItem(
                 name,
                 x,
                 y,
                 manaCost,
                 rarity,
-                damage,
+                baseDamage,
                 destroy,
                 new ArrayList<>(effects),
-                new ArrayList<>(occupiedCases),
+                shape,
                 description);
+        copy.table.copyState(table);
+        copy.setRotation(rotation);
+        return copy;
     }
 
     /*
@@ -250,14 +264,7 @@ public class MagicItem implements Item, Weapon {
     public void notOnUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
         Objects.requireNonNull(hero);
 
-        if (this instanceof MagicItem wea &&
-                (wea.name().equals("Cleansing Wand") || wea.name().equals("Wizard Staff"))) {
-
-            for (Effect ef : wea.effects()) {
-                ef.execute(hero, enemies, e, wea);
-
-            }
-        }
+        table.run(Trigger.PASSIVE, hero, enemies, e, this);
     }
 
     public void onUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
@@ -266,24 +273,31 @@ public class MagicItem implements Item, Weapon {
         Objects.requireNonNull(e);
         if (this instanceof MagicItem wea) {
             use_item(hero, e, damage);
-            for (Effect ef : wea.effects()) {
-                if (ef instanceof AttackAllEnemies) {
-                    ef.execute(hero, enemies, e, wea);
-                }
-
-            }
+            table.run(Trigger.ON_USE, hero, enemies, e, wea);
         }
     }
 
     public void baseShape() {
-        if (this instanceof MagicItem magic) {
-            if (magic.name.equals("Cleansing Wand")) {
-                magic.setAttack(6);
-            } else if (magic.name.equals("Wizard Staff")) {
-                magic.setAttack(15);
-            } else {
-                magic.setAttack(20);
+        damage = baseDamage;
+    }
+
+    /* =========================
+       Definition
+       ========================= */
+
+    // Area attacks strike on use; wands and staffs apply their effects passively
+    private static EffectTable tableOf(String name, ArrayList<Effect> effects) {
+        EffectTable.Builder builder = new EffectTable.Builder();
+        if (effects != null) {
+            for (Effect ef : effects) {
+                if (ef instanceof AttackAllEnemies) {
+                    builder.add(Trigger.ON_USE, ef);
+                }
             }
         }
+        if (name.equals("Cleansing Wand") || name.equals("Wizard Staff")) {
+            builder.addAllPassive(effects);
+        }
+        return builder.build();
     }
 }
@@ -1,21 +1,17 @@
 package Items;
 
-import java.awt.Point;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 import Enemies.Enemy;
 import effects.Effect;
-import effects.NumberUses;
 import model.Hero;
+import model.RunContext;
 
 /**
  * Represents a Mana Stone item that restores mana to the hero.
  */
 public class ManaStone implements Item {
-    public static int ID = 0;
-
     private int id;
     private String name;
     private int x;
@@ -24,7 +20,10 @@ public class ManaStone implements Item {
     private boolean destroy;
     private String description;
     private ArrayList<Effect> effects;
-    private ArrayList<Point> occupiedCases;
+    private final Shape shape;
+    // Effects by trigger, resolved once from the item definition
+    private final EffectTable table;
+    private int rotation;
 
     /**
      * @param id            Unique ID
@@ -35,12 +34,12 @@ public class ManaStone implements Item {
      * @param destroy       true if destroyed after use
      * @param description   Brief description
      * @param effects       List of associated effects
-     * @param occupiedCases List of relative grid points occupied
+     * @param shape         Shape of the item
      */
     public ManaStone(int id, String name, int x, int y, int rarity, boolean destroy, String description,
-            ArrayList<Effect> effects, ArrayList<Point> occupiedCases) {
+            ArrayList<Effect> effects, Shape shape) {
         Objects.requireNonNull(name, "name cannot be null");
-        Objects.requireNonNull(occupiedCases, "occupiedCases cannot be null");
+        Objects.requireNonNull(shape, "shape cannot be null");
         this.id = id;
         this.name = name;
         this.x = x;
@@ -49,7 +48,8 @@ public class ManaStone implements Item {
         this.destroy = destroy;
         this.description = description;
         this.effects = effects;
-        this.occupiedCases = occupiedCases;
+        this.shape = shape;
+        this.table = tableOf(name, effects);
     }
 
     /**
@@ -60,7 +60,7 @@ public class ManaStone implements Item {
      * @param effects     Effects list
      */
     public ManaStone(String name, int rarity, boolean destroy, String description, ArrayList<Effect> effects) {
-        this(ID++, name, 1, 1, rarity, destroy, description, effects, new ArrayList<>(List.of(new Point(0, 0))));
+        this(RunContext.current().nextItemId(), name, 1, 1, rarity, destroy, description, effects, Shape.ONE_CASE);
     }
 
     /** @return Item ID */
@@ -103,32 +103,51 @@ public class ManaStone implements Item {
         return effects;
     }
 
-    /** @return Occupied grid points */
-    public ArrayList<Point> occupiedCases() {
-        return occupiedCases;
+    @Override
+    public EffectTable effectTable() {
+        return table;
+    }
+
+    /** @return Shared shape of the item */
+    public Shape shape() {
+        return shape;
+    }
+
+    @Override
+    public int rotation() {
+        return rotation;
+    }
+
+    @Override
+    public void setRotation(int rotation) {
+        this.rotation = rotation & 3;
     }
 
     @Override
     public Item createNewInstance() {
-        return new ManaStone(name, rarity, destroy, description, new ArrayList<>(effects));
+        ManaStone copy = new ManaStone(name, rarity, destroy, description, new ArrayList<>(effects));
+        copy.table.copyState(table);
+        return copy;
     }
 
     @Override
     public void onUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
         Objects.requireNonNull(hero);
-        boolean shouldRemove = false;
-        for (Effect ef : effects) {
-            ef.execute(hero, enemies, e, this);
-            if (ef instanceof NumberUses eff && eff.n() <= 0) {
-                shouldRemove = true;
-            }
-        }
-        if (shouldRemove) {
-            var position = hero.getBackpack().getItems().get(this).getFirst();
-            hero.getBackpack().removeItem(position.x, position.y);
+        table.run(Trigger.ON_USE, hero, enemies, e, this);
+        if (table.exhausted(Trigger.ON_USE)) {
+            hero.getBackpack().removeItem(this);
         }
     }
 
     public void notOnUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
     }
+
+    /* =========================
+       Definition
+       ========================= */
+
+    // Every effect runs when the stone is used
+    private static EffectTable tableOf(String name, ArrayList<Effect> effects) {
+        return new EffectTable.Builder().addAll(Trigger.ON_USE, effects).build();
+    }
 }
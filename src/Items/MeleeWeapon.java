@@ -1,19 +1,17 @@
 package Items;
 
-import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Objects;
 
 import Enemies.Enemy;
 import effects.Effect;
 import model.Hero;
+import model.RunContext;
 
 /**
  * Represents a melee weapon item.
  */
 public class MeleeWeapon implements Weapon, Item {
-    public static int ID = 0;
-
     private int id;
     private String name;
     private int x;
@@ -23,7 +21,12 @@ public class MeleeWeapon implements Weapon, Item {
     private int damage;
     private boolean destroy;
     private ArrayList<Effect> effects;
-    private ArrayList<Point> occupiedCases;
+    private final Shape shape;
+    // Effects by trigger, resolved once from the item definition
+    private final EffectTable table;
+    // Value restored by baseShape, without any bonus
+    private final int baseDamage;
+    private int rotation;
     private String description;
 
     /**
@@ -36,13 +39,13 @@ public class MeleeWeapon implements Weapon, Item {
      * @param damage        Base damage
      * @param destroy       true if destroyed after use
      * @param effects       Associated effects
-     * @param occupiedCases Relative grid points occupied
+     * @param shape         Shape of the item
      * @param description   Brief description
      */
     public MeleeWeapon(int id, String name, int x, int y, int energyCost, int rarity, int damage,
-            boolean destroy, ArrayList<Effect> effects, ArrayList<Point> occupiedCases, String description) {
+            boolean destroy, ArrayList<Effect> effects, Shape shape, String description) {
         Objects.requireNonNull(name, "name cannot be null");
-        Objects.requireNonNull(occupiedCases, "occupiedCases cannot be null");
+        Objects.requireNonNull(shape, "shape cannot be null");
         this.id = id;
         this.name = name;
         this.x = x;
@@ -52,7 +55,9 @@ public class MeleeWeapon implements Weapon, Item {
         this.damage = Math.max(0, damage);
         this.destroy = destroy;
         this.effects = effects;
-        this.occupiedCases = occupiedCases;
+        this.shape = shape;
+        this.table = tableOf(name, effects);
+        this.baseDamage = this.damage;
         this.description = description;
     }
 
@@ -60,8 +65,8 @@ public class MeleeWeapon implements Weapon, Item {
      * Constructor with automatic ID generation.
      */
     public MeleeWeapon(String name, int x, int y, int energyCost, int rarity, int damage,
-            boolean destroy, ArrayList<Effect> effects, ArrayList<Point> occupiedCases, String description) {
-        this(ID++, name, x, y, energyCost, rarity, damage, destroy, effects, occupiedCases, description);
+            boolean destroy, ArrayList<Effect> effects, Shape shape, String description) {
+        this(RunContext.current().nextItemId(), name, x, y, energyCost, rarity, damage, destroy, effects, shape, description);
     }
 
     /** @param atta Damage value to add */
@@ -114,9 +119,24 @@ public class MeleeWeapon implements Weapon, Item {
         return effects;
     }
 
-    /** @return Occupied grid points */
-    public ArrayList<Point> occupiedCases() {
-        return occupiedCases;
+    @Override
+    public EffectTable effectTable() {
+        return table;
+    }
+
+    /** @return Shared shape of the item */
+    public Shape shape() {
+        return shape;
+    }
+
+    @Override
+    public int rotation() {
+        return rotation;
+    }
+
+    @Override
+    public void setRotation(int rotation) {
+        this.rotation = rotation & 3;
     }
 
     /** @return Item description */
@@ -126,8 +146,11 @@ public class MeleeWeapon implements Weapon, Item {
 
     @Override
     public Item createNewInstance() {
-        return new MeleeWeapon(name, x, y, energyCost, rarity, damage, destroy,
-                new ArrayList<>(effects), new ArrayList<>(occupiedCases), description);
+        MeleeWeapon copy = new MeleeWeapon(name, x, y, energyCost, rarity, baseDamage, destroy,
+                new ArrayList<>(effects), shape, description);
+        copy.table.copyState(table);
+        copy.setRotation(rotation);
+        return copy;
     }
 
     @Override
@@ -138,32 +161,34 @@ public class MeleeWeapon implements Weapon, Item {
         if (hero.getEnergy() >= energyCost) {
             hero.setEnergy(hero.getEnergy() - energyCost);
             e.getAttacked(damage);
-            if (name.equals("Hatchet")) {
-                for (Effect ef : effects) {
-                    ef.execute(hero, enemies, e, this);
-                }
-            }
+            table.run(Trigger.ON_USE, hero, enemies, e, this);
         }
     }
 
     @Override
     public void notOnUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
         Objects.requireNonNull(hero);
-        if (name.equals("Bowblade")) {
-            for (Effect ef : effects) {
-                ef.execute(hero, enemies, e, this);
-            }
-        }
+        table.run(Trigger.PASSIVE, hero, enemies, e, this);
     }
 
-    /** Resets the weapon's base damage based on its identity. */
+    /** Restores the weapon's damage without any bonus. */
     public void baseShape() {
-        if (name.equals("Wooden Sword")) {
-            setAttack(6);
-        } else if (name.equals("Bowblade")) {
-            setAttack(15);
-        } else {
-            setAttack(20);
+        damage = baseDamage;
+    }
+
+    /* =========================
+       Definition
+       ========================= */
+
+    // The Hatchet strikes with its effects, the Bowblade applies them passively
+    private static EffectTable tableOf(String name, ArrayList<Effect> effects) {
+        EffectTable.Builder builder = new EffectTable.Builder();
+        switch (name) {
+            case "Hatchet" -> builder.addAll(Trigger.ON_USE, effects);
+            case "Bowblade" -> builder.addAllPassive(effects);
+            default -> {
+            }
         }
+        return builder.build();
     }
 }
@@ -1,6 +1,5 @@
 package Items;
 
-import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Objects;
 
@@ -8,6 +7,7 @@ import Enemies.Enemy;
 import effects.AttackAllEnemies;
 import effects.Effect;
 import model.Hero;
+import model.RunContext;
 
 /**
  * Represents a ranged weapon.
@@ -18,15 +18,6 @@ import model.Hero;
  */
 public class RangedWeapon implements Weapon, Item {
 
-    /* =========================
-       Static fields
-       ========================= */
-
-    /**
-     * Auto-incremented ID counter
-     */
-    public static int ID = 0;
-
     /* =========================
        Instance fields
        ========================= */
@@ -42,7 +33,12 @@ public class RangedWeapon implements Weapon, Item {
     private  boolean destroy;
 
     private  ArrayList<Effect> effects;
-    private  ArrayList<Point> occupiedCases;
+    private final Shape shape;
+    // Effects by trigger, resolved once from the item definition
+    private final EffectTable table;
+    // Value restored by baseShape, without any bonus
+    private final int baseDamage;
+    private int rotation;
     private  String description;
 
     /* =========================
@@ -61,12 +57,12 @@ public class RangedWeapon implements Weapon, Item {
                         int damage,
                         boolean destroy,
                         ArrayList<Effect> effects,
-                        ArrayList<Point> occupiedCases,
+                        Shape shape,
                         String description) {
 
         // Validation (equivalent to record compact constructor)
         Objects.requireNonNull(name, "name cannot be null");
-        Objects.requireNonNull(occupiedCases, "occupiedCases cannot be null");
+        Objects.requireNonNull(shape, "shape cannot be null");
 
         if (energyCost < 0) {
             throw new IllegalArgumentException("energyCost < 0");
@@ -84,7 +80,9 @@ public class RangedWeapon implements Weapon, Item {
         this.damage = damage;
         this.destroy = destroy;
         this.effects = effects;
-        this.occupiedCases = occupiedCases;
+        this.shape = shape;
+        this.table = tableOf(name, effects);
+        this.baseDamage = this.damage;
         this.description = description;
     }
 
@@ -99,11 +97,11 @@ public class RangedWeapon implements Weapon, Item {
                         int damage,
                         boolean destroy,
                         ArrayList<Effect> effects,
-                        ArrayList<Point> occupiedCases,
+                        Shape shape,
                         String description) {
 
-        this(ID++, name, x, y, energyCost, rarity, damage,
-             destroy, effects, occupiedCases, description);
+        this(RunContext.current().nextItemId(), name, x, y, energyCost, rarity, damage,
+             destroy, effects, shape, description);
     }
     public void setAttack(int atta) {
     	damage += atta;
@@ -148,8 +146,23 @@ public class RangedWeapon implements Weapon, Item {
         return effects;
     }
 
-    public ArrayList<Point> occupiedCases() {
-        return occupiedCases;
+    @Override
+    public EffectTable effectTable() {
+        return table;
+    }
+
+    public Shape shape() {
+        return shape;
+    }
+
+    @Override
+    public int rotation() {
+        return rotation;
+    }
+
+    @Override
+    public void setRotation(int rotation) {
+        this.rotation = rotation & 3;
     }
 
     public String description() {
@@ -187,31 +200,26 @@ public class RangedWeapon implements Weapon, Item {
 
     @Override
     public Item createNewInstance() {
-        return new RangedWeapon(
+        RangedWeapon copy = new RangedWeapon(
                 name,
                 x,
                 y,
                 energyCost,
                 rarity,
-                damage,
+                baseDamage,
                 destroy,
                 new ArrayList<>(effects),
-                new ArrayList<>(occupiedCases),
+                shape,
                 description
         );
+        copy.table.copyState(table);
+        copy.setRotation(rotation);
+        return copy;
     }
     public void notOnUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
         Objects.requireNonNull(hero);
         Objects.requireNonNull(enemies);
-        if (this instanceof RangedWeapon wea &&
-        		(wea.name().equals("Shiv"))) {
-
-            for (Effect ef : wea.effects()) {
-                System.out.println("description : " + wea.description());
-               	ef.execute(hero, enemies, e, wea);
-                
-            }
-        }
+        table.run(Trigger.PASSIVE, hero, enemies, e, this);
     }
     public void onUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
 		// TODO Auto-generated method stub
@@ -222,25 +230,26 @@ public class RangedWeapon implements Weapon, Item {
         if (this instanceof RangedWeapon wea) {
         	System.out.println("Attack enemy");
         	use_item(hero, e, damage);
-        	if(wea.name.equals("Hachet")) {
-        		for (Effect ef : wea.effects()) {
-                    
-                    	ef.execute(hero, enemies, e, wea);
-                    
-                }
-        	}
-            
+        	table.run(Trigger.ON_USE, hero, enemies, e, wea);
         }
 	}
     public void baseShape() {
-    	if(this instanceof RangedWeapon wea) {
-    		if(wea.name.equals("Crossbow")) {
-    			wea.setAttack(10);
-    		}else if(wea.name.equals("Shiv")) {
-    			wea.setAttack(15);
-    		}else {
-    			wea.setAttack(20);
-    		}
-    	}
+    	damage = baseDamage;
+    }
+
+    /* =========================
+       Definition
+       ========================= */
+
+    // Only the Shiv has passive effects; "Hachet" is the historical on-use name
+    private static EffectTable tableOf(String name, ArrayList<Effect> effects) {
+        EffectTable.Builder builder = new EffectTable.Builder();
+        switch (name) {
+            case "Hachet" -> builder.addAll(Trigger.ON_USE, effects);
+            case "Shiv" -> builder.addAllPassive(effects);
+            default -> {
+            }
+        }
+        return builder.build();
     }
 }
@@ -0,0 +1,258 @@
+package Items;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable item shape with its four rotations precomputed.
+ * <p>
+ * Shapes are shared flyweights: they are interned in a catalogue by their
+ * cells, so every item of the same shape points to the same instance and
+ * only keeps a rotation index. For each rotation the shape stores its cell
+ * offsets, its bounding box and a bitmask laid out like the backpack
+ * bitboards (cell (row, col) is bit {@code row * STRIDE + col}).
+ * </p>
+ */
+public final class Shape {
+
+    /* =========================
+       Static fields
+       ========================= */
+
+    /** Number of distinct rotations (90 degree steps) */
+    public static final int ROTATIONS = 4;
+
+    /** Bits reserved for one row in a rotation mask */
+    public static final int STRIDE = 8;
+
+    // Shapes by id, and by the mask of their first rotation
+    private static final ArrayList<Shape> CATALOGUE = new ArrayList<>();
+    private static final HashMap<Long, Shape> BY_MASK = new HashMap<>();
+
+    /* =========================
+       Instance fields
+       ========================= */
+
+    private final int id;
+    // Column (dx) and row (dy) offsets of each cell, per rotation
+    private final int[][] dx;
+    private final int[][] dy;
+    private final int[] width;
+    private final int[] height;
+    private final long[] mask;
+    // Number of distinct rotations: 1, 2 or 4
+    private final int period;
+    // Point view of each rotation, for the screens
+    private final List<List<Point>> points = new ArrayList<>(ROTATIONS);
+
+    private Shape(int id, int[] xs, int[] ys) {
+        this.id = id;
+        this.dx = new int[ROTATIONS][];
+        this.dy = new int[ROTATIONS][];
+        this.width = new int[ROTATIONS];
+        this.height = new int[ROTATIONS];
+        this.mask = new long[ROTATIONS];
+
+        int[] x = xs;
+        int[] y = ys;
+        for (int r = 0; r < ROTATIONS; r++) {
+            dx[r] = x;
+            dy[r] = y;
+            width[r] = max(x) + 1;
+            height[r] = max(y) + 1;
+            mask[r] = maskOf(x, y);
+            Point[] cells = new Point[x.length];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = new Point(x[i], y[i]);
+            }
+            points.add(List.of(cells));
+
+            // Rotate 90 degrees clockwise inside the bounding box
+            int[] nx = new int[x.length];
+            int[] ny = new int[y.length];
+            for (int i = 0; i < x.length; i++) {
+                nx[i] = y[i];
+                ny[i] = width[r] - 1 - x[i];
+            }
+            x = nx;
+            y = ny;
+        }
+        int p = 1;
+        while (p < ROTATIONS && mask[p] != mask[0]) {
+            p++;
+        }
+        this.period = p;
+    }
+
+    /* =========================
+       Catalogue
+       ========================= */
+
+    /** Single cell */
+    public static final Shape ONE_CASE = of(0, 0);
+    /** 2x2 square */
+    public static final Shape TWO_CASES_ARMOR = of(0, 0, 1, 0, 0, 1, 1, 1);
+    /** Two cells side by side */
+    public static final Shape TWO_FOOD_CASES = of(0, 0, 1, 0);
+    /** Vertical line of 2 */
+    public static final Shape TWO_BATON_CASES = of(0, 0, 0, 1);
+    /** Vertical line of 3 */
+    public static final Shape THREE_BATON_CASES = of(0, 0, 0, 1, 0, 2);
+    /** Vertical line of 4 */
+    public static final Shape FOUR_BATON_CASES = of(0, 0, 0, 1, 0, 2, 0, 3);
+    /** Vertical stem with one cell to the right of its bottom */
+    public static final Shape THREE_BATON_AXE_CASES = of(0, 0, 0, 1, 1, 1);
+    /** "L" shape rotated */
+    public static final Shape THREE_AXE_RARE = of(0, 0, 1, 0, 1, 1);
+    /** Diagonal from top-left to bottom-right */
+    public static final Shape TWO_WAND_CASES = of(0, 0, 1, 1);
+
+    /**
+     * Returns the shared shape made of the given cells.
+     *
+     * @param xy column/row pairs: x0, y0, x1, y1, ...
+     * @return the interned shape
+     */
+    public static Shape of(int... xy) {
+        Objects.requireNonNull(xy);
+        if (xy.length == 0 || xy.length % 2 != 0) {
+            throw new IllegalArgumentException("a shape needs at least one (x, y) pair");
+        }
+        int[] xs = new int[xy.length / 2];
+        int[] ys = new int[xy.length / 2];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = xy[2 * i];
+            ys[i] = xy[2 * i + 1];
+            if (xs[i] < 0 || ys[i] < 0 || xs[i] >= STRIDE || ys[i] >= STRIDE) {
+                throw new IllegalArgumentException("cell out of the 8x8 shape box: " + xs[i] + "," + ys[i]);
+            }
+        }
+        long key = maskOf(xs, ys);
+        synchronized (CATALOGUE) {
+            Shape shape = BY_MASK.get(key);
+            if (shape == null) {
+                shape = new Shape(CATALOGUE.size(), xs, ys);
+                CATALOGUE.add(shape);
+                BY_MASK.put(key, shape);
+            }
+            return shape;
+        }
+    }
+
+    /**
+     * Returns the shared shape made of the given points (x = column, y = row).
+     *
+     * @param cells the cells of the shape
+     * @return the interned shape
+     */
+    public static Shape of(List<Point> cells) {
+        Objects.requireNonNull(cells);
+        int[] xy = new int[cells.size() * 2];
+        for (int i = 0; i < cells.size(); i++) {
+            xy[2 * i] = cells.get(i).x;
+            xy[2 * i + 1] = cells.get(i).y;
+        }
+        return of(xy);
+    }
+
+    /**
+     * @param id shape id
+     * @return the shape registered under this id
+     */
+    public static Shape byId(int id) {
+        synchronized (CATALOGUE) {
+            return CATALOGUE.get(id);
+        }
+    }
+
+    /* =========================
+       Getters
+       ========================= */
+
+    /** @return Catalogue id */
+    public int id() {
+        return id;
+    }
+
+    /** @return Number of cells */
+    public int size() {
+        return dx[0].length;
+    }
+
+    /**
+     * @return Number of distinct rotations (1, 2 or 4): rotation r looks the same
+     *         as rotation r % period
+     */
+    public int period() {
+        return period;
+    }
+
+    /** @return Width in cells of the given rotation */
+    public int width(int rotation) {
+        return width[rotation & 3];
+    }
+
+    /** @return Height in cells of the given rotation */
+    public int height(int rotation) {
+        return height[rotation & 3];
+    }
+
+    /** @return Cell bitmask of the given rotation, anchored at (0, 0) */
+    public long mask(int rotation) {
+        return mask[rotation & 3];
+    }
+
+    /**
+     * @return Bits of row i of the given rotation (bit c set when column c is
+     *         covered), at most STRIDE bits
+     */
+    public long rowMask(int rotation, int i) {
+        return (mask[rotation & 3] >>> (i * STRIDE)) & ((1L << STRIDE) - 1);
+    }
+
+    /** @return Column offset of cell i in the given rotation */
+    public int dx(int rotation, int i) {
+        return dx[rotation & 3][i];
+    }
+
+    /** @return Row offset of cell i in the given rotation */
+    public int dy(int rotation, int i) {
+        return dy[rotation & 3][i];
+    }
+
+    /**
+     * @param rotation rotation index
+     * @return Unmodifiable list of the occupied points (x = column, y = row)
+     */
+    public List<Point> points(int rotation) {
+        return points.get(rotation & 3);
+    }
+
+    /* =========================
+       Helpers
+       ========================= */
+
+    private static int max(int[] values) {
+        int m = 0;
+        for (int v : values) {
+            m = Math.max(m, v);
+        }
+        return m;
+    }
+
+    private static long maskOf(int[] xs, int[] ys) {
+        long m = 0L;
+        for (int i = 0; i < xs.length; i++) {
+            m |= 1L << (ys[i] * STRIDE + xs[i]);
+        }
+        return m;
+    }
+
+    @Override
+    public String toString() {
+        return "Shape{id=" + id + ", cells=" + size() + "}";
+    }
+}
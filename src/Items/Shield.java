@@ -1,6 +1,5 @@
 package Items;
 
-import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Objects;
 
@@ -8,13 +7,12 @@ import Enemies.Enemy;
 import effects.Effect;
 import effects.PoisonEffect;
 import model.Hero;
+import model.RunContext;
 
 /**
  * Represents a Shield item that provides protection to the Hero.
  */
 public class Shield implements Item {
-    public static int ID = 0;
-
     private final int id;
     private final String name;
     private int x;
@@ -24,7 +22,12 @@ public class Shield implements Item {
     private int protectionValue;
     private final String description;
     private final ArrayList<Effect> effects;
-    private final ArrayList<Point> occupiedCases;
+    private final Shape shape;
+    // Effects by trigger, resolved once from the item definition
+    private final EffectTable table;
+    // Value restored by baseShape, without any bonus
+    private final int baseProtection;
+    private int rotation;
 
     /**
      * @param id              Unique ID
@@ -36,14 +39,14 @@ public class Shield implements Item {
      * @param protectionValue Protection provided
      * @param description     Brief description
      * @param effects         Associated effects
-     * @param occupiedCases   Relative grid points occupied
+     * @param shape           Shape of the item
      */
     public Shield(int id, String name, int x, int y, int energyCost, int rarity,
             int protectionValue, String description,
-            ArrayList<Effect> effects, ArrayList<Point> occupiedCases) {
+            ArrayList<Effect> effects, Shape shape) {
         Objects.requireNonNull(name, "name cannot be null");
         Objects.requireNonNull(effects, "effects cannot be null");
-        Objects.requireNonNull(occupiedCases, "occupiedCases cannot be null");
+        Objects.requireNonNull(shape, "shape cannot be null");
 
         this.id = id;
         this.name = name;
@@ -54,7 +57,9 @@ public class Shield implements Item {
         this.protectionValue = Math.max(0, protectionValue);
         this.description = description;
         this.effects = effects;
-        this.occupiedCases = occupiedCases;
+        this.shape = shape;
+        this.table = tableOf(name, effects);
+        this.baseProtection = this.protectionValue;
     }
 
     /**
@@ -62,8 +67,8 @@ public class Shield implements Item {
      */
     public Shield(String name, int x, int y, int energyCost, int rarity,
             int protectionValue, String description,
-            ArrayList<Effect> effects, ArrayList<Point> occupiedCases) {
-        this(ID++, name, x, y, energyCost, rarity, protectionValue, description, effects, occupiedCases);
+            ArrayList<Effect> effects, Shape shape) {
+        this(RunContext.current().nextItemId(), name, x, y, energyCost, rarity, protectionValue, description, effects, shape);
     }
 
     /** @return Item ID */
@@ -116,15 +121,33 @@ public class Shield implements Item {
         return effects;
     }
 
-    /** @return Occupied grid points */
-    public ArrayList<Point> occupiedCases() {
-        return occupiedCases;
+    @Override
+    public EffectTable effectTable() {
+        return table;
+    }
+
+    /** @return Shared shape of the item */
+    public Shape shape() {
+        return shape;
+    }
+
+    @Override
+    public int rotation() {
+        return rotation;
+    }
+
+    @Override
+    public void setRotation(int rotation) {
+        this.rotation = rotation & 3;
     }
 
     @Override
     public Item createNewInstance() {
-        return new Shield(name, x, y, energyCost, rarity, protectionValue, description,
-                new ArrayList<>(effects), new ArrayList<>(occupiedCases));
+        Shield copy = new Shield(name, x, y, energyCost, rarity, baseProtection, description,
+                new ArrayList<>(effects), shape);
+        copy.table.copyState(table);
+        copy.setRotation(rotation);
+        return copy;
     }
 
     @Override
@@ -134,29 +157,36 @@ public class Shield implements Item {
             hero.setProtection(hero.getProtection() + protectionValue);
             hero.setEnergy(hero.getEnergy() - energyCost);
         }
-        for (Effect ef : effects) {
-            if (ef instanceof PoisonEffect) {
-                ef.execute(hero, enemies, e, this);
-            }
-        }
+        table.run(Trigger.ON_USE, hero, enemies, e, this);
     }
 
     @Override
     public void notOnUse(Hero hero, Enemy e, ArrayList<Enemy> enemies) {
         Objects.requireNonNull(hero);
-        for (Effect ef : effects) {
-            if (!(ef instanceof PoisonEffect)) {
-                ef.execute(hero, enemies, e, this);
-            }
-        }
+        table.run(Trigger.PASSIVE, hero, enemies, e, this);
     }
 
-    /** Resets the shield's state based on its identity. */
+    /** Restores the shield's protection without any bonus. */
     public void baseShape() {
-        if (name.equals("Rough Buckler") || name.equals("Knight's Shield")) {
-            setProtectionValue(7);
-        } else {
-            setProtectionValue(6);
+        setProtectionValue(baseProtection);
+    }
+
+    /* =========================
+       Definition
+       ========================= */
+
+    // Poison strikes on use, every other effect is passive
+    private static EffectTable tableOf(String name, ArrayList<Effect> effects) {
+        EffectTable.Builder builder = new EffectTable.Builder();
+        if (effects != null) {
+            for (Effect ef : effects) {
+                if (ef instanceof PoisonEffect) {
+                    builder.add(Trigger.ON_USE, ef);
+                } else {
+                    builder.addPassive(ef);
+                }
+            }
         }
+        return builder.build();
     }
 }
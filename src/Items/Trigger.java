@@ -0,0 +1,20 @@
+package Items;
+
+/**
+ * Moments of a fight when the effects of an item run.
+ */
+public enum Trigger {
+    /** The item is used on an enemy or on the hero */
+    ON_USE,
+    /** Passive effects, applied at the start of each turn */
+    PASSIVE,
+    /**
+     * Passive stat bonuses (effects.Aura), kept up to date by the backpack while
+     * the item is in it
+     */
+    AURA,
+    /** The enemies have played and the turn ends */
+    TURN_END,
+    /** The item just killed an enemy */
+    ON_KILL
+}
@@ -1,11 +1,13 @@
 package Rooms;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 import Enemies.Enemy;
+import Enemies.EnemyGroup;
+import Enemies.Intent;
 import Items.Item;
 import model.Hero;
 
@@ -15,19 +17,36 @@ import model.Hero;
 public class EnemyRoom implements RoomType {
 
     private final ArrayList<Enemy> enemies;
+    // Stats of the enemies, for the effects hitting all of them
+    private final EnemyGroup group;
     private final List<Item> rewards;
     private boolean isCleared;
+    // Draws the intents of the enemies and the curses of the room
+    private final RandomGenerator random;
 
     /**
      * @param enemies List of enemies in the room
      * @param rewards List of rewards dropped by enemies
+     * @param random  Generator of the intents and curses of the room
      */
-    public EnemyRoom(ArrayList<Enemy> enemies, List<Item> rewards) {
+    public EnemyRoom(ArrayList<Enemy> enemies, List<Item> rewards, RandomGenerator random) {
         Objects.requireNonNull(enemies, "enemies cannot be null");
         Objects.requireNonNull(rewards, "rewards cannot be null");
+        Objects.requireNonNull(random, "random cannot be null");
+        this.random = random;
         this.enemies = enemies;
         this.rewards = rewards;
         this.isCleared = false;
+        this.group = new EnemyGroup(Math.max(1, enemies.size()));
+        enemies.forEach(group::add);
+    }
+
+    /**
+     * @param enemies List of enemies in the room
+     * @param rewards List of rewards dropped by enemies
+     */
+    public EnemyRoom(ArrayList<Enemy> enemies, List<Item> rewards) {
+        this(enemies, rewards, new SplittableRandom());
     }
 
     /**
@@ -49,6 +68,33 @@ public class EnemyRoom implements RoomType {
         return enemies;
     }
 
+    /**
+     * @return Group holding the stats of the enemies
+     */
+    public EnemyGroup group() {
+        return group;
+    }
+
+    /**
+     * Removes an enemy from the room. The other enemies keep their slot in the
+     * group.
+     *
+     * @param e The enemy to remove
+     * @return true if the enemy was in the room
+     */
+    public boolean removeEnemy(Enemy e) {
+        Objects.requireNonNull(e, "e cannot be null");
+        group.remove(e);
+        return enemies.remove(e);
+    }
+
+    /**
+     * @return Generator of the intents and curses of the room
+     */
+    public RandomGenerator random() {
+        return random;
+    }
+
     /**
      * @return List of rewards
      */
@@ -76,8 +122,10 @@ public class EnemyRoom implements RoomType {
      */
     public ArrayList<Enemy> setEnnemies(ArrayList<Enemy> l) {
         Objects.requireNonNull(l, "l cannot be null");
+        enemies.forEach(group::remove);
         enemies.clear();
         enemies.addAll(l);
+        enemies.forEach(group::add);
         return enemies;
     }
 
@@ -87,14 +135,12 @@ public class EnemyRoom implements RoomType {
      */
     public void chooseActionEnemies(Enemy e, int maxActions) {
         Objects.requireNonNull(e, "e cannot be null");
-        Random rand = new Random();
-        HashSet<Integer> newActions = new HashSet<>();
-        int nActions = rand.nextInt(maxActions);
+        int intents = 0;
+        int nActions = random.nextInt(maxActions);
         for (int i = 0; i < nActions; i++) {
-            int action = rand.nextInt(3) + 1;
-            newActions.add(action);
+            intents |= Intent.of(random.nextInt(Intent.COUNT)).bit();
         }
-        e.setActions(newActions);
+        e.setIntents(intents);
     }
 
     /**
@@ -105,15 +151,41 @@ public class EnemyRoom implements RoomType {
     public void enemiesTurn(Hero hero) {
         Objects.requireNonNull(hero);
         enemies.forEach(e -> {
-            for (int action : e.actions()) {
-                switch (action) {
-                    case 1 -> hero.takeDamage(e);
-                    case 3 -> e.apply(hero, enemies);
-                    default -> {
-                    }
-                }
+            for (int m = e.intents(); m != 0; m &= m - 1) {
+                enemyAction(e, Intent.of(Integer.numberOfTrailingZeros(m)), hero);
             }
         });
+        hero.getStatuses().tick(hero);
+        startHeroTurn(hero);
+    }
+
+    /**
+     * Performs one intent of an enemy: attacking hits the hero, an effect is
+     * applied, defending only matters when the enemy is attacked.
+     *
+     * @param e      the acting enemy
+     * @param intent the intent performed
+     * @param hero   Hero reference
+     */
+    public void enemyAction(Enemy e, Intent intent, Hero hero) {
+        Objects.requireNonNull(e);
+        Objects.requireNonNull(intent);
+        Objects.requireNonNull(hero);
+        switch (intent) {
+            case ATTACK -> hero.takeDamage(e);
+            case EFFECT -> e.apply(hero, enemies);
+            case DEFEND -> {
+            }
+        }
+    }
+
+    /**
+     * Resets the hero's protection, energy and mana once the enemies have acted.
+     *
+     * @param hero Hero reference
+     */
+    public void startHeroTurn(Hero hero) {
+        Objects.requireNonNull(hero);
         hero.setProtection(hero.getDefence());
         hero.setEnergy(3);
         hero.setMana(2);
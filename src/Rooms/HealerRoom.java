@@ -1,7 +1,8 @@
 package Rooms;
 
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import model.Healer;
 
@@ -19,11 +20,16 @@ public class HealerRoom implements RoomType {
 
     public HealerRoom() {
         // TODO Auto-generated constructor stub
-        this(generateHealer());
+        this(new SplittableRandom());
     }
 
-    private static Healer generateHealer() {
-        Random random = new Random();
+    // Draws the healing of the healer, from 5 to 19
+    public HealerRoom(RandomGenerator random) {
+        this(generateHealer(random));
+    }
+
+    private static Healer generateHealer(RandomGenerator random) {
+        Objects.requireNonNull(random);
         return new Healer(random.nextInt(15) + 5);
     }
 
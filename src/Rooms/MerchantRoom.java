@@ -1,6 +1,10 @@
 package Rooms;
 
+import java.util.ArrayList;
 import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+import Items.Item;
 
 import model.Merchant;
 
@@ -21,6 +25,11 @@ public record MerchantRoom(Merchant merchant) implements RoomType {
         this(generateMerchant());
     }
 
+    // Stocks the merchant from the loot stream of a run
+    public MerchantRoom(RandomGenerator random) {
+        this(new Merchant(new ArrayList<>(Item.generateItems(random))));
+    }
+
     static Merchant generateMerchant() {
         return new Merchant();
     }
@@ -3,7 +3,8 @@ package Rooms;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import Items.Item;
 
@@ -19,15 +20,22 @@ public class TreasureRoom implements RoomType {
 
     /**
      * Main constructor with null check
+     *
+     * @param treasures Items of the room
+     * @param random    Draws whether the room needs a key
      */
-    public TreasureRoom(List<Item> treasures) {
+    public TreasureRoom(List<Item> treasures, RandomGenerator random) {
         Objects.requireNonNull(treasures);
-        Random random = new Random();
+        Objects.requireNonNull(random);
         this.needKey = random.nextBoolean();
         this.treasures = Objects.requireNonNull(treasures, "treasures cannot be null");
 
     }
 
+    public TreasureRoom(List<Item> treasures) {
+        this(treasures, new SplittableRandom());
+    }
+
     public List<Item> treasures() {
         return treasures;
     }
@@ -0,0 +1,112 @@
+package controller;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+import Enemies.Enemy;
+import Enemies.Intent;
+import Items.Curse;
+import Items.Gold;
+import Items.Item;
+import Items.Shape;
+import model.ActionPreview;
+import model.BackPack;
+import model.CombatEngine;
+import model.Dungeon;
+import model.Hero;
+
+/**
+ * Baseline player: visits the closest room first and leaves by the exit last,
+ * uses in each fight the action with the best immediate result according to
+ * {@link ActionPreview}, and keeps every item that fits in the backpack.
+ */
+public class GreedyPolicy implements Policy {
+    // Most items used in one turn, in case an action changes nothing
+    private static final int MAX_ACTIONS = 16;
+    private static final int KILL_SCORE = 100;
+
+    private final ActionPreview preview = new ActionPreview();
+
+    @Override
+    public Point chooseRoom(Dungeon dungeon, Hero hero, List<Point> rooms, RandomGenerator random) {
+        Objects.requireNonNull(dungeon);
+        Objects.requireNonNull(rooms);
+        Point exit = dungeon.getCurrentFloor().getExit();
+        Point best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Point p : rooms) {
+            if (p.equals(exit)) {
+                continue;
+            }
+            int d = dungeon.getCurrentFloor().allowedFromTo(dungeon.getHeroPosition(), p);
+            if (d < bestDistance) {
+                best = p;
+                bestDistance = d;
+            }
+        }
+        return best != null ? best : rooms.get(0);
+    }
+
+    @Override
+    public void playTurn(CombatEngine engine, RandomGenerator random) {
+        Objects.requireNonNull(engine);
+        Hero hero = engine.hero();
+        for (int n = 0; n < MAX_ACTIONS && engine.outcome() == CombatEngine.Outcome.ONGOING; n++) {
+            List<Enemy> enemies = engine.enemies();
+            boolean attacked = enemies.stream().anyMatch(e -> e.hasIntent(Intent.ATTACK));
+            Item bestItem = null;
+            Enemy bestTarget = null;
+            int bestScore = 0;
+            BackPack sac = hero.getBackpack();
+            for (int slot = sac.nextSlot(0); slot >= 0; slot = sac.nextSlot(slot + 1)) {
+                Item item = sac.itemInSlot(slot);
+                if (item instanceof Curse) {
+                    continue;
+                }
+                for (int t = -1; t < enemies.size(); t++) {
+                    Enemy target = t < 0 ? null : enemies.get(t);
+                    if (!preview.evaluate(item, hero, target, enemies)) {
+                        continue;
+                    }
+                    int score = preview.totalDamage() + KILL_SCORE * preview.kills() + preview.heal()
+                            - 2 * preview.selfDamage() + (attacked ? preview.block() : 0);
+                    if (score > bestScore) {
+                        bestItem = item;
+                        bestTarget = target;
+                        bestScore = score;
+                    }
+                }
+            }
+            if (bestItem == null) {
+                return;
+            }
+            engine.useItem(bestItem, bestTarget);
+        }
+    }
+
+    @Override
+    public void loot(Hero hero, List<Item> items, RandomGenerator random) {
+        Objects.requireNonNull(hero);
+        Objects.requireNonNull(items);
+        BackPack sac = hero.getBackpack();
+        long[] anchors = new long[Shape.ROTATIONS * sac.rows()];
+        for (Item item : items) {
+            Gold gold = sac.getGold();
+            if (item instanceof Gold found && gold != null) {
+                gold.setGoldValue(gold.goldValue() + found.goldValue());
+                continue;
+            }
+            if (sac.legalPlacements(item, anchors) == 0) {
+                continue;
+            }
+            for (int i = 0; i < anchors.length; i++) {
+                if (anchors[i] != 0L) {
+                    sac.place(item, i % sac.rows(), Long.numberOfTrailingZeros(anchors[i]), i / sac.rows());
+                    break;
+                }
+            }
+        }
+    }
+}
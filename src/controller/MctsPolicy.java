@@ -0,0 +1,52 @@
+package controller;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import model.CombatEngine;
+import model.MctsSearch;
+
+/**
+ * Player fighting with a {@link MctsSearch} given a fixed time per move. Rooms
+ * and loot are chosen as by {@link GreedyPolicy}.
+ */
+public class MctsPolicy extends GreedyPolicy {
+    // Most items used in one turn, as the search allows
+    private static final int MAX_ACTIONS = 16;
+
+    private final long nanosPerMove;
+    private final int nodes;
+    private MctsSearch search;
+
+    /** @param nanosPerMove time searched before each move */
+    public MctsPolicy(long nanosPerMove) {
+        this(nanosPerMove, MctsSearch.DEFAULT_NODES);
+    }
+
+    /**
+     * @param nanosPerMove time searched before each move
+     * @param nodes        most nodes of the search tree
+     */
+    public MctsPolicy(long nanosPerMove, int nodes) {
+        if (nanosPerMove <= 0) {
+            throw new IllegalArgumentException("nanosPerMove <= 0");
+        }
+        this.nanosPerMove = nanosPerMove;
+        this.nodes = nodes;
+    }
+
+    @Override
+    public void playTurn(CombatEngine engine, RandomGenerator random) {
+        if (search == null) {
+            // Seeded by the player so that the playouts follow the run seed
+            search = new MctsSearch(new SplittableRandom(random.nextLong()), nodes);
+        }
+        for (int n = 0; n < MAX_ACTIONS && engine.outcome() == CombatEngine.Outcome.ONGOING; n++) {
+            MctsSearch.Move move = search.search(engine, nanosPerMove);
+            if (move.endsTurn()) {
+                return;
+            }
+            engine.useItem(move.item(), move.target());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package controller;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+import Items.Item;
+import Items.Key;
+import Rooms.CorridorRoom;
+import Rooms.EnemyRoom;
+import Rooms.HealerRoom;
+import Rooms.MerchantRoom;
+import Rooms.RoomType;
+import Rooms.TreasureRoom;
+import controller.RunResult.Ending;
+import model.BackPack;
+import model.CombatEngine;
+import model.CombatEventBus;
+import model.CombatEventBus.Kind;
+import model.Dungeon;
+import model.Floor;
+import model.Hero;
+import model.RunContext;
+import model.RunRandom;
+import model.Zobrist;
+
+/**
+ * Plays whole runs, from a new dungeon to the exit of its last floor, without
+ * the user interface.
+ * <p>
+ * Each run gets its own seed, id counters, dungeon, hero and policy, and draws
+ * every random choice from the streams of its seed: runs share no state and a
+ * run can be replayed alone with {@link #play(int, long)}. Batches are spread
+ * over a fork/join pool and results are handed out as runs finish.
+ * </p>
+ */
+public final class MonteCarloRunner {
+    // Limits ending runs that would never finish
+    private static final int MAX_FIGHT_TURNS = 100;
+    private static final int MAX_MOVES = 500;
+    // Cells opened after a won fight at most, as the combat screen allows
+    private static final int EXPANSION_CELLS = 4;
+
+    /**
+     * Totals of a batch.
+     *
+     * @param runs  number of runs played
+     * @param wins  runs that left the last floor
+     * @param nanos wall-clock time of the batch
+     */
+    public record Summary(int runs, int wins, long nanos) {
+        /** @return Runs played per second */
+        public double runsPerSecond() {
+            return nanos == 0 ? 0.0 : runs * 1e9 / nanos;
+        }
+    }
+
+    private final Supplier<? extends Policy> policies;
+    private final int parallelism;
+
+    /** @param policies gives a new policy for each run */
+    public MonteCarloRunner(Supplier<? extends Policy> policies) {
+        this(policies, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param policies    gives a new policy for each run
+     * @param parallelism number of runs played at once
+     */
+    public MonteCarloRunner(Supplier<? extends Policy> policies, int parallelism) {
+        Objects.requireNonNull(policies);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+        this.policies = policies;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Plays a batch of runs. Results are given to the consumer one at a time, in
+     * the order runs finish.
+     *
+     * @param seed    seed of the batch: run i plays the seed seedOf(seed, i)
+     * @param runs    number of runs
+     * @param results receives the result of each run
+     * @return the totals of the batch
+     */
+    public Summary run(long seed, int runs, Consumer<? super RunResult> results) {
+        Objects.requireNonNull(results);
+        if (runs < 0) {
+            throw new IllegalArgumentException("runs < 0");
+        }
+        AtomicInteger wins = new AtomicInteger();
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(runs);
+            for (int i = 0; i < runs; i++) {
+                int run = i;
+                tasks.add(pool.submit(() -> {
+                    RunResult result = play(run, seedOf(seed, run));
+                    if (result.ending() == Ending.WON) {
+                        wins.incrementAndGet();
+                    }
+                    synchronized (results) {
+                        results.accept(result);
+                    }
+                }));
+            }
+            tasks.forEach(ForkJoinTask::join);
+        } finally {
+            pool.shutdown();
+        }
+        return new Summary(runs, wins.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * @param seed seed of a batch
+     * @param run  index of a run in the batch
+     * @return the seed of that run
+     */
+    public static long seedOf(long seed, int run) {
+        return Zobrist.mix(seed + run * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Plays one run on the calling thread.
+     *
+     * @param run  index of the run, copied to the result
+     * @param seed seed of the run
+     * @return how the run went
+     */
+    public RunResult play(int run, long seed) {
+        RunContext.begin();
+        RunRandom streams = new RunRandom(seed);
+        RandomGenerator random = streams.stream(RunRandom.Stream.PLAYER, 0);
+        Dungeon dungeon = new Dungeon(streams);
+        Hero hero = new Hero("sim", 0);
+        Policy policy = policies.get();
+        // The starting kit the menu screen offers
+        policy.loot(hero, Item.generateItems(streams.stream(RunRandom.Stream.LOOT, -1)), random);
+
+        Set<RoomType> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        int turns = 0;
+        int damage = 0;
+        for (int moves = 0; moves < MAX_MOVES; moves++) {
+            Floor floor = dungeon.getCurrentFloor();
+            List<Point> rooms = reachable(dungeon, hero, visited);
+            if (rooms.isEmpty()) {
+                return result(run, seed, dungeon, hero, turns, damage, Ending.STUCK, null);
+            }
+            Point p = policy.chooseRoom(dungeon, hero, rooms, random);
+            if (!rooms.contains(p)) {
+                throw new IllegalStateException("policy chose an unreachable room " + p);
+            }
+            dungeon.setHeroPosition(p);
+            RoomType room = floor.getRooms()[p.x][p.y];
+            visited.add(room);
+            switch (room) {
+                case CorridorRoom c when c.isExit() -> {
+                    if (dungeon.isLastFloor()) {
+                        return result(run, seed, dungeon, hero, turns, damage, Ending.WON, null);
+                    }
+                    dungeon.goNextFloor();
+                }
+                case EnemyRoom r -> {
+                    // Subscribed first, to count the HP passive effects take at the start
+                    CombatEventBus events = new CombatEventBus();
+                    CombatEventBus.Cursor cursor = events.subscribe();
+                    CombatEngine engine = new CombatEngine(hero, r, events);
+                    while (engine.outcome() == CombatEngine.Outcome.ONGOING && engine.turn() < MAX_FIGHT_TURNS) {
+                        policy.playTurn(engine, random);
+                        if (engine.outcome() == CombatEngine.Outcome.ONGOING) {
+                            engine.endTurn();
+                        }
+                        damage += damageTaken(cursor);
+                    }
+                    cursor.close();
+                    turns += engine.turn();
+                    switch (engine.outcome()) {
+                        case DEFEAT -> {
+                            String killer = engine.enemies().stream().map(e -> e.getClass().getSimpleName())
+                                    .collect(Collectors.joining(", "));
+                            return result(run, seed, dungeon, hero, turns, damage, Ending.DIED, killer);
+                        }
+                        case ONGOING -> {
+                            return result(run, seed, dungeon, hero, turns, damage, Ending.TOO_LONG, null);
+                        }
+                        case VICTORY -> {
+                            expand(hero.getBackpack(), policy.expand(hero, EXPANSION_CELLS, random));
+                            policy.loot(hero, r.rewards(), random);
+                        }
+                    }
+                }
+                case TreasureRoom r -> {
+                    if (!r.needKey() || useKey(hero.getBackpack())) {
+                        r.setneedKey(false);
+                        policy.loot(hero, r.treasures(), random);
+                    }
+                }
+                case HealerRoom r -> {
+                    if (hero.setHp(hero.getHp() + r.getHealer().healAmount())) {
+                        r.setHealed(true);
+                    }
+                }
+                case MerchantRoom r -> policy.shop(hero, r.merchant(), random);
+                default -> {
+                }
+            }
+        }
+        return result(run, seed, dungeon, hero, turns, damage, Ending.TOO_LONG, null);
+    }
+
+    // Rooms worth walking to: fights left, unvisited treasures, healers and
+    // merchants, and the exit
+    private static List<Point> reachable(Dungeon dungeon, Hero hero, Set<RoomType> visited) {
+        Floor floor = dungeon.getCurrentFloor();
+        RoomType[][] grid = floor.getRooms();
+        Point from = dungeon.getHeroPosition();
+        boolean hasKey = key(hero.getBackpack()) != null;
+        List<Point> rooms = new ArrayList<>();
+        for (int r = 0; r < grid.length; r++) {
+            for (int c = 0; c < grid[r].length; c++) {
+                RoomType room = grid[r][c];
+                boolean wanted = switch (room) {
+                    case CorridorRoom corridor -> corridor.isExit();
+                    case EnemyRoom e -> !e.isCleared();
+                    case TreasureRoom t -> !visited.contains(t) && (!t.needKey() || hasKey);
+                    case HealerRoom h -> !h.getHealed() && !visited.contains(h) && hero.getHp() < hero.getHpMax();
+                    case MerchantRoom m -> !visited.contains(m);
+                    default -> false;
+                };
+                Point p = new Point(r, c);
+                if (wanted && !p.equals(from) && floor.allowedFromTo(from, p) != -1) {
+                    rooms.add(p);
+                }
+            }
+        }
+        return rooms;
+    }
+
+    // Opens the cells chosen by the policy, which must all be on the frontier
+    private static void expand(BackPack sac, List<Point> cells) {
+        Objects.requireNonNull(cells);
+        if (cells.size() > EXPANSION_CELLS || cells.stream().distinct().count() != cells.size()
+                || !cells.stream().allMatch(p -> sac.canExpand(p.y, p.x))) {
+            throw new IllegalStateException("policy chose cells that cannot be opened " + cells);
+        }
+        sac.expand(cells);
+    }
+
+    // First key of the backpack, null if there is none
+    private static Item key(BackPack sac) {
+        for (int slot = sac.nextSlot(0); slot >= 0; slot = sac.nextSlot(slot + 1)) {
+            if (sac.itemInSlot(slot) instanceof Key key) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    // Spends a key of the backpack, false if there is none
+    private static boolean useKey(BackPack sac) {
+        Item key = key(sac);
+        return key != null && sac.removeItem(key);
+    }
+
+    // HP lost by the hero in the events published since the last call
+    private static int damageTaken(CombatEventBus.Cursor cursor) {
+        int damage = 0;
+        while (cursor.next()) {
+            if (cursor.target() == CombatEventBus.HERO && cursor.kind() == Kind.DAMAGE_DEALT) {
+                damage += cursor.amount();
+            }
+        }
+        return damage;
+    }
+
+    private static RunResult result(int run, long seed, Dungeon dungeon, Hero hero, int turns, int damage,
+            Ending ending, String killer) {
+        return new RunResult(run, seed, dungeon.getCurrentFloorIndex() + 1, turns, damage,
+                hero.getBackpack().goldTotal(), ending, killer);
+    }
+}
@@ -0,0 +1,286 @@
+package controller;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import Items.Armor;
+import Items.Curse;
+import Items.Food;
+import Items.Item;
+import Items.ManaStone;
+import Items.Potion;
+import Items.Shape;
+import Items.Shield;
+import Items.Weapon;
+import Rooms.EnemyRoom;
+import Rooms.HealerRoom;
+import Rooms.MerchantRoom;
+import Rooms.RoomType;
+import Rooms.TreasureRoom;
+import model.BackPack;
+import model.Dungeon;
+import model.FightEstimator;
+import model.Hero;
+import model.Merchant;
+
+/**
+ * Player planning its way through each floor. The next room is chosen by an
+ * expectimax search a few rooms deep over the rooms the hero can reach now:
+ * fights are chance nodes whose outcomes are the HP losses estimated by a
+ * {@link FightEstimator}, dying costs more than any room brings, and leaving
+ * the last floor wins. Healers are rooms like the others, visited when the HP
+ * they give back are worth the most.
+ * <p>
+ * At a merchant the hero sells the curses of the backpack, then buys the best
+ * items it can afford and carry. After a won fight, the backpack is opened
+ * where it stays the most compact. Fights are played as by {@link GreedyPolicy}.
+ * </p>
+ */
+public class PlannerPolicy extends GreedyPolicy {
+    /** Rooms planned ahead by default */
+    public static final int DEFAULT_DEPTH = 3;
+    // Outcomes of a fight kept by the search, by quantile of the losses
+    private static final int OUTCOMES = 4;
+
+    // Values of the plans: health counts from 0 to 1
+    private static final double WIN = 4.0;
+    private static final double DEATH = -2.0;
+    private static final double FIGHT = 0.5;
+    private static final double TREASURE = 0.3;
+    private static final double SHOP = 0.1;
+
+    // Kinds of room
+    private static final byte EXIT = 0;
+    private static final byte FIGHT_ROOM = 1;
+    private static final byte TREASURE_ROOM = 2;
+    private static final byte HEALER = 3;
+    private static final byte MERCHANT = 4;
+
+    private final int depth;
+    private final int samples;
+    private FightEstimator estimator;
+
+    // Rooms of the current decision: kind, HP healed, and for fights the
+    // outcomes as probabilities and HP lost (FightEstimator.LOST if dying)
+    private byte[] kinds = new byte[0];
+    private int[] heals = new int[0];
+    private double[][] odds = new double[0][];
+    private int[][] outcomes = new int[0][];
+    private int hpMax;
+    private boolean lastFloor;
+    private double shopping;
+
+    public PlannerPolicy() {
+        this(DEFAULT_DEPTH, FightEstimator.DEFAULT_SAMPLES);
+    }
+
+    /**
+     * @param depth   rooms planned ahead
+     * @param samples fights simulated for each estimate
+     */
+    public PlannerPolicy(int depth, int samples) {
+        if (depth < 1 || samples < 1) {
+            throw new IllegalArgumentException("depth < 1 or samples < 1");
+        }
+        this.depth = depth;
+        this.samples = samples;
+    }
+
+    @Override
+    public Point chooseRoom(Dungeon dungeon, Hero hero, List<Point> rooms, RandomGenerator random) {
+        Objects.requireNonNull(dungeon);
+        Objects.requireNonNull(hero);
+        Objects.requireNonNull(rooms);
+        if (estimator == null) {
+            // Seeded by the player so that the estimates follow the run seed
+            estimator = new FightEstimator(new SplittableRandom(random.nextLong()), samples);
+        }
+        // The search keeps the rooms left in a long
+        int n = Math.min(rooms.size(), Long.SIZE);
+        if (kinds.length < n) {
+            kinds = new byte[n];
+            heals = new int[n];
+            odds = new double[n][OUTCOMES + 1];
+            outcomes = new int[n][OUTCOMES + 1];
+        }
+        hpMax = hero.getHpMax();
+        lastFloor = dungeon.isLastFloor();
+        shopping = hero.getBackpack().spendableGold() > 0 ? SHOP : 0.0;
+        RoomType[][] grid = dungeon.getCurrentFloor().getRooms();
+        for (int i = 0; i < n; i++) {
+            Point p = rooms.get(i);
+            switch (grid[p.x][p.y]) {
+                case EnemyRoom r -> {
+                    kinds[i] = FIGHT_ROOM;
+                    compile(i, estimator.losses(hero, r));
+                }
+                case TreasureRoom _ -> kinds[i] = TREASURE_ROOM;
+                case HealerRoom r -> {
+                    kinds[i] = HEALER;
+                    heals[i] = r.getHealer().healAmount();
+                }
+                case MerchantRoom _ -> kinds[i] = MERCHANT;
+                default -> kinds[i] = EXIT;
+            }
+        }
+
+        long all = n == Long.SIZE ? -1L : (1L << n) - 1;
+        int best = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double value = visit(i, all & ~(1L << i), hero.getHp(), depth - 1);
+            if (value > bestValue) {
+                best = i;
+                bestValue = value;
+            }
+        }
+        return rooms.get(best);
+    }
+
+    // Groups the sorted losses of a fight into the outcomes of its chance node:
+    // dying, then a few quantiles of the fights won
+    private void compile(int i, int[] losses) {
+        int lost = 0;
+        while (lost < losses.length && losses[losses.length - 1 - lost] == FightEstimator.LOST) {
+            lost++;
+        }
+        int won = losses.length - lost;
+        int g = 0;
+        for (int q = 0, from = 0; q < Math.min(OUTCOMES, won); q++) {
+            int to = won * (q + 1) / Math.min(OUTCOMES, won);
+            long sum = 0;
+            for (int k = from; k < to; k++) {
+                sum += losses[k];
+            }
+            odds[i][g] = (double) (to - from) / losses.length;
+            outcomes[i][g++] = (int) ((sum + to - from - 1) / (to - from));
+            from = to;
+        }
+        if (lost > 0) {
+            odds[i][g] = (double) lost / losses.length;
+            outcomes[i][g++] = FightEstimator.LOST;
+        }
+        if (g < odds[i].length) {
+            odds[i][g] = 0.0;
+        }
+    }
+
+    // Expected value of walking to room i with hp left, then planning up to
+    // depth more rooms among those left
+    private double visit(int i, long left, int hp, int depth) {
+        return switch (kinds[i]) {
+            case EXIT -> (lastFloor ? WIN : 0.0) + health(hp);
+            case TREASURE_ROOM -> TREASURE + plan(left, hp, depth);
+            case MERCHANT -> shopping + plan(left, hp, depth);
+            case HEALER -> plan(left, Math.min(hpMax, hp + heals[i]), depth);
+            default -> {
+                double value = 0.0;
+                for (int g = 0; g < odds[i].length && odds[i][g] > 0.0; g++) {
+                    int loss = outcomes[i][g];
+                    value += odds[i][g] * (loss >= hp ? DEATH : FIGHT + plan(left, hp - loss, depth));
+                }
+                yield value;
+            }
+        };
+    }
+
+    // Best value among stopping the plan here and visiting one more room.
+    // Rooms reached only once a fight is won are not planned for.
+    private double plan(long left, int hp, int depth) {
+        double best = health(hp);
+        if (depth == 0) {
+            return best;
+        }
+        for (long m = left; m != 0L; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            best = Math.max(best, visit(i, left & ~(1L << i), hp, depth - 1));
+        }
+        return best;
+    }
+
+    private double health(int hp) {
+        return (double) hp / Math.max(1, hpMax);
+    }
+
+    @Override
+    public void shop(Hero hero, Merchant merchant, RandomGenerator random) {
+        Objects.requireNonNull(hero);
+        Objects.requireNonNull(merchant);
+        BackPack sac = hero.getBackpack();
+        for (int slot = sac.nextSlot(0); slot >= 0; slot = sac.nextSlot(slot + 1)) {
+            if (sac.itemInSlot(slot) instanceof Curse curse) {
+                merchant.heroSells(curse, hero);
+            }
+        }
+        long[] anchors = new long[Shape.ROTATIONS * sac.rows()];
+        for (int n = 0; n < merchant.inventory().size(); n++) {
+            int gold = sac.spendableGold();
+            Item best = null;
+            for (Item item : merchant.inventory()) {
+                if (worth(item) > 0 && item.calculatePrice() <= gold
+                        && (best == null || worth(item) > worth(best))
+                        && sac.legalPlacements(item, anchors) > 0) {
+                    best = item;
+                }
+            }
+            Item bought = best == null ? null : merchant.heroBuys(best, hero);
+            if (bought == null) {
+                return;
+            }
+            loot(hero, List.of(bought), random);
+        }
+    }
+
+    // Rough value of an item in the fights to come
+    private static int worth(Item item) {
+        return switch (item) {
+            case Weapon w -> w.damage();
+            case Armor a -> a.protectionValue();
+            case Shield s -> s.protectionValue();
+            case Food _, Potion _, ManaStone _ -> 1;
+            default -> 0;
+        };
+    }
+
+    @Override
+    public List<Point> expand(Hero hero, int cells, RandomGenerator random) {
+        Objects.requireNonNull(hero);
+        BackPack sac = hero.getBackpack();
+        boolean[][] open = sac.getOpenGrid();
+        List<Point> chosen = new ArrayList<>(cells);
+        while (chosen.size() < cells) {
+            // The frontier cell touching the most open or chosen cells
+            Point best = null;
+            int bestTouching = -1;
+            for (int row = 0; row < sac.rows(); row++) {
+                for (long m = sac.frontierRow(row); m != 0L; m &= m - 1) {
+                    Point p = new Point(Long.numberOfTrailingZeros(m), row);
+                    if (chosen.contains(p)) {
+                        continue;
+                    }
+                    int touching = 0;
+                    for (Point q : List.of(new Point(p.x - 1, p.y), new Point(p.x + 1, p.y),
+                            new Point(p.x, p.y - 1), new Point(p.x, p.y + 1))) {
+                        if (q.y >= 0 && q.y < sac.rows() && q.x >= 0 && q.x < sac.cols()
+                                && (open[q.y][q.x] || chosen.contains(q))) {
+                            touching++;
+                        }
+                    }
+                    if (touching > bestTouching) {
+                        best = p;
+                        bestTouching = touching;
+                    }
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            chosen.add(best);
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,71 @@
+package controller;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import Items.Item;
+import model.CombatEngine;
+import model.Dungeon;
+import model.Hero;
+import model.Merchant;
+
+/**
+ * Decisions of a simulated player. A policy is used by one run at a time and
+ * draws its random choices from the generator it is given, so that a run can
+ * be replayed from its seed.
+ */
+public interface Policy {
+
+    /**
+     * Picks the next room to walk to.
+     *
+     * @param dungeon the dungeon, at the hero's position
+     * @param hero    the hero
+     * @param rooms   the rooms the hero can reach now, never empty
+     * @param random  generator of the player
+     * @return one of rooms
+     */
+    Point chooseRoom(Dungeon dungeon, Hero hero, List<Point> rooms, RandomGenerator random);
+
+    /**
+     * Plays the hero's side of one turn: uses items through the engine until
+     * the policy wants to end the turn. The caller ends the turn.
+     *
+     * @param engine the ongoing fight
+     * @param random generator of the player
+     */
+    void playTurn(CombatEngine engine, RandomGenerator random);
+
+    /**
+     * Puts the items the policy wants to keep in the backpack.
+     *
+     * @param hero   the hero
+     * @param items  items found in a room
+     * @param random generator of the player
+     */
+    void loot(Hero hero, List<Item> items, RandomGenerator random);
+
+    /**
+     * Trades with a merchant the hero walked to. Does nothing by default.
+     *
+     * @param hero     the hero
+     * @param merchant the merchant of the room
+     * @param random   generator of the player
+     */
+    default void shop(Hero hero, Merchant merchant, RandomGenerator random) {
+    }
+
+    /**
+     * Picks the locked cells of the backpack to open after a won fight, among
+     * those that can be opened now. Opens none by default.
+     *
+     * @param hero   the hero
+     * @param cells  most cells that can be opened
+     * @param random generator of the player
+     * @return the cells, as (x = col, y = row) points
+     */
+    default List<Point> expand(Hero hero, int cells, RandomGenerator random) {
+        return List.of();
+    }
+}
@@ -0,0 +1,29 @@
+package controller;
+
+/**
+ * Outcome of one simulated run.
+ *
+ * @param run    index of the run in its batch
+ * @param seed   seed of the run, to replay it
+ * @param floor  floor reached, from 1
+ * @param turns  turns played over all fights
+ * @param damage HP lost by the hero to attacks and poison
+ * @param gold   gold in the backpack at the end
+ * @param ending how the run ended
+ * @param killer enemies left in the fight the hero died in, null otherwise
+ */
+public record RunResult(int run, long seed, int floor, int turns, int damage, int gold, Ending ending,
+        String killer) {
+
+    /** How a run ends */
+    public enum Ending {
+        /** The hero left the last floor */
+        WON,
+        /** The hero died in a fight */
+        DIED,
+        /** No room left to go to: a locked path or a missing key */
+        STUCK,
+        /** A fight or the run went over the turn or move limit */
+        TOO_LONG
+    }
+}
@@ -1,17 +1,20 @@
 package effects;
 
-import java.util.ArrayList;
-
-import Enemies.Enemy;
+import Items.Curse;
 import Items.Item;
-import model.Hero;
+import Items.Weapon;
+import model.BackPack;
+
+public record AddDamageIfCurseAdjDiago(int damage) implements Aura {
 
-public record AddDamageIfCurseAdjDiago(int damage) implements Effect{
+	@Override
+	public int bonusTo(Item source, Item target, int kinds) {
+		return 0;
+	}
 
 	@Override
-	public Effect execute(Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item) {
-		// TODO Auto-generated method stub
-		return null;
+	public int bonusFrom(Item holder, Item neighbour, int kinds) {
+		return holder instanceof Weapon && neighbour instanceof Curse && (kinds & BackPack.DIAGONAL) != 0 ? damage : 0;
 	}
 
 }
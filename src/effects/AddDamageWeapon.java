@@ -8,25 +8,25 @@ import Items.Item;
 import Items.Weapon;
 import model.Hero;
 
-public class AddDamageWeapon implements Effect{
-	private int damage;
-	private int duration;
-	public AddDamageWeapon(int damage) {
-		this.damage = damage;
-		this.duration = 1;
+/**
+ * Raises the attack of a weapon once; the turns left are counted by the
+ * effect table of the weapon.
+ */
+public record AddDamageWeapon(int damage) implements Stateful{
+
+	@Override
+	public int initialState() {
+		return 1;
 	}
 
 	@Override
-	public Effect execute(Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item) {
-		// TODO Auto-generated method stub
+	public int execute(Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item, int duration) {
 		Objects.requireNonNull(hero);
 		Objects.requireNonNull(item);
 		if(item instanceof Weapon wea && duration > 0) {
 			wea.setAttack(wea.damage() + damage);
-			duration --;
-		}else {
-			item.effects().remove(this);
+			return duration - 1;
 		}
-		return null;
+		return duration;
 	}
 }
@@ -0,0 +1,33 @@
+package effects;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+import Enemies.Enemy;
+import Items.Item;
+import model.Hero;
+import model.StatusScheduler.Status;
+
+/**
+ * Registers a status lasting several turns, on the hero or on every enemy.
+ */
+public record ApplyStatus(Status status, int amount, int turns, boolean onHero) implements Effect {
+
+	public ApplyStatus {
+		Objects.requireNonNull(status);
+	}
+
+	@Override
+	public Effect execute(Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item) {
+		Objects.requireNonNull(hero);
+		if (onHero) {
+			hero.getStatuses().schedule(status, null, amount, turns);
+		} else {
+			Objects.requireNonNull(enemies);
+			for (Enemy en : enemies) {
+				hero.getStatuses().schedule(status, en, amount, turns);
+			}
+		}
+		return null;
+	}
+}
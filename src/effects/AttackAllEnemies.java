@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Objects;
 
 import Enemies.Enemy;
+import Enemies.EnemyGroup;
 import Items.Item;
 import model.Hero;
 
@@ -14,7 +15,12 @@ public record AttackAllEnemies(int damage) implements Effect{
 		// TODO Auto-generated method stub
 		Objects.requireNonNull(hero);
 		Objects.requireNonNull(enemies);
-		enemies.forEach(en -> en.getAttacked(damage));
+		EnemyGroup group = EnemyGroup.of(enemies);
+		if (group != null) {
+			group.damageAll(damage);
+		} else {
+			enemies.forEach(en -> en.getAttacked(damage));
+		}
 	return this;
 	}
 	
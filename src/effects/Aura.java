@@ -0,0 +1,59 @@
+package effects;
+
+import java.util.ArrayList;
+
+import Enemies.Enemy;
+import Items.Item;
+import model.BackPack;
+import model.Hero;
+
+/**
+ * Passive effect giving stat bonuses to items while they are in the backpack.
+ * The backpack keeps these bonuses up to date when items move, so auras are
+ * not run every turn like the other passive effects.
+ */
+public interface Aura extends Effect {
+
+	/**
+	 * Auras are applied by the backpack through bonusTo and ownBonus: running
+	 * one does nothing.
+	 */
+	@Override
+	default Effect execute(Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item) {
+		return this;
+	}
+
+	/**
+	 * @param source the item holding this effect
+	 * @param target an item touching source
+	 * @param kinds  how they touch: BackPack.ORTHOGONAL, BackPack.DIAGONAL or both
+	 * @return bonus added to the attack (weapons) or protection (armors) of target
+	 */
+	int bonusTo(Item source, Item target, int kinds);
+
+	/**
+	 * @param holder    the item holding this effect
+	 * @param neighbour an item touching holder
+	 * @param kinds     how they touch: BackPack.ORTHOGONAL, BackPack.DIAGONAL or both
+	 * @return bonus holder gets from this neighbour alone
+	 */
+	default int bonusFrom(Item holder, Item neighbour, int kinds) {
+		return 0;
+	}
+
+	/**
+	 * @param sac  the backpack
+	 * @param slot slot of the item holding this effect
+	 * @return bonus the item gets from the items around it: the best bonusFrom
+	 *         of its neighbours, counted once
+	 */
+	default int ownBonus(BackPack sac, int slot) {
+		Item holder = sac.itemInSlot(slot);
+		int best = 0;
+		for (int i = 0; i < sac.neighbourCount(slot); i++) {
+			Item neighbour = sac.itemInSlot(sac.neighbourSlot(slot, i));
+			best = Math.max(best, bonusFrom(holder, neighbour, sac.neighbourKinds(slot, i)));
+		}
+		return best;
+	}
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Objects;
 
 import Enemies.Enemy;
+import Enemies.EnemyGroup;
 import Items.Item;
 import model.Hero;
 
@@ -14,7 +15,13 @@ public record HeallAllEnemies(int heal) implements Effect{
 		// TODO Auto-generated method stub
 		Objects.requireNonNull(hero);
 		Objects.requireNonNull(enemies);
-		enemies.forEach(en -> en.setHp(en.hp() + heal));
+		EnemyGroup group = EnemyGroup.of(enemies);
+		if (group != null) {
+			group.healAll(heal);
+		} else {
+			// setHp adds to the current HP of an enemy
+			enemies.forEach(en -> en.setHp(heal));
+		}
 		return null;
 	}
 
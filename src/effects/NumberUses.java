@@ -7,25 +7,28 @@ import Enemies.Enemy;
 import Items.Item;
 import model.Hero;
 
-public class NumberUses implements Effect{
-	private int n;
-	public NumberUses(int i){
-		if(i < 0) {
+/**
+ * Limits the uses of an item: n is the number of uses of a new item, the uses
+ * left are counted by the effect table of each item.
+ */
+public record NumberUses(int n) implements Stateful{
+	public NumberUses {
+		if(n < 0) {
 			throw new IllegalArgumentException("i cant be < 0");
 		}
-		this.n = i;
 	}
 	@Override
-	public NumberUses execute(Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item) {
-		// TODO Auto-generated method stub
+	public int initialState() {
+		return n;
+	}
+	@Override
+	public int execute(Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item, int state) {
 		Objects.requireNonNull(hero);
 		Objects.requireNonNull(item);
-		if(n > 0) {
-			n = n-1;
-		}
-		return this;
+		return state > 0 ? state - 1 : state;
 	}
-	public int n() {
-		return n;
+	@Override
+	public boolean exhausted(int state) {
+		return state <= 0;
 	}
 }
@@ -4,8 +4,10 @@ import java.util.ArrayList;
 import java.util.Objects;
 
 import Enemies.Enemy;
+import Enemies.EnemyGroup;
 import Items.Item;
 import model.Hero;
+import model.StatusScheduler.Status;
 
 public record PoisonEffect(int damage) implements Effect{
 	@Override
@@ -13,7 +15,16 @@ public record PoisonEffect(int damage) implements Effect{
 		// TODO Auto-generated method stub
 		Objects.requireNonNull(hero);
 		Objects.requireNonNull(enemies);
-		enemies.forEach(en -> en.setHp(en.hp() - damage));
+		EnemyGroup group = EnemyGroup.of(enemies);
+		if (group != null) {
+			group.poisonAll(damage);
+		} else {
+			// setHp adds to the current HP of an enemy
+			enemies.forEach(en -> en.setHp(-damage));
+		}
+		for (Enemy en : enemies) {
+			hero.getStatuses().applied(Status.POISON, en, damage);
+		}
 		return null;
 	}
 }
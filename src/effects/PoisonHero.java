@@ -6,6 +6,7 @@ import java.util.Objects;
 import Enemies.Enemy;
 import Items.Item;
 import model.Hero;
+import model.StatusScheduler.Status;
 
 public record PoisonHero(int malus) implements Effect{
 
@@ -14,6 +15,7 @@ public record PoisonHero(int malus) implements Effect{
 		// TODO Auto-generated method stub
 		Objects.requireNonNull(hero);
 		hero.setHp(hero.getHp() - malus);
+		hero.getStatuses().applied(Status.POISON, null, malus);
 		return null;
 	}
 
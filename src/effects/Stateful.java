@@ -0,0 +1,42 @@
+package effects;
+
+import java.util.ArrayList;
+
+import Enemies.Enemy;
+import Items.Item;
+import model.Hero;
+
+/**
+ * Effect keeping a counter (uses left, turns left, stacks) for each item
+ * holding it. The effect itself stays immutable and can be shared between
+ * items: the counter lives in the effect table of the item, which passes it
+ * to the effect on each run.
+ */
+public interface Stateful extends Effect {
+
+	/** @return Value of the counter of a new item */
+	int initialState();
+
+	/**
+	 * Runs the effect with the counter of the item.
+	 *
+	 * @param state the current counter
+	 * @return the counter after this run
+	 */
+	int execute(Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item, int state);
+
+	/**
+	 * @param state a counter
+	 * @return true if the item should leave the backpack with that counter
+	 */
+	default boolean exhausted(int state) {
+		return false;
+	}
+
+	// Without a table, the effect runs once from its initial counter
+	@Override
+	default Effect execute(Hero hero, ArrayList<Enemy> enemies, Enemy e, Item item) {
+		execute(hero, enemies, e, item, initialState());
+		return this;
+	}
+}
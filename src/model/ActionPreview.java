@@ -0,0 +1,286 @@
+package model;
+
+import java.util.List;
+import java.util.Objects;
+
+import Enemies.Enemy;
+import Enemies.Intent;
+import Items.Armor;
+import Items.Curse;
+import Items.EffectTable;
+import Items.Item;
+import Items.MagicItem;
+import Items.MeleeWeapon;
+import Items.RangedWeapon;
+import Items.Shield;
+import Items.Trigger;
+import effects.AddEnergyCost;
+import effects.AddHpHero;
+import effects.AddMana;
+import effects.AttackAllEnemies;
+import effects.Effect;
+import effects.HeallAllEnemies;
+import effects.NumberUses;
+import effects.PoisonEffect;
+import effects.PoisonHero;
+
+/**
+ * Predicts what using an item would do, without mutating the hero, the
+ * enemies nor the item: damage, block, costs and kills, counting every enemy
+ * the use kills since the engine removes them all.
+ * <p>
+ * The rules mirror the onUse methods of the items and the on-use effects with
+ * an immediate result; effects acting later (statuses, weapon buffs) are not
+ * predicted. One preview is meant to be reused: evaluate overwrites the
+ * previous result and only allocates when the number of enemies grows.
+ * </p>
+ */
+public final class ActionPreview {
+    // Caps applied by Hero.setEnergy and Hero.setMana
+    private static final int MAX_ENERGY = 3;
+    private static final int MAX_MANA = 2;
+
+    // Enemies of the last evaluation and their predicted HP, by index
+    private List<Enemy> enemies = List.of();
+    private int[] enemyHp = new int[8];
+    private int enemyCount;
+    private int targetIndex;
+
+    private boolean usable;
+    private int energyCost;
+    private int manaCost;
+    private int damage;
+    private int totalDamage;
+    private int block;
+    private int heal;
+    private int selfDamage;
+    private int kills;
+    private boolean lastUse;
+
+    // Hero values while evaluating
+    private int hp;
+    private int hpMax;
+    private int energy;
+    private int mana;
+
+    /**
+     * Evaluates the use of an item in the current state of a fight.
+     *
+     * @param item    the item used
+     * @param hero    the hero using it
+     * @param target  the enemy targeted, or null to use the item on the hero
+     * @param enemies the enemies of the fight, target included
+     * @return true if using the item would do something
+     */
+    public boolean evaluate(Item item, Hero hero, Enemy target, List<Enemy> enemies) {
+        Objects.requireNonNull(item);
+        Objects.requireNonNull(hero);
+        Objects.requireNonNull(enemies);
+        reset(hero, target, enemies);
+
+        switch (item) {
+            case MeleeWeapon melee -> {
+                if (target != null && energy >= melee.energyCost()) {
+                    energy -= melee.energyCost();
+                    hit(targetIndex, melee.damage());
+                    effects(item.effectTable());
+                }
+            }
+            case RangedWeapon ranged -> {
+                if (target != null) {
+                    if (energy >= ranged.energyCost()) {
+                        energy -= ranged.energyCost();
+                        hit(targetIndex, ranged.damage());
+                    }
+                    effects(item.effectTable());
+                }
+            }
+            case MagicItem magic -> {
+                if (target != null) {
+                    if (mana >= magic.manaCost()) {
+                        mana -= magic.manaCost();
+                        // A spell strikes twice
+                        hit(targetIndex, magic.damage());
+                        hit(targetIndex, magic.damage());
+                    }
+                    effects(item.effectTable());
+                }
+            }
+            case Armor armor -> {
+                if (energy >= armor.energyCost()) {
+                    energy -= armor.energyCost();
+                    block = armor.protectionValue();
+                }
+            }
+            case Shield shield -> {
+                if (energy >= shield.energyCost()) {
+                    energy -= shield.energyCost();
+                    block = shield.protectionValue();
+                }
+                effects(item.effectTable());
+            }
+            case Curse curse -> {
+                selfDamage = Math.min(hp, curse.damage());
+                lastUse = true;
+            }
+            default -> effects(item.effectTable());
+        }
+
+        for (int i = 0; i < enemyCount; i++) {
+            Enemy e = enemies.get(i);
+            totalDamage += Math.max(0, e.hp() - enemyHp[i]);
+            if (enemyHp[i] <= 0 && !e.isDead()) {
+                kills++;
+            }
+        }
+        if (targetIndex >= 0) {
+            damage = Math.max(0, target.hp() - enemyHp[targetIndex]);
+        }
+        energyCost = hero.getEnergy() - energy;
+        manaCost = hero.getMana() - mana;
+        usable = energyCost != 0 || manaCost != 0 || totalDamage > 0 || block > 0 || heal > 0 || selfDamage > 0
+                || lastUse;
+        return usable;
+    }
+
+    private void reset(Hero hero, Enemy target, List<Enemy> enemies) {
+        usable = false;
+        energyCost = 0;
+        manaCost = 0;
+        damage = 0;
+        totalDamage = 0;
+        block = 0;
+        heal = 0;
+        selfDamage = 0;
+        kills = 0;
+        lastUse = false;
+        hp = hero.getHp();
+        hpMax = hero.getHpMax();
+        energy = hero.getEnergy();
+        mana = hero.getMana();
+
+        this.enemies = enemies;
+        enemyCount = enemies.size();
+        if (enemyHp.length < enemyCount) {
+            enemyHp = new int[Math.max(enemyCount, enemyHp.length * 2)];
+        }
+        targetIndex = -1;
+        for (int i = 0; i < enemyCount; i++) {
+            Enemy e = enemies.get(i);
+            enemyHp[i] = e.hp();
+            if (e == target) {
+                targetIndex = i;
+            }
+        }
+    }
+
+    // Enemy.getAttacked: a defending enemy subtracts its defense
+    private void hit(int i, int value) {
+        if (i < 0) {
+            return;
+        }
+        Enemy e = enemyAt(i);
+        int taken = e.hasIntent(Intent.DEFEND) ? Math.max(0, value - e.defense()) : value;
+        enemyHp[i] = Math.max(0, enemyHp[i] - taken);
+    }
+
+    // On-use effects with an immediate result, in table order
+    private void effects(EffectTable table) {
+        for (int k = 0; k < table.count(Trigger.ON_USE); k++) {
+            Effect effect = table.effect(Trigger.ON_USE, k);
+            switch (effect) {
+                case AttackAllEnemies(int d) -> {
+                    for (int i = 0; i < enemyCount; i++) {
+                        hit(i, d);
+                    }
+                }
+                case PoisonEffect(int d) -> {
+                    for (int i = 0; i < enemyCount; i++) {
+                        // The fight lets HP go below 0; damage stops at the HP left
+                        enemyHp[i] = Math.max(0, Math.min(enemyAt(i).hpMax(), enemyHp[i] - d));
+                    }
+                }
+                case HeallAllEnemies(int h) -> {
+                    for (int i = 0; i < enemyCount; i++) {
+                        enemyHp[i] = Math.min(enemyAt(i).hpMax(), enemyHp[i] + h);
+                    }
+                }
+                case AddHpHero(int h) -> {
+                    int healed = Math.max(0, Math.min(hp + h, hpMax));
+                    heal += Math.max(0, healed - hp);
+                    selfDamage += Math.max(0, hp - healed);
+                    hp = healed;
+                }
+                case PoisonHero(int m) -> {
+                    int left = Math.max(0, Math.min(hp - m, hpMax));
+                    selfDamage += hp - left;
+                    hp = left;
+                }
+                case AddMana(int v) -> mana = Math.min(mana + v, MAX_MANA);
+                case AddEnergyCost(int n) -> energy = Math.min(energy + n, MAX_ENERGY);
+                case NumberUses uses -> lastUse |= table.state(Trigger.ON_USE, k) <= 1;
+                default -> {
+                }
+            }
+        }
+    }
+
+    private Enemy enemyAt(int i) {
+        return enemies.get(i);
+    }
+
+    /** @return true if the last evaluated use would do something */
+    public boolean usable() {
+        return usable;
+    }
+
+    /** @return Energy spent, negative if the hero gains energy */
+    public int energyCost() {
+        return energyCost;
+    }
+
+    /** @return Mana spent, negative if the hero gains mana */
+    public int manaCost() {
+        return manaCost;
+    }
+
+    /** @return HP lost by the target */
+    public int damage() {
+        return damage;
+    }
+
+    /** @return HP lost by all the enemies */
+    public int totalDamage() {
+        return totalDamage;
+    }
+
+    /** @return Protection gained by the hero */
+    public int block() {
+        return block;
+    }
+
+    /** @return HP gained by the hero */
+    public int heal() {
+        return heal;
+    }
+
+    /** @return HP lost by the hero */
+    public int selfDamage() {
+        return selfDamage;
+    }
+
+    /** @return true if the target would die */
+    public boolean killsTarget() {
+        return targetIndex >= 0 && enemyHp[targetIndex] <= 0;
+    }
+
+    /** @return Number of enemies that would die */
+    public int kills() {
+        return kills;
+    }
+
+    /** @return true if the item would leave the backpack after this use */
+    public boolean lastUse() {
+        return lastUse;
+    }
+}
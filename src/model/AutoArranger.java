@@ -0,0 +1,736 @@
+package model;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import Items.Curse;
+import Items.EffectTable;
+import Items.Gold;
+import Items.Item;
+import Items.Shape;
+import Items.Trigger;
+import effects.Aura;
+
+/**
+ * Rearranges the items of a backpack to maximize the bonus of their auras
+ * (effects.Aura): what they give the items sharing an edge with them, and what
+ * they get from a curse touching them by a corner.
+ * <p>
+ * The search is a branch and bound over the items, their distinct rotations
+ * and their legal anchors, working on one bitboard per row and a cell
+ * ownership array: the backpack is not touched until apply is called. Items
+ * already in the backpack are always placed; extra items (pending rewards) are
+ * placed when possible, one more extra item always beating any bonus. Curses
+ * stay where they are.
+ * </p>
+ * <p>
+ * Branching is exact over the items that can earn a bonus. A branch is cut as
+ * soon as an item that must be placed has no legal anchor left, or the free
+ * regions large enough for the smallest of them hold too few cells. Items
+ * without any synergy come last and are packed first fit, largest first,
+ * instead of being branched on: an arrangement where they only fit some other
+ * way is missed, and the result is then not flagged optimal.
+ * </p>
+ * <p>
+ * solve(budgetMillis) is the mode for the screens, returning the best
+ * arrangement found when the budget runs out. solve() runs the search to the
+ * end, which is not bounded in time: on full 5x7 bags it takes from a few
+ * milliseconds to minutes. Both start from the current layout, so the result
+ * is never worse than it.
+ * </p>
+ */
+public final class AutoArranger {
+
+    /** Where an item goes in an arrangement */
+    public record Placement(Item item, int row, int col, int rotation) {
+    }
+
+    /**
+     * Outcome of a search.
+     *
+     * @param placements where each placed item goes
+     * @param leftOut    extra items that are not placed
+     * @param bonus      total adjacency bonus of the arrangement
+     * @param optimal    true if the arrangement is proven best: the search
+     *                   ended within the budget and no first fit packing left
+     *                   an item out
+     */
+    public record Result(List<Placement> placements, List<Item> leftOut, int bonus, boolean optimal) {
+    }
+
+    // Nodes explored between two clock reads in anytime mode: a node lists
+    // the anchors of every rotation and sorts them, a few microseconds each
+    private static final int CHECK_EVERY = 1 << 4;
+
+    // Owner of a cell that holds a curse, or is free
+    private static final int CURSE = -2;
+    private static final int FREE = -1;
+
+    private final BackPack sac;
+    private final int rows;
+    private final int cols;
+    private final int n;
+    // Items in search order, and whether they must be placed
+    private final Item[] items;
+    private final boolean[] mandatory;
+    // Extra items the search does not consider (curses, second gold stack...)
+    private final List<Item> ignored = new ArrayList<>();
+    // Index of the previous identical item in search order, -1 if none
+    private final int[] sameAs;
+    // Bonus earned when items i and j share an edge
+    private final int[][] ortho;
+    // Bonus earned once when a curse touches item i by a corner
+    private final int[] curseBonus;
+    // First item in search order without any synergy: from there on, items
+    // are packed first fit
+    private final int tail;
+    // Previous mandatory item in search order with the same shape, -1 if none
+    private final int[] sameShape;
+    // From depth d on: cells of the mandatory items, size of the smallest one,
+    // extra items, reachable bonus
+    private final int[] mandatoryCellsFrom;
+    private final int[] smallestFrom;
+    private final int[] optionalFrom;
+    private final int[] bonusFrom;
+    // From depth d on: most bonus of the pairs of items not placed yet,
+    // curses included
+    private final int[] bonusAmong;
+    // Items after item i earning a bonus next to it, best bonus first
+    private final int[][] partners;
+    // Value of one more placed extra item, above any bonus
+    private final long scale;
+    // Placement of the current layout, as search keys
+    private final int[] currentKeys;
+
+    // Search state: free cells of each row, owner of each cell (search depth of
+    // the item covering it, FREE or CURSE), and packed placement (-1 if left
+    // out) of each item on the current branch
+    private final long[] free;
+    private final int[] owner;
+    private int freeCount;
+    private final int[] keys;
+    // Anchor buffer of each depth, and neighbour stamps used by gain
+    private final long[][] anchors;
+    // Children of each depth, as (bonus lost, key) sorted best first
+    private final long[][] children;
+    // Cell stamps used to count the free cells around an item
+    private final int[] cellSeen;
+    private int cellStamp;
+    // Rows of anchors, of cells not yet reached and of a free region, used by
+    // the forward checks
+    private final long[] probe;
+    private final long[] unseen;
+    private final long[] region;
+    // Items a leaf packing could not place
+    private final int[] failed;
+    private final int[] seen;
+    private int stamp;
+    private long best;
+    private int[] bestKeys;
+    private long deadline;
+    private boolean bounded;
+    private long nodes;
+    private boolean timedOut;
+    // A first fit packing left an item out, that another packing might place
+    private boolean packMissed;
+
+    /**
+     * @param sac the backpack to arrange
+     */
+    public AutoArranger(BackPack sac) {
+        this(sac, List.of());
+    }
+
+    /**
+     * @param sac    the backpack to arrange
+     * @param extras items waiting outside the backpack, placed if possible
+     */
+    public AutoArranger(BackPack sac, List<Item> extras) {
+        Objects.requireNonNull(sac);
+        Objects.requireNonNull(extras);
+        this.sac = sac;
+        this.rows = sac.rows();
+        this.cols = sac.cols();
+        this.free = new long[rows];
+        this.owner = new int[rows * cols];
+        Arrays.fill(owner, FREE);
+        for (int r = 0; r < rows; r++) {
+            free[r] = sac.openRow(r);
+            freeCount += Long.bitCount(free[r]);
+        }
+
+        ArrayList<Item> candidates = new ArrayList<>();
+        ArrayList<Boolean> required = new ArrayList<>();
+        // A curse of the backpack, to ask the auras what touching one is worth
+        Item curse = null;
+        boolean hasGold = false;
+        for (int slot = sac.nextSlot(0); slot >= 0; slot = sac.nextSlot(slot + 1)) {
+            Item item = sac.itemInSlot(slot);
+            if (item instanceof Curse) {
+                curse = item;
+                int p = sac.placementOf(slot);
+                cover(item.shape(), BackPack.packedRotation(p), BackPack.packedRow(p), BackPack.packedCol(p),
+                        CURSE);
+            } else {
+                hasGold |= item instanceof Gold;
+                candidates.add(item);
+                required.add(true);
+            }
+        }
+        for (Item item : extras) {
+            Objects.requireNonNull(item);
+            // Curses are placed by the player, and gold stacks merge instead of
+            // taking room
+            if (item instanceof Curse || sac.contains(item) || (item instanceof Gold && hasGold)) {
+                ignored.add(item);
+                continue;
+            }
+            hasGold |= item instanceof Gold;
+            candidates.add(item);
+            required.add(false);
+        }
+        this.n = candidates.size();
+
+        // Pairwise bonus in input order, used to sort
+        int[][] pair = new int[n][n];
+        int[] diag = new int[n];
+        int[] synergy = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int bonus = bonusOn(candidates.get(i), candidates.get(j))
+                        + bonusOn(candidates.get(j), candidates.get(i));
+                pair[i][j] = bonus;
+                pair[j][i] = bonus;
+                synergy[i] += bonus;
+                synergy[j] += bonus;
+            }
+            diag[i] = curse == null ? 0 : curseBonusOf(candidates.get(i), curse);
+            synergy[i] += diag[i];
+        }
+
+        // Items with synergies first so the bound tightens early, then large
+        // shapes first; identical items end up next to each other
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> synergy[i] > 0 ? 0 : 1)
+                .thenComparingInt(i -> -candidates.get(i).shape().size())
+                .thenComparing(i -> candidates.get(i).name())
+                .thenComparingInt(i -> candidates.get(i).shape().id())
+                .thenComparingInt(i -> required.get(i) ? 0 : 1));
+
+        items = new Item[n];
+        mandatory = new boolean[n];
+        ortho = new int[n][n];
+        curseBonus = new int[n];
+        sameAs = new int[n];
+        for (int a = 0; a < n; a++) {
+            items[a] = candidates.get(order[a]);
+            mandatory[a] = required.get(order[a]);
+            curseBonus[a] = diag[order[a]];
+            for (int b = 0; b < n; b++) {
+                ortho[a][b] = pair[order[a]][order[b]];
+            }
+        }
+        for (int a = 0; a < n; a++) {
+            sameAs[a] = a > 0 && identical(a - 1, a) ? a - 1 : -1;
+        }
+        int first = n;
+        while (first > 0 && synergy[order[first - 1]] == 0) {
+            first--;
+        }
+        tail = first;
+        sameShape = new int[n];
+        for (int a = 0; a < n; a++) {
+            sameShape[a] = -1;
+            for (int b = a - 1; b >= 0 && sameShape[a] < 0 && mandatory[a]; b--) {
+                if (mandatory[b] && items[b].shape() == items[a].shape()) {
+                    sameShape[a] = b;
+                }
+            }
+        }
+
+        mandatoryCellsFrom = new int[n + 1];
+        smallestFrom = new int[n + 1];
+        smallestFrom[n] = Integer.MAX_VALUE;
+        optionalFrom = new int[n + 1];
+        bonusFrom = new int[n + 1];
+        for (int d = n - 1; d >= 0; d--) {
+            mandatoryCellsFrom[d] = mandatoryCellsFrom[d + 1] + (mandatory[d] ? items[d].shape().size() : 0);
+            smallestFrom[d] = mandatory[d] ? Math.min(smallestFrom[d + 1], items[d].shape().size())
+                    : smallestFrom[d + 1];
+            optionalFrom[d] = optionalFrom[d + 1] + (mandatory[d] ? 0 : 1);
+            // Pairs (i, d) with i < d are still open while item d is not placed
+            int open = curseBonus[d];
+            for (int i = 0; i < d; i++) {
+                open += ortho[i][d];
+            }
+            bonusFrom[d] = bonusFrom[d + 1] + open;
+        }
+        scale = bonusFrom[0] + 1L;
+        partners = new int[n][];
+        for (int i = 0; i < n; i++) {
+            int a = i;
+            partners[i] = IntStream.range(i + 1, n).filter(j -> ortho[a][j] > 0).boxed()
+                    .sorted(Comparator.comparingInt(j -> -ortho[a][j])).mapToInt(Integer::intValue).toArray();
+        }
+        // An item touches at most as many items as it has cells around it:
+        // each pair counts for the first item, with its best partners only
+        bonusAmong = new int[n + 1];
+        for (int d = n - 1; d >= 0; d--) {
+            int among = curseBonus[d];
+            int[] p = partners[d];
+            for (int k = 0; k < Math.min(p.length, border(items[d].shape())); k++) {
+                among += ortho[d][p[k]];
+            }
+            bonusAmong[d] = bonusAmong[d + 1] + among;
+        }
+
+        keys = new int[n];
+        anchors = new long[n][rows];
+        children = new long[n][Shape.ROTATIONS * rows * cols];
+        cellSeen = new int[rows * cols];
+        probe = new long[rows];
+        unseen = new long[rows];
+        region = new long[rows];
+        failed = new int[n];
+        seen = new int[n];
+        currentKeys = new int[n];
+        for (int d = 0; d < n; d++) {
+            currentKeys[d] = mandatory[d] ? sac.placementOf(sac.slotOf(items[d])) : -1;
+        }
+    }
+
+    /**
+     * Searches the best arrangement until the end, however long it takes: use
+     * solve(budgetMillis) when the answer is needed within a frame.
+     *
+     * @return the best arrangement, up to the first fit packing of the items
+     *         without synergy
+     */
+    public Result solve() {
+        bounded = false;
+        return run();
+    }
+
+    /**
+     * Searches the best arrangement within a time budget.
+     *
+     * @param budgetMillis time budget in milliseconds
+     * @return the best arrangement found, flagged optimal if the search ended
+     *         within the budget without missing a packing
+     */
+    public Result solve(long budgetMillis) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("budget must be positive: " + budgetMillis);
+        }
+        bounded = true;
+        deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        return run();
+    }
+
+    /**
+     * Moves the items of the backpack, and the extra items that are placed, to
+     * the cells of the arrangement. The backpack must not have changed since
+     * this arranger was built.
+     *
+     * @param result a result of this arranger
+     */
+    public void apply(Result result) {
+        Objects.requireNonNull(result);
+        for (Placement p : result.placements()) {
+            if (sac.contains(p.item())) {
+                sac.removeItem(p.item());
+            }
+        }
+        for (Placement p : result.placements()) {
+            if (!sac.place(p.item(), p.row(), p.col(), p.rotation())) {
+                throw new IllegalStateException("the backpack changed since the arrangement was computed");
+            }
+        }
+    }
+
+    /* =========================
+       Search
+       ========================= */
+
+    private Result run() {
+        nodes = 0;
+        timedOut = false;
+        packMissed = false;
+
+        // The current layout is the first incumbent
+        bestKeys = currentKeys.clone();
+        best = 0L;
+        for (int d = 0; d < n; d++) {
+            if (currentKeys[d] >= 0) {
+                int p = currentKeys[d];
+                best += gain(d, BackPack.packedRotation(p), BackPack.packedRow(p), BackPack.packedCol(p));
+                cover(items[d].shape(), BackPack.packedRotation(p), BackPack.packedRow(p), BackPack.packedCol(p), d);
+            }
+        }
+        for (int d = 0; d < n; d++) {
+            if (currentKeys[d] >= 0) {
+                int p = currentKeys[d];
+                cover(items[d].shape(), BackPack.packedRotation(p), BackPack.packedRow(p), BackPack.packedCol(p),
+                        FREE);
+            }
+        }
+
+        search(0, 0L);
+        return toResult();
+    }
+
+    private void search(int d, long value) {
+        if (bounded && ++nodes % CHECK_EVERY == 0 && System.nanoTime() - deadline > 0) {
+            timedOut = true;
+        }
+        if (timedOut) {
+            return;
+        }
+        if (value + optionalFrom[d] * scale + bonusFrom[d] <= best
+                || value + optionalFrom[d] * scale + bound(d) <= best
+                || freeCount < mandatoryCellsFrom[d] || !feasible(d)) {
+            return;
+        }
+        if (d == tail) {
+            pack(d, value);
+            return;
+        }
+
+        // An item identical to the previous one goes after it (or is left out
+        // with it), so the same arrangement is not explored twice
+        int prev = sameAs[d];
+        if (prev < 0 || keys[prev] >= 0) {
+            Shape shape = items[d].shape();
+            int minKey = prev < 0 ? -1 : keys[prev];
+            long extra = mandatory[d] ? 0L : scale;
+            long[] a = anchors[d];
+            long[] c = children[d];
+            int count = 0;
+            for (int rot = 0; rot < shape.period(); rot++) {
+                BackPack.anchors(shape, rot, free, rows, cols, a);
+                for (int row = 0; row < rows; row++) {
+                    for (long m = a[row]; m != 0L; m &= m - 1) {
+                        int col = Long.numberOfTrailingZeros(m);
+                        int key = BackPack.pack(rot, row, col);
+                        if (key > minKey) {
+                            c[count++] = (long) (Integer.MAX_VALUE - gain(d, rot, row, col)) << 32 | key;
+                        }
+                    }
+                }
+            }
+            // Best gains first, so that good arrangements are found early
+            Arrays.sort(c, 0, count);
+            for (int k = 0; k < count; k++) {
+                int key = (int) c[k];
+                int rot = BackPack.packedRotation(key);
+                int row = BackPack.packedRow(key);
+                int col = BackPack.packedCol(key);
+                keys[d] = key;
+                long next = value + extra + Integer.MAX_VALUE - (int) (c[k] >>> 32);
+                cover(shape, rot, row, col, d);
+                search(d + 1, next);
+                cover(shape, rot, row, col, FREE);
+                if (timedOut) {
+                    return;
+                }
+            }
+        }
+        if (!mandatory[d]) {
+            keys[d] = -1;
+            search(d + 1, value);
+        }
+    }
+
+    // Most bonus the items from d on can still earn: the pairs among them, and
+    // for each item placed, its best partners left, as many as it has free
+    // cells around it
+    private int bound(int d) {
+        int bound = bonusAmong[d];
+        for (int i = 0; i < d; i++) {
+            int[] p = partners[i];
+            if (keys[i] < 0 || p.length == 0) {
+                continue;
+            }
+            int room = freeAround(i);
+            for (int k = 0; k < p.length && room > 0; k++) {
+                if (p[k] >= d) {
+                    bound += ortho[i][p[k]];
+                    room--;
+                }
+            }
+        }
+        return bound;
+    }
+
+    // Free cells sharing an edge with placed item i
+    private int freeAround(int i) {
+        Shape shape = items[i].shape();
+        int rot = BackPack.packedRotation(keys[i]);
+        int row = BackPack.packedRow(keys[i]);
+        int col = BackPack.packedCol(keys[i]);
+        int count = 0;
+        cellStamp++;
+        for (int k = 0; k < shape.size(); k++) {
+            int r = row + shape.dy(rot, k);
+            int c = col + shape.dx(rot, k);
+            for (int dir = 0; dir < 4; dir++) {
+                int nr = r + (dir == 0 ? -1 : dir == 1 ? 1 : 0);
+                int nc = c + (dir == 2 ? -1 : dir == 3 ? 1 : 0);
+                if (nr >= 0 && nc >= 0 && nr < rows && nc < cols && (free[nr] & 1L << nc) != 0L
+                        && cellSeen[nr * cols + nc] != cellStamp) {
+                    cellSeen[nr * cols + nc] = cellStamp;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Leaf: places the items from d on first fit, the mandatory ones first,
+    // and keeps the arrangement if it is the best so far
+    private void pack(int from, long value) {
+        long start = value;
+        int misses = 0;
+        Arrays.fill(keys, from, n, -1);
+        boolean fits = true;
+        for (int pass = 0; pass < 2 && fits; pass++) {
+            for (int d = from; d < n; d++) {
+                if (mandatory[d] != (pass == 0)) {
+                    continue;
+                }
+                keys[d] = firstFit(d);
+                if (keys[d] >= 0) {
+                    cover(items[d].shape(), BackPack.packedRotation(keys[d]), BackPack.packedRow(keys[d]),
+                            BackPack.packedCol(keys[d]), d);
+                    value += mandatory[d] ? 0L : scale;
+                } else {
+                    failed[misses++] = d;
+                    if (mandatory[d]) {
+                        fits = false;
+                        break;
+                    }
+                }
+            }
+        }
+        if (fits && value > best) {
+            best = value;
+            bestKeys = keys.clone();
+        }
+        for (int d = from; d < n; d++) {
+            if (keys[d] >= 0) {
+                cover(items[d].shape(), BackPack.packedRotation(keys[d]), BackPack.packedRow(keys[d]),
+                        BackPack.packedCol(keys[d]), FREE);
+                keys[d] = -1;
+            }
+        }
+        // A failure only counts as a miss when another packing of the same
+        // free cells might place the item, and would then beat the best
+        for (int k = 0; k < misses && !packMissed; k++) {
+            int d = failed[k];
+            long reachable = mandatory[d] ? start + optionalFrom[from] * scale : value + scale;
+            int cells = mandatoryCellsFrom[from] + (mandatory[d] ? 0 : items[d].shape().size());
+            packMissed = reachable > best && freeCount >= cells && hasAnchor(items[d].shape());
+        }
+    }
+
+    // Topmost, then leftmost legal placement of item d, -1 if none
+    private int firstFit(int d) {
+        Shape shape = items[d].shape();
+        int key = -1;
+        int bestCell = Integer.MAX_VALUE;
+        for (int rot = 0; rot < shape.period(); rot++) {
+            BackPack.anchors(shape, rot, free, rows, cols, probe);
+            for (int row = 0; row < rows; row++) {
+                if (probe[row] != 0L) {
+                    int col = Long.numberOfTrailingZeros(probe[row]);
+                    if (row * cols + col < bestCell) {
+                        bestCell = row * cols + col;
+                        key = BackPack.pack(rot, row, col);
+                    }
+                    break;
+                }
+            }
+        }
+        return key;
+    }
+
+    // Forward checks: every mandatory item left still has a legal anchor, and
+    // the free regions large enough for the smallest of them hold them all
+    private boolean feasible(int d) {
+        if (mandatoryCellsFrom[d] == 0) {
+            return true;
+        }
+        if (usableCells(smallestFrom[d]) < mandatoryCellsFrom[d]) {
+            return false;
+        }
+        for (int e = d; e < n; e++) {
+            // One check per shape
+            if (mandatory[e] && sameShape[e] < d && !hasAnchor(items[e].shape())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasAnchor(Shape shape) {
+        for (int rot = 0; rot < shape.period(); rot++) {
+            if (BackPack.anchors(shape, rot, free, rows, cols, probe) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Free cells in the regions of at least minSize connected free cells
+    private int usableCells(int minSize) {
+        int usable = 0;
+        System.arraycopy(free, 0, unseen, 0, rows);
+        for (int r = 0; r < rows; r++) {
+            while (unseen[r] != 0L) {
+                Arrays.fill(region, 0L);
+                region[r] = Long.lowestOneBit(unseen[r]);
+                // Flood fill, one row of bits at a time
+                boolean grew = true;
+                while (grew) {
+                    grew = false;
+                    for (int i = 0; i < rows; i++) {
+                        long g = region[i] | region[i] << 1 | region[i] >>> 1;
+                        if (i > 0) {
+                            g |= region[i - 1];
+                        }
+                        if (i + 1 < rows) {
+                            g |= region[i + 1];
+                        }
+                        g &= unseen[i];
+                        if (g != region[i]) {
+                            region[i] = g;
+                            grew = true;
+                        }
+                    }
+                }
+                int size = 0;
+                for (int i = 0; i < rows; i++) {
+                    size += Long.bitCount(region[i]);
+                    unseen[i] &= ~region[i];
+                }
+                if (size >= minSize) {
+                    usable += size;
+                }
+            }
+        }
+        return usable;
+    }
+
+    // Marks the cells of a shape as owned by who, or as free again
+    private void cover(Shape shape, int rot, int row, int col, int who) {
+        for (int i = 0; i < shape.height(rot); i++) {
+            long m = shape.rowMask(rot, i) << col;
+            free[row + i] = who == FREE ? free[row + i] | m : free[row + i] & ~m;
+        }
+        for (int k = 0; k < shape.size(); k++) {
+            owner[(row + shape.dy(rot, k)) * cols + col + shape.dx(rot, k)] = who;
+        }
+        freeCount += who == FREE ? shape.size() : -shape.size();
+    }
+
+    // Bonus earned by placing item d at (row, col), against the items placed
+    // before it
+    private int gain(int d, int rot, int row, int col) {
+        Shape shape = items[d].shape();
+        int gain = 0;
+        boolean curse = false;
+        stamp++;
+        for (int k = 0; k < shape.size(); k++) {
+            int r = row + shape.dy(rot, k);
+            int c = col + shape.dx(rot, k);
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int nr = r + dr;
+                    int nc = c + dc;
+                    if (dr == 0 && dc == 0 || dr != 0 && dc != 0 && curseBonus[d] == 0
+                            || nr < 0 || nc < 0 || nr >= rows || nc >= cols) {
+                        continue;
+                    }
+                    int j = owner[nr * cols + nc];
+                    if (dr != 0 && dc != 0) {
+                        curse |= j == CURSE;
+                    } else if (j >= 0 && seen[j] != stamp) {
+                        seen[j] = stamp;
+                        gain += ortho[d][j];
+                    }
+                }
+            }
+        }
+        return curse ? gain + curseBonus[d] : gain;
+    }
+
+    private Result toResult() {
+        ArrayList<Placement> placements = new ArrayList<>();
+        ArrayList<Item> leftOut = new ArrayList<>(ignored);
+        for (int d = 0; d < n; d++) {
+            int key = bestKeys[d];
+            if (key < 0) {
+                leftOut.add(items[d]);
+                continue;
+            }
+            placements.add(new Placement(items[d], BackPack.packedRow(key), BackPack.packedCol(key),
+                    BackPack.packedRotation(key)));
+        }
+        return new Result(List.copyOf(placements), List.copyOf(leftOut), (int) (best % scale),
+                !timedOut && !packMissed);
+    }
+
+    /* =========================
+       Helpers
+       ========================= */
+
+    private boolean identical(int a, int b) {
+        return mandatory[a] == mandatory[b]
+                && items[a].getClass() == items[b].getClass()
+                && items[a].name().equals(items[b].name())
+                && items[a].shape() == items[b].shape();
+    }
+
+    // Cells sharing an edge with a shape, outside of it
+    private static int border(Shape shape) {
+        ArrayList<Point> around = new ArrayList<>();
+        List<Point> cells = shape.points(0);
+        for (Point p : cells) {
+            for (Point q : List.of(new Point(p.x - 1, p.y), new Point(p.x + 1, p.y), new Point(p.x, p.y - 1),
+                    new Point(p.x, p.y + 1))) {
+                if (!cells.contains(q) && !around.contains(q)) {
+                    around.add(q);
+                }
+            }
+        }
+        return around.size();
+    }
+
+    // Bonus the auras of item a give to item b when they share an edge
+    private static int bonusOn(Item a, Item b) {
+        int bonus = 0;
+        EffectTable table = a.effectTable();
+        for (int k = 0; k < table.count(Trigger.AURA); k++) {
+            bonus += ((Aura) table.effect(Trigger.AURA, k)).bonusTo(a, b, BackPack.ORTHOGONAL);
+        }
+        return bonus;
+    }
+
+    // Bonus the auras of an item give it when a curse touches it by a corner
+    private static int curseBonusOf(Item item, Item curse) {
+        int bonus = 0;
+        EffectTable table = item.effectTable();
+        for (int k = 0; k < table.count(Trigger.AURA); k++) {
+            bonus += ((Aura) table.effect(Trigger.AURA, k)).bonusFrom(item, curse, BackPack.DIAGONAL);
+        }
+        return bonus;
+    }
+}
@@ -2,83 +2,780 @@ package model;
 
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 
+import Items.Armor;
+import Items.EffectTable;
 import Items.Gold;
 import Items.Item;
+import Items.Shape;
+import Items.Shield;
+import Items.Trigger;
+import Items.Weapon;
+import effects.Aura;
 import ui.ItemGraphique;
 
 public class BackPack {
+    // Default number of rows and columns of the grid
+    public static final int DEFAULT_ROWS = 5;
+    public static final int DEFAULT_COLS = 7;
+    // Largest number of rows or columns: one row of cells fits in a long
+    public static final int MAX_SIZE = Long.SIZE;
+
+    /** Neighbour kind: items sharing an edge */
+    public static final int ORTHOGONAL = 1;
+    /** Neighbour kind: items touching by a corner */
+    public static final int DIAGONAL = 2;
+
+    // Row and column offsets of the 8 neighbours of a cell, orthogonal ones first
+    private static final int[] DR = { -1, 1, 0, 0, -1, -1, 1, 1 };
+    private static final int[] DC = { 0, 0, -1, 1, -1, 1, -1, 1 };
+
+    private final int rows;
+    private final int cols;
     // Grid representing items, each cell can hold one item reference or null
     private Item[][] grille;
     // Boolean grid marking accessible cells (true = accessible)
     private boolean[][] openGrid;
-    // Map storing each item and the list of points (cells) it occupies
-    private HashMap<Item, ArrayList<Point>> items;
+    // One bitboard per row (bit c = column c) of accessible cells, kept in sync
+    // with openGrid, and of cells holding an item, kept in sync with grille
+    private final long[] openRows;
+    private final long[] occupiedRows;
+    // Expansion frontier: locked cells sharing an edge with an accessible one,
+    // one bitboard per row, updated whenever a cell is unlocked
+    private final long[] frontierRows;
+    private int frontierCount;
+    // Bits of the columns of one row
+    private final long fullRow;
+    // Slot of the item covering each cell (index row * cols + col), -1 if empty
+    private final int[] cellSlot;
+    // Items by slot, with the anchor and rotation they were placed with
+    private final Item[] slotItems;
+    private final int[] slotRow;
+    private final int[] slotCol;
+    private final int[] slotRotation;
+    // Bit i of word i / 64 set when slot i holds an item
+    private final long[] usedSlots;
+    private int itemCount;
+    // Slot of each placed item, by identity
+    private final IdentityHashMap<Item, Integer> slotIndex = new IdentityHashMap<>();
+    // Gold ledger: gold stacks in placement order, the first one being the
+    // canonical stack that merges and payments go to
+    private final ArrayList<Gold> goldStacks = new ArrayList<>(1);
+    // Adjacency graph between slots, updated on placement and removal: the first
+    // degree[i] entries of neighbours[i] are (other slot << 2 | neighbour kinds)
+    private final int[][] neighbours;
+    private final int[] degree;
+    // Slots whose aura bonuses must be recomputed, same layout as usedSlots:
+    // set on the item and its neighbours whenever the adjacency changes
+    private final long[] dirtySlots;
+    // Zobrist hash of the items and their anchors and rotations, updated on
+    // placement and removal
+    private long layoutHash;
 
     public BackPack() {
-        grille = new Item[5][7];
-        openGrid = new boolean[5][7];
+        this(DEFAULT_ROWS, DEFAULT_COLS);
+    }
+
+    /**
+     * Creates an empty backpack of the given size, with a 3x3 block of
+     * accessible cells in the middle.
+     *
+     * @param rows number of rows, from 1 to MAX_SIZE
+     * @param cols number of columns, from 1 to MAX_SIZE
+     */
+    public BackPack(int rows, int cols) {
+        if (rows < 1 || cols < 1 || rows > MAX_SIZE || cols > MAX_SIZE) {
+            throw new IllegalArgumentException("invalid backpack size " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        grille = new Item[rows][cols];
+        openGrid = new boolean[rows][cols];
+        openRows = new long[rows];
+        occupiedRows = new long[rows];
+        frontierRows = new long[rows];
+        fullRow = cols == Long.SIZE ? -1L : (1L << cols) - 1;
 
         // Initialize accessible cells (3x3 block in the middle)
-        for (int i = 1; i <= 3; i++) {
-            for (int j = 2; j <= 4; j++) {
-                openGrid[i][j] = true;
+        int top = Math.max(0, (rows - 3) / 2);
+        int left = Math.max(0, (cols - 3) / 2);
+        for (int i = top; i < Math.min(rows, top + 3); i++) {
+            for (int j = left; j < Math.min(cols, left + 3); j++) {
+                openCell(i, j);
             }
         }
 
-        items = new HashMap<>();
+        int capacity = rows * cols;
+        cellSlot = new int[capacity];
+        Arrays.fill(cellSlot, -1);
+        slotItems = new Item[capacity];
+        slotRow = new int[capacity];
+        slotCol = new int[capacity];
+        slotRotation = new int[capacity];
+        usedSlots = new long[(capacity + Long.SIZE - 1) / Long.SIZE];
+        dirtySlots = new long[usedSlots.length];
+        neighbours = new int[capacity][];
+        degree = new int[capacity];
     }
 
-    // Returns the Gold item in the backpack, or null if none
-    public Gold getGold() {
-        for (var item : items.keySet()) {
-            if (item instanceof Gold gold) {
-                return gold;
+    /** @return Number of rows of the grid */
+    public int rows() {
+        return rows;
+    }
+
+    /** @return Number of columns of the grid */
+    public int cols() {
+        return cols;
+    }
+
+    // true if the shape, in the given rotation, lies inside the grid at (row, col)
+    private boolean inBounds(Shape shape, int rotation, int row, int col) {
+        return row >= 0 && col >= 0 && row + shape.height(rotation) <= rows
+                && col + shape.width(rotation) <= cols;
+    }
+
+    // true if every cell of the shape at (row, col) is inside, accessible and free
+    private boolean fits(Shape shape, int rotation, int row, int col) {
+        if (!inBounds(shape, rotation, row, col)) {
+            return false;
+        }
+        for (int i = 0; i < shape.height(rotation); i++) {
+            long m = shape.rowMask(rotation, i) << col;
+            if ((m & ~openRows[row + i]) != 0L || (m & occupiedRows[row + i]) != 0L) {
+                return false;
             }
         }
-        return null;
+        return true;
     }
 
-    // Getter for the map of items and their occupied cells
-    public HashMap<Item, ArrayList<Point>> getItems() {
-        return items;
+    private void openCell(int row, int col) {
+        openGrid[row][col] = true;
+        openRows[row] |= 1L << col;
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            refreshFrontier(r);
+        }
     }
 
-    // Getter for the item grid
-    public Item[][] getGrille() {
-        return grille;
+    // Recomputes the frontier cells of a row from the accessible cells around it
+    private void refreshFrontier(int row) {
+        long around = (openRows[row] << 1) | (openRows[row] >>> 1);
+        if (row > 0) {
+            around |= openRows[row - 1];
+        }
+        if (row + 1 < rows) {
+            around |= openRows[row + 1];
+        }
+        long frontier = around & ~openRows[row] & fullRow;
+        frontierCount += Long.bitCount(frontier) - Long.bitCount(frontierRows[row]);
+        frontierRows[row] = frontier;
     }
 
-    // Getter for accessible cells grid
-    public boolean[][] getOpenGrid() {
-        return openGrid;
+    // Writes the item on every cell of its shape and gives it a free slot
+    private void occupy(Item item, int rotation, int row, int col) {
+        int slot = freeSlot();
+        usedSlots[slot >>> 6] |= 1L << slot;
+        itemCount++;
+        slotItems[slot] = item;
+        slotRow[slot] = row;
+        slotCol[slot] = col;
+        slotRotation[slot] = rotation;
+        slotIndex.put(item, slot);
+        if (item instanceof Gold gold) {
+            goldStacks.add(gold);
+        }
+
+        Shape shape = item.shape();
+        for (int i = 0; i < shape.height(rotation); i++) {
+            occupiedRows[row + i] |= shape.rowMask(rotation, i) << col;
+        }
+        for (int k = 0; k < shape.size(); k++) {
+            int r = row + shape.dy(rotation, k);
+            int c = col + shape.dx(rotation, k);
+            cellSlot[r * cols + c] = slot;
+            grille[r][c] = item;
+        }
+        link(slot);
+        markDirty(slot);
+        layoutHash ^= layoutKey(slot);
     }
 
-    private boolean check_boundaries(List<Point> s, int row, int col) {
-        Objects.requireNonNull(s);
-        // Check boundaries and availability for all points the item will occupy
-        for (Point p : s) {
-            int r = row + p.y;
-            int c = col + p.x;
+    // Marks a slot and all its neighbours for stat recomputation
+    private void markDirty(int slot) {
+        dirtySlots[slot >>> 6] |= 1L << slot;
+        for (int i = 0; i < degree[slot]; i++) {
+            int other = neighbours[slot][i] >>> 2;
+            dirtySlots[other >>> 6] |= 1L << other;
+        }
+    }
 
-            if (r < 0 || c < 0 || r >= openGrid.length || c >= openGrid[0].length) {
-                return false;
+    // Recomputes the stats of every dirty item: its base value plus the bonuses
+    // of the auras around it and of its own
+    private void flushStats() {
+        for (int w = 0; w < dirtySlots.length; w++) {
+            long bits = dirtySlots[w] & usedSlots[w];
+            dirtySlots[w] = 0L;
+            while (bits != 0L) {
+                int slot = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                refreshStats(slot);
+            }
+        }
+    }
+
+    private void refreshStats(int slot) {
+        Item item = slotItems[slot];
+        if (!(item instanceof Weapon) && !(item instanceof Armor)) {
+            return;
+        }
+        int bonus = 0;
+        for (int i = 0; i < degree[slot]; i++) {
+            int entry = neighbours[slot][i];
+            Item source = slotItems[entry >>> 2];
+            EffectTable table = source.effectTable();
+            for (int k = 0; k < table.count(Trigger.AURA); k++) {
+                bonus += ((Aura) table.effect(Trigger.AURA, k)).bonusTo(source, item, entry & 3);
             }
+        }
+        EffectTable own = item.effectTable();
+        for (int k = 0; k < own.count(Trigger.AURA); k++) {
+            bonus += ((Aura) own.effect(Trigger.AURA, k)).ownBonus(this, slot);
+        }
+        item.baseShape();
+        if (item instanceof Weapon weapon) {
+            weapon.setAttack(bonus);
+        } else {
+            Armor armor = (Armor) item;
+            armor.setProtection(armor.protectionValue() + bonus);
+        }
+    }
 
-            if (!openGrid[r][c] || grille[r][c] != null) {
-                return false;
+    // Keys of the item of a slot, indexed by its anchor cell so that the same
+    // layout hashes the same whatever the order the items were placed in
+    private long layoutKey(int slot) {
+        int cell = slotRow[slot] * cols + slotCol[slot];
+        return Zobrist.key(Zobrist.ITEM, cell, slotItems[slot].name().hashCode())
+                ^ Zobrist.key(Zobrist.ITEM_PLACE, cell, slotRotation[slot]);
+    }
+
+    /**
+     * Zobrist hash of the backpack in a fight: items, anchors and rotations,
+     * attack or protection of each item and the counters of its effects.
+     * <p>
+     * The layout part is kept up to date on placement and removal; stats and
+     * counters change inside the items, so they are folded in here, one key
+     * per item.
+     * </p>
+     *
+     * @return the hash
+     */
+    public long hash() {
+        long h = layoutHash;
+        for (int w = 0; w < usedSlots.length; w++) {
+            for (long bits = usedSlots[w]; bits != 0L; bits &= bits - 1) {
+                int slot = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                int cell = slotRow[slot] * cols + slotCol[slot];
+                Item item = slotItems[slot];
+                if (item instanceof Weapon weapon) {
+                    h ^= Zobrist.key(Zobrist.ITEM_STAT, cell, weapon.damage());
+                } else if (item instanceof Armor armor) {
+                    h ^= Zobrist.key(Zobrist.ITEM_STAT, cell, armor.protectionValue());
+                } else if (item instanceof Shield shield) {
+                    h ^= Zobrist.key(Zobrist.ITEM_STAT, cell, shield.protectionValue());
+                }
+                EffectTable table = item.effectTable();
+                for (int k = 0; k < table.stateSize(); k++) {
+                    h ^= Zobrist.key(Zobrist.ITEM_USES, cell << 8 | k, table.state(k));
+                }
+            }
+        }
+        return h;
+    }
+
+    // Lowest free slot
+    private int freeSlot() {
+        for (int w = 0; w < usedSlots.length; w++) {
+            if (usedSlots[w] != -1L) {
+                return w * Long.SIZE + Long.numberOfTrailingZeros(~usedSlots[w]);
+            }
+        }
+        throw new IllegalStateException("backpack is full");
+    }
+
+    // Connects a newly occupied slot with the items around it
+    private void link(int slot) {
+        degree[slot] = 0;
+        Shape shape = slotItems[slot].shape();
+        int rotation = slotRotation[slot];
+        for (int k = 0; k < shape.size(); k++) {
+            int r = slotRow[slot] + shape.dy(rotation, k);
+            int c = slotCol[slot] + shape.dx(rotation, k);
+            for (int d = 0; d < DR.length; d++) {
+                int nr = r + DR[d];
+                int nc = c + DC[d];
+                if (nr < 0 || nc < 0 || nr >= rows || nc >= cols) {
+                    continue;
+                }
+                int other = cellSlot[nr * cols + nc];
+                if (other >= 0 && other != slot) {
+                    int kind = d < 4 ? ORTHOGONAL : DIAGONAL;
+                    addNeighbour(slot, other, kind);
+                    addNeighbour(other, slot, kind);
+                }
+            }
+        }
+    }
+
+    // Records other as a neighbour of slot, merging the kinds if already known
+    private void addNeighbour(int slot, int other, int kind) {
+        int[] list = neighbours[slot];
+        for (int i = 0; i < degree[slot]; i++) {
+            if (list[i] >>> 2 == other) {
+                list[i] |= kind;
+                return;
+            }
+        }
+        if (list == null || degree[slot] == list.length) {
+            list = list == null ? new int[4] : Arrays.copyOf(list, list.length * 2);
+            neighbours[slot] = list;
+        }
+        list[degree[slot]++] = other << 2 | kind;
+    }
+
+    // Disconnects a slot from all its neighbours
+    private void unlink(int slot) {
+        for (int i = 0; i < degree[slot]; i++) {
+            int other = neighbours[slot][i] >>> 2;
+            int[] list = neighbours[other];
+            for (int j = 0; j < degree[other]; j++) {
+                if (list[j] >>> 2 == slot) {
+                    list[j] = list[--degree[other]];
+                    break;
+                }
+            }
+        }
+        degree[slot] = 0;
+    }
+
+    // Frees every cell of the item held in the given slot
+    private void release(int slot) {
+        Item item = slotItems[slot];
+        Shape shape = item.shape();
+        int rotation = slotRotation[slot];
+        int row = slotRow[slot];
+        int col = slotCol[slot];
+        for (int i = 0; i < shape.height(rotation); i++) {
+            occupiedRows[row + i] &= ~(shape.rowMask(rotation, i) << col);
+        }
+        for (int k = 0; k < shape.size(); k++) {
+            int r = row + shape.dy(rotation, k);
+            int c = col + shape.dx(rotation, k);
+            cellSlot[r * cols + c] = -1;
+            grille[r][c] = null;
+        }
+        layoutHash ^= layoutKey(slot);
+        markDirty(slot);
+        unlink(slot);
+        usedSlots[slot >>> 6] &= ~(1L << slot);
+        dirtySlots[slot >>> 6] &= ~(1L << slot);
+        // Out of the backpack, the item loses the bonuses of its neighbours
+        item.baseShape();
+        itemCount--;
+        slotItems[slot] = null;
+        slotIndex.remove(item);
+        if (item instanceof Gold) {
+            goldStacks.remove(item);
+        }
+    }
+
+    /**
+     * @param item the item to look for
+     * @return the slot holding this exact item, or -1 if it is not in the
+     *         backpack
+     */
+    public int slotOf(Item item) {
+        Integer slot = slotIndex.get(item);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Iterates the items in a stable order, unlike getItems: for (int s =
+     * nextSlot(0); s >= 0; s = nextSlot(s + 1)).
+     *
+     * @param from first slot to look at
+     * @return the first used slot at or after from, -1 if none
+     */
+    public int nextSlot(int from) {
+        int w = from >>> 6;
+        if (w >= usedSlots.length) {
+            return -1;
+        }
+        long word = usedSlots[w] & (-1L << from);
+        while (word == 0L) {
+            if (++w == usedSlots.length) {
+                return -1;
             }
+            word = usedSlots[w];
+        }
+        return w * Long.SIZE + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @param item the item to look for
+     * @return true if this item is placed in the backpack
+     */
+    public boolean contains(Item item) {
+        Objects.requireNonNull(item);
+        return slotOf(item) >= 0;
+    }
+
+    /** @return number of items placed in the backpack */
+    public int itemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Checks whether an item fits at (row, col) without modifying the backpack.
+     *
+     * @param item the item to test
+     * @param row  anchor row
+     * @param col  anchor column
+     * @return true if all the cells are inside, accessible and free
+     */
+    public boolean fits(Item item, int row, int col) {
+        Objects.requireNonNull(item);
+        return fits(item.shape(), item.rotation(), row, col);
+    }
+
+    /**
+     * Places an item at (row, col) if it fits. Model-only counterpart of
+     * placeItem, without any graphical bookkeeping.
+     *
+     * @param item the item to place
+     * @param row  anchor row
+     * @param col  anchor column
+     * @return true if the item was placed
+     */
+    public boolean place(Item item, int row, int col) {
+        Objects.requireNonNull(item);
+        return place(item, row, col, item.rotation());
+    }
+
+    /**
+     * Places an item at (row, col) in the given rotation if it fits. The item
+     * is only rotated when the placement succeeds.
+     *
+     * @param item     the item to place
+     * @param row      anchor row
+     * @param col      anchor column
+     * @param rotation rotation index, taken modulo 4
+     * @return true if the item was placed
+     */
+    public boolean place(Item item, int row, int col, int rotation) {
+        Objects.requireNonNull(item);
+        rotation &= 3;
+        if (contains(item) || !fits(item.shape(), rotation, row, col)) {
+            return false;
         }
+        item.setRotation(rotation);
+        occupy(item, rotation, row, col);
+        flushStats();
         return true;
     }
 
+    /**
+     * Computes every anchor where an item fits in the given rotation, without
+     * rotating the item or modifying the backpack. Gold merging is not taken
+     * into account: this is the geometric answer only.
+     *
+     * @param item     the item to test
+     * @param rotation rotation index, taken modulo 4
+     * @param out      array of at least rows() longs: bit c of out[r] is set when
+     *                 the item fits at (r, c)
+     * @return the number of legal anchors
+     */
+    public int legalAnchors(Item item, int rotation, long[] out) {
+        Objects.requireNonNull(item);
+        Objects.requireNonNull(out);
+        if (out.length < rows) {
+            throw new IllegalArgumentException("out must hold " + rows + " rows");
+        }
+        Shape shape = item.shape();
+        Arrays.fill(out, 0, rows, 0L);
+        if (shape.height(rotation) > rows || shape.width(rotation) > cols) {
+            return 0;
+        }
+        int count = 0;
+        long first = firstAnchors(shape, rotation, cols);
+        for (int r = 0; r + shape.height(rotation) <= rows; r++) {
+            // Cell (dy, dx) of anchor column c is bit c + dx of row r + dy
+            long a = first;
+            for (int k = 0; k < shape.size() && a != 0L; k++) {
+                int fr = r + shape.dy(rotation, k);
+                a &= (openRows[fr] & ~occupiedRows[fr]) >>> shape.dx(rotation, k);
+            }
+            out[r] = a;
+            count += Long.bitCount(a);
+        }
+        return count;
+    }
+
+    // Same as legalAnchors, against explicit free rows
+    static int anchors(Shape shape, int rotation, long[] free, int rows, int cols, long[] out) {
+        Arrays.fill(out, 0, rows, 0L);
+        if (shape.height(rotation) > rows || shape.width(rotation) > cols) {
+            return 0;
+        }
+        int count = 0;
+        long first = firstAnchors(shape, rotation, cols);
+        for (int r = 0; r + shape.height(rotation) <= rows; r++) {
+            long a = first;
+            for (int k = 0; k < shape.size() && a != 0L; k++) {
+                a &= free[r + shape.dy(rotation, k)] >>> shape.dx(rotation, k);
+            }
+            out[r] = a;
+            count += Long.bitCount(a);
+        }
+        return count;
+    }
+
+    // Anchor columns keeping the bounding box of the shape inside the grid
+    private static long firstAnchors(Shape shape, int rotation, int cols) {
+        int n = cols - shape.width(rotation) + 1;
+        return n == Long.SIZE ? -1L : (1L << n) - 1;
+    }
+
+    /**
+     * Computes the legal anchors of an item for each of its rotations.
+     *
+     * @param item the item to test
+     * @param out  array of at least Shape.ROTATIONS * rows() longs: out[rotation *
+     *             rows() + r] is filled like legalAnchors fills out[r]
+     * @return the total number of legal (row, col, rotation) placements
+     */
+    public int legalPlacements(Item item, long[] out) {
+        Objects.requireNonNull(item);
+        Objects.requireNonNull(out);
+        if (out.length < Shape.ROTATIONS * rows) {
+            throw new IllegalArgumentException("out must hold " + Shape.ROTATIONS * rows + " rows");
+        }
+        long[] row = new long[rows];
+        int count = 0;
+        for (int r = 0; r < Shape.ROTATIONS; r++) {
+            count += legalAnchors(item, r, row);
+            System.arraycopy(row, 0, out, r * rows, rows);
+        }
+        return count;
+    }
+
+    // Packs a placement in an int: rotation, then row, then column, 8 bits each,
+    // so that packed placements compare like (rotation, row, col)
+    static int pack(int rotation, int row, int col) {
+        return rotation << 16 | row << 8 | col;
+    }
+
+    static int packedRotation(int placement) {
+        return placement >>> 16;
+    }
+
+    static int packedRow(int placement) {
+        return (placement >>> 8) & 0xFF;
+    }
+
+    static int packedCol(int placement) {
+        return placement & 0xFF;
+    }
+
+    // Packed placement of the item held in a slot
+    int placementOf(int slot) {
+        return pack(slotRotation[slot], slotRow[slot], slotCol[slot]);
+    }
+
+    /**
+     * Immutable copy of the layout of a backpack: unlocked cells, where each
+     * item lies and in which rotation, and the value of the gold stacks. Items
+     * are shared, not cloned, so a snapshot only costs a few small arrays.
+     */
+    public static final class Snapshot {
+        private final long[] openRows;
+        private final Item[] items;
+        // Packed placement of each item
+        private final int[] placements;
+        // Gold stacks in ledger order, and their values
+        private final Gold[] golds;
+        private final int[] goldValues;
+
+        private Snapshot(long[] openRows, Item[] items, int[] placements, Gold[] golds, int[] goldValues) {
+            this.openRows = openRows;
+            this.items = items;
+            this.placements = placements;
+            this.golds = golds;
+            this.goldValues = goldValues;
+        }
+
+        /** @return Number of items in the snapshot */
+        public int itemCount() {
+            return items.length;
+        }
+
+        /**
+         * @param item the item to look for
+         * @return true if the item was in the backpack when the snapshot was taken
+         */
+        public boolean contains(Item item) {
+            for (Item i : items) {
+                if (i == item) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Takes an immutable snapshot of the current layout, to be restored later.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        Item[] items = new Item[itemCount];
+        int[] placements = new int[itemCount];
+        int i = 0;
+        for (int slot = nextSlot(0); slot >= 0; slot = nextSlot(slot + 1)) {
+            items[i] = slotItems[slot];
+            placements[i] = placementOf(slot);
+            i++;
+        }
+        Gold[] golds = goldStacks.toArray(new Gold[0]);
+        int[] goldValues = new int[golds.length];
+        for (int g = 0; g < golds.length; g++) {
+            goldValues[g] = golds[g].goldValue();
+        }
+        return new Snapshot(openRows.clone(), items, placements, golds, goldValues);
+    }
+
+    /**
+     * Puts the backpack back in the state of a snapshot: unlocked cells, items
+     * and their rotations, gold values. Items placed since then are removed.
+     *
+     * @param snapshot a snapshot of this backpack
+     */
+    public void restore(Snapshot snapshot) {
+        Objects.requireNonNull(snapshot);
+        if (snapshot.openRows.length != rows) {
+            throw new IllegalArgumentException("snapshot of a backpack of another size");
+        }
+        for (int slot = nextSlot(0); slot >= 0; slot = nextSlot(slot + 1)) {
+            release(slot);
+        }
+        System.arraycopy(snapshot.openRows, 0, openRows, 0, rows);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                openGrid[r][c] = (openRows[r] & (1L << c)) != 0L;
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            refreshFrontier(r);
+        }
+        for (int i = 0; i < snapshot.items.length; i++) {
+            Item item = snapshot.items[i];
+            int p = snapshot.placements[i];
+            item.setRotation(packedRotation(p));
+            occupy(item, packedRotation(p), packedRow(p), packedCol(p));
+        }
+        goldStacks.clear();
+        for (int g = 0; g < snapshot.golds.length; g++) {
+            snapshot.golds[g].setGoldValue(snapshot.goldValues[g]);
+            goldStacks.add(snapshot.golds[g]);
+        }
+        flushStats();
+    }
+
+    // Returns the canonical Gold stack of the backpack, or null if none
+    public Gold getGold() {
+        return goldStacks.isEmpty() ? null : goldStacks.get(0);
+    }
+
+    /**
+     * @return value of the canonical Gold stack, the only one purchases take
+     *         gold from
+     */
+    public int spendableGold() {
+        Gold gold = getGold();
+        return gold == null ? 0 : gold.goldValue();
+    }
+
+    /** @return total value of the gold stacks in the backpack */
+    public int goldTotal() {
+        int total = 0;
+        for (Gold gold : goldStacks) {
+            total += gold.goldValue();
+        }
+        return total;
+    }
+
+    /**
+     * @return the (x = row, y = col) cell of the canonical Gold stack, or null if
+     *         there is no gold
+     */
+    public Point goldPosition() {
+        Gold gold = getGold();
+        return gold == null ? null : positionOf(gold);
+    }
+
+    /**
+     * @param item the item to look for
+     * @return the (x = row, y = col) cell of the item closest to the top-left
+     *         corner, row first, or null if it is not in the backpack
+     */
+    public Point positionOf(Item item) {
+        int slot = slotOf(item);
+        if (slot < 0) {
+            return null;
+        }
+        Shape shape = item.shape();
+        int rotation = slotRotation[slot];
+        int best = Integer.MAX_VALUE;
+        for (int k = 0; k < shape.size(); k++) {
+            best = Math.min(best, shape.dy(rotation, k) * Shape.STRIDE + shape.dx(rotation, k));
+        }
+        return new Point(slotRow[slot] + best / Shape.STRIDE, slotCol[slot] + best % Shape.STRIDE);
+    }
+
+    /**
+     * Builds a map of each item and the (row, col) cells it occupies.
+     * The map is a fresh copy: use contains, getItemAtPoint or removeItem on hot
+     * paths instead.
+     */
+    public HashMap<Item, ArrayList<Point>> getItems() {
+        HashMap<Item, ArrayList<Point>> items = new HashMap<>();
+        for (int slot = nextSlot(0); slot >= 0; slot = nextSlot(slot + 1)) {
+            Shape shape = slotItems[slot].shape();
+            int rotation = slotRotation[slot];
+            ArrayList<Point> cases = new ArrayList<>(shape.size());
+            for (int k = 0; k < shape.size(); k++) {
+                cases.add(new Point(slotRow[slot] + shape.dy(rotation, k), slotCol[slot] + shape.dx(rotation, k)));
+            }
+            items.put(slotItems[slot], cases);
+        }
+        return items;
+    }
+
+    // Getter for the item grid
+    public Item[][] getGrille() {
+        return grille;
+    }
+
+    // Getter for accessible cells grid
+    public boolean[][] getOpenGrid() {
+        return openGrid;
+    }
+
     // Attempt to place an item at (row, col) if all occupied cells are free and
     // accessible
     public boolean placeItem(Item item, int row, int col, HashMap<ItemGraphique, Item> itemsGraphique,
@@ -89,16 +786,10 @@ public class BackPack {
         Objects.requireNonNull(itemDeparts);
         Objects.requireNonNull(dragging);
 
-        var shape = item.occupiedCases();
-        if (item instanceof Gold && Gold.hasGold(this)) {
-            Point coordinate = Gold.getGold(this);
-            if (coordinate == null) {
-                return false;
-            }
-            Gold existingGold = (Gold) grille[coordinate.x][coordinate.y];
+        Gold existingGold = getGold();
+        if (item instanceof Gold && existingGold != null) {
 
             // Supprimer l'item déplacé (celui qu'on veut fusionner)
-            items.remove(item);
             itemsGraphique.remove(dragging, item);
 
             // Trouver l'objet graphique correspondant à l'or existant
@@ -116,33 +807,15 @@ public class BackPack {
             // Mettre à jour la map graphique pour refléter la modification si besoin
             optGraphicItem.ifPresent(graphicItem -> itemsGraphique.put(graphicItem, existingGold));
 
-            row = coordinate.x;
-            col = coordinate.y;
-
             // Pas besoin de supprimer ou ajouter un nouvel objet Gold, on modifie
-            // l'existant
-
-        } else {
-            if (!check_boundaries(shape, row, col)) {
-                return false;
-            }
-            itemDeparts.remove(dragging);
+            // l'existant : le tas déplacé est absorbé et n'occupe aucune case
+            return true;
         }
 
-        // Mark all occupied cells as taken by this item and no longer accessible
-        ArrayList<Point> realPoints = new ArrayList<>();
-        for (Point p : shape) {
-            int r = row + p.y;
-            int c = col + p.x;
-
-            grille[r][c] = item;
-            // openGrid[r][c] = false;
-            realPoints.add(new Point(r, c));
+        if (!place(item, row, col)) {
+            return false;
         }
-
-        // Store item and its occupied points in the map
-        items.put(item, realPoints);
-
+        itemDeparts.remove(dragging);
         return true;
     }
 
@@ -153,74 +826,27 @@ public class BackPack {
      */
     public boolean forcePlaceItem(Item item, int row, int col) {
         Objects.requireNonNull(item);
-        ArrayList<Point> shape = item.occupiedCases();
-
-        // 1. Check if the placement is within valid grid boundaries (ignoring openGrid
-        // for now if we assume curses can land anywhere valid,
-        // OR we strictly respect openGrid. User said "choisi une case", presumably an
-        // unlocked one.
-        // Let's assume we respect grid boundaries and unlocked status.)
-        for (Point p : shape) {
-            int r = row + p.y;
-            int c = col + p.x;
-            if (r < 0 || c < 0 || r >= openGrid.length || c >= openGrid[0].length) {
-                return false; // Out of bounds
-            }
-            if (!openGrid[r][c]) {
-                // Determine if we want to allow curses on locked slots.
-                // Usually not, as they aren't "in the bag". Return false for now.
-                return false;
-            }
-        }
+        Shape shape = item.shape();
+        int rotation = item.rotation();
 
-        // 2. Identify and Remove items in the way
-        // We might encounter multiple items or the same item multiple times. Use a Set
-        // to avoid double removal.
-        HashSet<Item> itemsToRemove = new HashSet<>();
-        for (Point p : shape) {
-            int r = row + p.y;
-            int c = col + p.x;
-            Item existing = grille[r][c];
-            if (existing != null) {
-                itemsToRemove.add(existing);
-            }
+        // Curses must land inside the grid, on unlocked cells only
+        if (contains(item) || !inBounds(shape, rotation, row, col)) {
+            return false;
         }
-
-        for (Item toRemove : itemsToRemove) {
-            // Need the top-left coordinate of the item to call removeItem properly?
-            // Actually removeItem(r, c) works by finding the item at that point.
-            // But since we have the item object, we can just remove it directly from
-            // maps/grid.
-            // Re-using removeItem might be safer if we can find a point it occupies.
-            ArrayList<Point> pts = items.get(toRemove);
-            if (pts != null && !pts.isEmpty()) {
-                Point firstPt = pts.get(0);
-                removeItem(firstPt.x, firstPt.y); // This clears the grid for ALL points of that item
+        for (int i = 0; i < shape.height(rotation); i++) {
+            if (((shape.rowMask(rotation, i) << col) & ~openRows[row + i]) != 0L) {
+                return false;
             }
         }
 
-        // 3. Place the new item
-        // We can just call placeItem now since the space should be free.
-        // However, placeItem might require `itemsGraphique` which we don't have here.
-        // Wait, placeItem method signature in this file is:
-        // placeItem(Item item, int row, int col, HashMap<ItemGraphique, Item>
-        // itemsGraphique, ArrayList<ItemGraphique> itemDeparts, ItemGraphique dragging,
-        // boolean addGold)
-        // That is very coupled to the UI. We need a simpler internal place logic or we
-        // need to pass nulls if safe.
-        // But looking at existing methods, `grille` and `items` are updated.
-        // Let's implement the core logic here directly to avoid UI dependency issues in
-        // the Model.
-
-        ArrayList<Point> realPoints = new ArrayList<>();
-        for (Point p : shape) {
-            int r = row + p.y;
-            int c = col + p.x;
-            grille[r][c] = item;
-            realPoints.add(new Point(r, c));
+        // Remove every item in the way; removeItem frees all the cells of an item,
+        // so each overlapping item is removed once
+        for (int k = 0; k < shape.size(); k++) {
+            removeItem(row + shape.dy(rotation, k), col + shape.dx(rotation, k));
         }
-        items.put(item, realPoints);
 
+        occupy(item, rotation, row, col);
+        flushStats();
         return true;
     }
 
@@ -228,65 +854,59 @@ public class BackPack {
     // mapping
     @Override
     public String toString() {
-        return "BackPack{items=" + items.size() + "}";
+        return "BackPack{" + rows + "x" + cols + ", items=" + itemCount() + "}";
     }
 
-    // Get the item located at a specific cell (x,y)
-    public Item getItemAtPoint(int x, int y) {
-        Point p = new Point(x, y);
-
-        for (Map.Entry<Item, ArrayList<Point>> entry : items.entrySet()) {
-            if (entry.getValue().contains(p)) {
-                return entry.getKey();
-            }
+    // Slot of the item at cell (row, col), -1 if empty or outside the grid
+    private int slotAt(int row, int col) {
+        if (!isInside(row, col)) {
+            return -1;
         }
+        return cellSlot[row * cols + col];
+    }
 
-        // No item at this position
-        return null;
+    // Get the item located at a specific cell (x = row, y = col)
+    public Item getItemAtPoint(int x, int y) {
+        int slot = slotAt(x, y);
+        return slot < 0 ? null : slotItems[slot];
     }
 
     // Remove an item by clicking on any of its occupied cells (row, col)
     public boolean removeItem(int row, int col) {
-        // Find the item at the clicked position
-        Item item = getItemAtPoint(row, col);
-        if (item == null) {
+        int slot = slotAt(row, col);
+        if (slot < 0) {
             return false;
         }
+        release(slot);
+        flushStats();
+        return true;
+    }
 
-        // Get all cells occupied by this item
-        ArrayList<Point> cases = items.get(item);
-        if (cases == null) {
+    /**
+     * Removes the given item from the backpack, wherever it is placed.
+     *
+     * @param item the item to remove
+     * @return true if the item was in the backpack
+     */
+    public boolean removeItem(Item item) {
+        Objects.requireNonNull(item);
+        int slot = slotOf(item);
+        if (slot < 0) {
             return false;
         }
-
-        // Free all cells occupied by the item
-        for (Point p : cases) {
-            grille[p.x][p.y] = null;
-            openGrid[p.x][p.y] = true;
-        }
-
-        // Remove the item from the map
-        items.remove(item);
-
+        release(slot);
+        flushStats();
         return true;
     }
 
-    // Check if any item occupies the point (x,y)
-    private boolean containPointItems(int x, int y) {
-        return items.values().stream().anyMatch(t -> t.contains(new Point(x, y)));
-    }
-
-    // Check if item with occupied shape can be placed at (x,y)
+    // Check if item with occupied shape can be placed at (x,y), the points
+    // being offsets (x = row, y = col) like x and y
     public boolean canPlace(ArrayList<Point> lst, int x, int y) {
+        Objects.requireNonNull(lst);
         for (Point p : lst) {
             int r = x + p.x;
             int c = y + p.y;
-
-            if (r < 0 || r >= openGrid.length || c < 0 || c >= openGrid[0].length) {
-                return false;
-            }
-
-            if (!openGrid[r][c] || containPointItems(r, c)) {
+            if (!isInside(r, c) || (openRows[r] & (1L << c)) == 0L || (occupiedRows[r] & (1L << c)) != 0L) {
                 return false;
             }
         }
@@ -303,100 +923,114 @@ public class BackPack {
     public void expand(List<Point> l) {
         Objects.requireNonNull(l);
         boolean allFalse = l.stream()
-                .allMatch(p -> p.x >= 0 && p.x < openGrid[0].length &&
-                        p.y >= 0 && p.y < openGrid.length &&
-                        !openGrid[p.y][p.x]);
+                .allMatch(p -> isInside(p.y, p.x) && !openGrid[p.y][p.x]);
         if (allFalse) {
-            l.forEach(p -> openGrid[p.y][p.x] = true);
+            l.forEach(p -> openCell(p.y, p.x));
         }
     }
 
     private boolean isInside(int x, int y) {
-        return x >= 0 && x < 5 && y >= 0 && y < 7;
+        return x >= 0 && x < rows && y >= 0 && y < cols;
     }
 
     // a method to test if we can expand at a certain point.
     public boolean canExpand(int x, int y) {
-
-        if (!isInside(x, y) || openGrid[x][y] == true)
-            return false;
-        // check if any of the 4 neighbors are accessible
-        int[][] directions = {
-                { 1, 0 },
-                { -1, 0 },
-                { 0, 1 },
-                { 0, -1 }
-        };
-
-        for (int[] d : directions) {
-            int nx = x + d[0];
-            int ny = y + d[1];
-
-            if (isInside(nx, ny) && openGrid[nx][ny]) {
-                return true;
-            }
-        }
-
-        return false;
+        // a locked cell next to an accessible one
+        return isInside(x, y) && (frontierRows[x] & (1L << y)) != 0L;
     }
 
     // get list of accessible cells to expand
+    // (x = col, y = row), as a fresh list: use frontierRow on hot paths
     public ArrayList<Point> getExpandList() {
-        ArrayList<Point> list = new ArrayList<>();
-
-        for (int x = 0; x < 5; x++) {
-            for (int y = 0; y < 7; y++) {
-                if (canExpand(x, y)) {
-                    list.add(new Point(y, x));
-                }
+        ArrayList<Point> list = new ArrayList<>(frontierCount);
+        for (int x = 0; x < rows; x++) {
+            for (long m = frontierRows[x]; m != 0L; m &= m - 1) {
+                list.add(new Point(Long.numberOfTrailingZeros(m), x));
             }
         }
         return list;
     }
 
+    /**
+     * @param row a row of the grid
+     * @return the cells of this row that can be unlocked (bit c set for column
+     *         c), kept up to date as the backpack expands
+     */
+    public long frontierRow(int row) {
+        return frontierRows[row];
+    }
+
+    /** @return number of cells that can be unlocked */
+    public int frontierCount() {
+        return frontierCount;
+    }
+
+    /**
+     * @param slot a slot, as returned by slotOf; -1 is allowed
+     * @return the number of items touching the one in this slot
+     */
+    public int neighbourCount(int slot) {
+        return slot < 0 ? 0 : degree[slot];
+    }
+
+    /**
+     * @param slot a slot holding an item
+     * @param i    neighbour index, below neighbourCount(slot)
+     * @return the slot of the i-th neighbour
+     */
+    public int neighbourSlot(int slot, int i) {
+        return neighbours[slot][i] >>> 2;
+    }
+
+    /**
+     * @param slot a slot holding an item
+     * @param i    neighbour index, below neighbourCount(slot)
+     * @return how the i-th neighbour touches the item: ORTHOGONAL, DIAGONAL or
+     *         both OR-ed together
+     */
+    public int neighbourKinds(int slot, int i) {
+        return neighbours[slot][i] & (ORTHOGONAL | DIAGONAL);
+    }
+
+    // Accessible cells of a row
+    long openRow(int row) {
+        return openRows[row];
+    }
+
+    /**
+     * @param slot a slot holding an item
+     * @return the item held in this slot, or null if it is free
+     */
+    public Item itemInSlot(int slot) {
+        return slotItems[slot];
+    }
+
+    /**
+     * @return the items sharing an edge with the given one, as a fresh list. Use
+     *         slotOf and the neighbour accessors on hot paths.
+     */
     public List<Item> getAdjacentItems(Item item) {
         Objects.requireNonNull(item);
-        if (!items.containsKey(item))
-            return List.of();
-
-        Set<Item> adjacentItems = new HashSet<>();
-        ArrayList<Point> occupiedPoints = items.get(item);
-
-        for (Point p : occupiedPoints) {
-            // Check neighbors: up, down, left, right
-            int[][] directions = {
-                    { 0, 1 }, // down
-                    { 0, -1 }, // up
-                    { 1, 0 }, // right
-                    { -1, 0 } // left
-            };
-
-            for (int[] dir : directions) {
-                int newRow = p.x + dir[0];
-                int newCol = p.y + dir[1];
-
-                // Check boundaries
-                if (newRow >= 0 && newRow < grille.length && newCol >= 0 && newCol < grille[0].length) {
-                    Item adjacent = grille[newRow][newCol];
-                    if (adjacent != null && !adjacent.equals(item)) {
-                        adjacentItems.add(adjacent);
-                    }
-                }
+        int slot = slotOf(item);
+        ArrayList<Item> list = new ArrayList<>(neighbourCount(slot));
+        for (int i = 0; i < neighbourCount(slot); i++) {
+            if ((neighbourKinds(slot, i) & ORTHOGONAL) != 0) {
+                list.add(slotItems[neighbourSlot(slot, i)]);
             }
         }
-
-        return new ArrayList<>(adjacentItems);
+        return list;
     }
 
+    /**
+     * Applies the passive effects of the items. Aura bonuses are already kept
+     * up to date by the backpack, only the stats left dirty are recomputed.
+     *
+     * @param hero the hero carrying the backpack
+     */
     public void activate(Hero hero) {
-        for (var item : items.keySet()) {
-            item.notOnUse(hero, null, null);
-        }
-    }
-
-    public void desactivate(Hero hero) {
-        for (var item : items.keySet()) {
-            item.baseShape();
+        flushStats();
+        for (int slot = nextSlot(0); slot >= 0; slot = nextSlot(slot + 1)) {
+            slotItems[slot].notOnUse(hero, null, null);
         }
     }
 
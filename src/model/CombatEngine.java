@@ -0,0 +1,314 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import Enemies.Enemy;
+import Enemies.Intent;
+import Items.Curse;
+import Items.Item;
+import Items.Trigger;
+import Rooms.EnemyRoom;
+import model.CombatEventBus.Kind;
+import model.StatusScheduler.Status;
+
+/**
+ * Rules of a fight between the hero and the enemies of a room, with no
+ * graphical state: the combat screen and simulations drive it through the same
+ * commands (use an item, end the turn) and read the outcome they return.
+ * What happens during a command is published on {@link #events()}.
+ */
+public final class CombatEngine {
+
+    /** State of the fight after a command */
+    public enum Outcome {
+        ONGOING, VICTORY, DEFEAT
+    }
+
+    // Most actions an enemy picks for its next turn (exclusive)
+    private static final int FIRST_TURN_ACTIONS = 2;
+    private static final int TURN_ACTIONS = 3;
+
+    private final Hero hero;
+    private final EnemyRoom room;
+    private final BackPack sac;
+    // XP awarded on victory, from the enemies present at the start
+    private final int totalXP;
+    private Outcome outcome = Outcome.ONGOING;
+    private int turn;
+    private final CombatEventBus events;
+    // Cause of the changes of the command running, set by capture
+    private int source = CombatEventBus.NONE;
+    // State captured before a command, compared afterwards to publish events;
+    // only filled while the bus has consumers
+    private int heroHp;
+    private int heroProtection;
+    private int heroCurses;
+    private int[] enemyHp;
+
+    /**
+     * Starts a fight on a bus of its own: applies the passive effects of the
+     * backpack and lets every enemy choose its first actions.
+     *
+     * @param hero the hero
+     * @param room the room holding the enemies
+     */
+    public CombatEngine(Hero hero, EnemyRoom room) {
+        this(hero, room, new CombatEventBus());
+    }
+
+    /**
+     * Starts a fight publishing on the given bus, so that consumers subscribed
+     * beforehand also see the passive effects applied at the start.
+     *
+     * @param hero   the hero
+     * @param room   the room holding the enemies
+     * @param events the bus to publish on
+     */
+    public CombatEngine(Hero hero, EnemyRoom room, CombatEventBus events) {
+        Objects.requireNonNull(hero);
+        Objects.requireNonNull(room);
+        Objects.requireNonNull(events);
+        this.hero = hero;
+        this.room = room;
+        this.sac = hero.getBackpack();
+        this.events = events;
+        this.enemyHp = new int[room.enemies().size()];
+        hero.getStatuses().clear();
+        hero.getStatuses().setListener(this::statusApplied);
+        activatePassives();
+        room.enemies().forEach(e -> room.chooseActionEnemies(e, FIRST_TURN_ACTIONS));
+        this.totalXP = room.enemies().stream().mapToInt(Enemy::exp).sum();
+    }
+
+    /**
+     * Uses an item of the backpack, on an enemy or on the hero.
+     *
+     * @param item   the item to use
+     * @param target the enemy targeted, or null to use the item on the hero
+     * @return the state of the fight after the item was used
+     */
+    public Outcome useItem(Item item, Enemy target) {
+        Objects.requireNonNull(item);
+        checkOngoing();
+        // The screen lifts an item out of the backpack while it is dragged
+        int slot = sac.slotOf(item);
+        int source = slot < 0 ? CombatEventBus.NONE : CombatEventBus.item(slot);
+        capture(source);
+        item.onUse(hero, target, room.enemies());
+        publishChanges();
+        if (target != null && target.isDead()) {
+            // A new capture, or the changes of onUse would be published twice
+            capture(source);
+            item.effectTable().run(Trigger.ON_KILL, hero, room.enemies(), target, item);
+            publishChanges();
+        }
+        // Effects hitting every enemy may kill others than the target
+        removeDeadEnemies(source);
+        if (room.enemies().isEmpty()) {
+            victory();
+        }
+        return outcome;
+    }
+
+    /**
+     * Ends the hero's turn: enemies act, statuses due this turn tick, the
+     * hero's energy, mana and protection are reset, end of turn effects run,
+     * passive effects are applied again and the enemies choose their next
+     * actions. Aura bonuses are kept by the backpack and are not recomputed
+     * here.
+     *
+     * @return the state of the fight once the enemies have acted
+     */
+    public Outcome endTurn() {
+        checkOngoing();
+        ArrayList<Enemy> enemies = room.enemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy e = enemies.get(i);
+            if (e.isDead()) {
+                // Killed by an effect of an enemy acting before it
+                continue;
+            }
+            for (int m = e.intents(); m != 0; m &= m - 1) {
+                Intent intent = Intent.of(Integer.numberOfTrailingZeros(m));
+                capture(e.id());
+                room.enemyAction(e, intent, hero);
+                publishChanges();
+            }
+        }
+        capture(CombatEventBus.NONE);
+        hero.getStatuses().tick(hero);
+        publishChanges();
+        removeDeadEnemies(CombatEventBus.NONE);
+        room.startHeroTurn(hero);
+        for (int slot = sac.nextSlot(0); slot >= 0; slot = sac.nextSlot(slot + 1)) {
+            Item item = sac.itemInSlot(slot);
+            capture(CombatEventBus.item(slot));
+            item.effectTable().run(Trigger.TURN_END, hero, room.enemies(), null, item);
+            publishChanges();
+        }
+        activatePassives();
+        room.enemies().forEach(e -> {
+            room.chooseActionEnemies(e, TURN_ACTIONS);
+            e.baseShape();
+        });
+
+        events.publish(Kind.TURN_ENDED, CombatEventBus.NONE, CombatEventBus.NONE, 0, turn);
+        turn++;
+        if (hero.isDied()) {
+            outcome = Outcome.DEFEAT;
+        } else if (room.enemies().isEmpty()) {
+            victory();
+        }
+        return outcome;
+    }
+
+    // The room is cleared: XP, level up, and one curse reward per curse received
+    private void victory() {
+        outcome = Outcome.VICTORY;
+        room.setCleared(true);
+        int level = hero.getLevel();
+        hero.gainXP(totalXP);
+        hero.levelUp();
+        if (hero.getLevel() > level) {
+            events.publish(Kind.LEVEL_UP, CombatEventBus.NONE, CombatEventBus.HERO, hero.getLevel() - level, turn);
+        }
+
+        ArrayList<Item> curseList = new ArrayList<>();
+        int cursesReceived = hero.getCursesReceivedInBattle();
+        for (int i = 0; i < cursesReceived; i++) {
+            curseList.add(new Curse("Curse", room.random()));
+        }
+        room.rewards().addAll(curseList);
+        hero.resetCursesReceivedInBattle();
+    }
+
+    // Applies the passive effects of the backpack, a Cleansing Wand poisoning
+    // the hero for instance
+    private void activatePassives() {
+        capture(CombatEventBus.NONE);
+        sac.activate(hero);
+        publishChanges();
+    }
+
+    // Poison put on a target by the command running. The HP it takes is
+    // published as damage when it is lost, now or on the ticks to come.
+    private void statusApplied(Status status, Enemy target, int total) {
+        if (status == Status.POISON && total > 0) {
+            events.publish(Kind.POISON_APPLIED, source, target == null ? CombatEventBus.HERO : target.id(), total,
+                    turn);
+        }
+    }
+
+    // Removes the dead enemies, killed by the source or by their statuses
+    private void removeDeadEnemies(int source) {
+        ArrayList<Enemy> enemies = room.enemies();
+        for (int i = enemies.size() - 1; i >= 0; i--) {
+            Enemy e = enemies.get(i);
+            if (e.isDead()) {
+                events.publish(Kind.ENEMY_DIED, source, e.id(), 0, turn);
+                room.removeEnemy(e);
+            }
+        }
+    }
+
+    // Records the cause of the next changes and the hero and enemy values
+    // compared by publishChanges
+    private void capture(int source) {
+        this.source = source;
+        if (!events.hasConsumers()) {
+            return;
+        }
+        heroHp = hero.getHp();
+        heroProtection = hero.getProtection();
+        heroCurses = hero.getCursesReceivedInBattle();
+        ArrayList<Enemy> enemies = room.enemies();
+        if (enemyHp.length < enemies.size()) {
+            enemyHp = new int[enemies.size()];
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            enemyHp[i] = enemies.get(i).hp();
+        }
+    }
+
+    // Publishes the differences with the last capture, caused by its source.
+    // Enemies are never added nor removed in between, so they are compared by
+    // index. Every HP lost is damage, whether from a hit or from poison.
+    private void publishChanges() {
+        if (!events.hasConsumers()) {
+            return;
+        }
+        ArrayList<Enemy> enemies = room.enemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy e = enemies.get(i);
+            int lost = enemyHp[i] - e.hp();
+            if (lost > 0) {
+                events.publish(Kind.DAMAGE_DEALT, source, e.id(), lost, turn);
+            } else if (lost < 0) {
+                events.publish(Kind.HEAL, source, e.id(), -lost, turn);
+            }
+        }
+        int lost = heroHp - hero.getHp();
+        if (lost > 0) {
+            events.publish(Kind.DAMAGE_DEALT, source, CombatEventBus.HERO, lost, turn);
+        } else if (lost < 0) {
+            events.publish(Kind.HEAL, source, CombatEventBus.HERO, -lost, turn);
+        }
+        if (hero.getProtection() > heroProtection) {
+            events.publish(Kind.BLOCK_GAINED, source, CombatEventBus.HERO, hero.getProtection() - heroProtection, turn);
+        }
+        int curses = hero.getCursesReceivedInBattle() - heroCurses;
+        if (curses > 0) {
+            events.publish(Kind.CURSE_RECEIVED, source, CombatEventBus.HERO, curses, turn);
+        }
+    }
+
+    private void checkOngoing() {
+        if (outcome != Outcome.ONGOING) {
+            throw new IllegalStateException("the fight is over: " + outcome);
+        }
+    }
+
+    /** @return Events of the fight, to subscribe to */
+    public CombatEventBus events() {
+        return events;
+    }
+
+    /** @return State of the fight */
+    public Outcome outcome() {
+        return outcome;
+    }
+
+    /** @return Number of turns ended so far */
+    public int turn() {
+        return turn;
+    }
+
+    /**
+     * Zobrist hash of the position: hero, backpack, enemies and statuses. The
+     * turn number is left out, so positions reached through different orders
+     * of the same actions hash the same; see {@link TranspositionTable}.
+     *
+     * @return the hash
+     */
+    public long hash() {
+        return hero.getHash() ^ sac.hash() ^ room.group().hash() ^ hero.getStatuses().hash();
+    }
+
+    /** @return Hero fighting */
+    public Hero hero() {
+        return hero;
+    }
+
+    /** @return Enemies still alive, as an unmodifiable view */
+    public List<Enemy> enemies() {
+        return Collections.unmodifiableList(room.enemies());
+    }
+
+    /** @return Rewards of the room, with the curses added on victory */
+    public List<Item> rewards() {
+        return room.rewards();
+    }
+}
@@ -0,0 +1,199 @@
+package model;
+
+/**
+ * Typed stream of what happens during a fight, published by the combat engine
+ * and read by any number of consumers (screen, combat log, metrics, replays).
+ * <p>
+ * Events are written into a ring of preallocated slots (parallel int arrays),
+ * so publishing never allocates. The engine is the only producer; each
+ * consumer reads through its own {@link Cursor}. When nobody is subscribed,
+ * publish returns at once and nothing is recorded. A consumer falling more
+ * than the capacity behind skips the oldest events and can tell how many it
+ * lost: the fight never waits for its readers.
+ * </p>
+ * <p>
+ * Events caused by an enemy have the enemy id as source, events caused by an
+ * item have {@link #item(int)} of its backpack slot, a negative value that
+ * never collides with an enemy id; targets are enemy ids or {@link #HERO}.
+ * </p>
+ */
+public final class CombatEventBus {
+
+    /**
+     * Kind of event. Every HP lost is a DAMAGE_DEALT, whatever its cause;
+     * POISON_APPLIED is a poison put on a target, with the HP it takes over
+     * all its ticks.
+     */
+    public enum Kind {
+        DAMAGE_DEALT, BLOCK_GAINED, POISON_APPLIED, HEAL, CURSE_RECEIVED, ENEMY_DIED, TURN_ENDED, LEVEL_UP
+    }
+
+    /** Source or target id standing for the hero */
+    public static final int HERO = -1;
+    /** Source or target id of events with no source or no target */
+    public static final int NONE = -2;
+    // Source of the item in slot 0, the next slots going down from there
+    private static final int FIRST_ITEM = -3;
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final Kind[] KINDS = Kind.values();
+
+    // Event slots, index = sequence & mask
+    private final int mask;
+    private final byte[] kinds;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] amounts;
+    private final int[] turns;
+    // Number of events published so far
+    private long sequence;
+    private int consumers;
+
+    public CombatEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of event slots, a power of two: how far a consumer
+     *                 may fall behind without losing events
+     */
+    public CombatEventBus(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        kinds = new byte[capacity];
+        sources = new int[capacity];
+        targets = new int[capacity];
+        amounts = new int[capacity];
+        turns = new int[capacity];
+    }
+
+    /**
+     * @param slot backpack slot of an item
+     * @return the source id of events caused by that item
+     */
+    public static int item(int slot) {
+        if (slot < 0) {
+            throw new IllegalArgumentException("slot < 0: " + slot);
+        }
+        return FIRST_ITEM - slot;
+    }
+
+    /** @return true if the source id stands for an item */
+    public static boolean isItem(int source) {
+        return source <= FIRST_ITEM;
+    }
+
+    /** @return Backpack slot of an item source id */
+    public static int slotOf(int source) {
+        if (!isItem(source)) {
+            throw new IllegalArgumentException("not an item source: " + source);
+        }
+        return FIRST_ITEM - source;
+    }
+
+    /** @return true if at least one cursor reads the events */
+    public boolean hasConsumers() {
+        return consumers > 0;
+    }
+
+    /**
+     * Records an event for every subscribed cursor, without allocating.
+     *
+     * @param kind   kind of event
+     * @param source enemy id, item(slot) of an item, or NONE
+     * @param target enemy id, HERO or NONE
+     * @param amount damage, block, heal, ... of the event
+     * @param turn   turn of the fight the event happened in
+     */
+    public void publish(Kind kind, int source, int target, int amount, int turn) {
+        if (consumers == 0) {
+            return;
+        }
+        int i = (int) sequence & mask;
+        kinds[i] = (byte) kind.ordinal();
+        sources[i] = source;
+        targets[i] = target;
+        amounts[i] = amount;
+        turns[i] = turn;
+        sequence++;
+    }
+
+    /** @return a new cursor reading the events published from now on */
+    public Cursor subscribe() {
+        consumers++;
+        return new Cursor(sequence);
+    }
+
+    /**
+     * Read position of one consumer. {@link #next()} moves to the next event,
+     * whose fields are then available through the accessors.
+     */
+    public final class Cursor {
+        private long next;
+        private long lost;
+        private boolean closed;
+        private int slot = -1;
+
+        private Cursor(long start) {
+            this.next = start;
+        }
+
+        /**
+         * Moves to the next event, skipping the ones already overwritten.
+         *
+         * @return false if there is no event left to read
+         */
+        public boolean next() {
+            if (closed || next == sequence) {
+                return false;
+            }
+            long oldest = sequence - (mask + 1);
+            if (next < oldest) {
+                lost += oldest - next;
+                next = oldest;
+            }
+            slot = (int) next++ & mask;
+            return true;
+        }
+
+        /** Stops reading: publishing is free again once every cursor is closed. */
+        public void close() {
+            if (!closed) {
+                closed = true;
+                consumers--;
+            }
+        }
+
+        /** @return Kind of the current event */
+        public Kind kind() {
+            return KINDS[kinds[slot]];
+        }
+
+        /** @return Source of the current event */
+        public int source() {
+            return sources[slot];
+        }
+
+        /** @return Target of the current event */
+        public int target() {
+            return targets[slot];
+        }
+
+        /** @return Amount of the current event */
+        public int amount() {
+            return amounts[slot];
+        }
+
+        /** @return Turn of the current event */
+        public int turn() {
+            return turns[slot];
+        }
+
+        /** @return Number of events overwritten before this cursor read them */
+        public long lost() {
+            return lost;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+import Enemies.Enemy;
+import Items.Item;
+
+/**
+ * Consumer of the combat events keeping the last lines of a readable log.
+ * Lines are only formatted when {@link #update()} drains the bus, never while
+ * the fight publishes them.
+ */
+public final class CombatLog {
+    private final CombatEventBus.Cursor cursor;
+    private final BackPack sac;
+    private final int maxLines;
+    private final ArrayDeque<String> lines;
+    // Enemy names by id, resolved at the start: dead enemies leave the room
+    private final HashMap<Integer, String> names = new HashMap<>();
+
+    /**
+     * @param engine   the fight to follow, from its next event
+     * @param maxLines number of lines kept
+     */
+    public CombatLog(CombatEngine engine, int maxLines) {
+        this(Objects.requireNonNull(engine).events(), engine.hero(), engine.enemies(), maxLines);
+    }
+
+    /**
+     * Follows a fight from its start, when subscribed before the engine is
+     * built on the bus.
+     *
+     * @param events   the bus of the fight
+     * @param hero     the hero fighting
+     * @param enemies  the enemies of the fight
+     * @param maxLines number of lines kept
+     */
+    public CombatLog(CombatEventBus events, Hero hero, List<? extends Enemy> enemies, int maxLines) {
+        Objects.requireNonNull(events);
+        Objects.requireNonNull(hero);
+        Objects.requireNonNull(enemies);
+        if (maxLines < 1) {
+            throw new IllegalArgumentException("maxLines < 1");
+        }
+        this.cursor = events.subscribe();
+        this.sac = hero.getBackpack();
+        this.maxLines = maxLines;
+        this.lines = new ArrayDeque<>(maxLines);
+        for (Enemy e : enemies) {
+            names.put(e.id(), e.getClass().getSimpleName());
+        }
+    }
+
+    /** Reads the events published since the last update. */
+    public void update() {
+        while (cursor.next()) {
+            add(format());
+        }
+    }
+
+    /** @return Kept lines, oldest first */
+    public List<String> lines() {
+        return List.copyOf(lines);
+    }
+
+    /** Stops following the fight. */
+    public void close() {
+        cursor.close();
+    }
+
+    private void add(String line) {
+        if (lines.size() == maxLines) {
+            lines.removeFirst();
+        }
+        lines.addLast(line);
+    }
+
+    private String format() {
+        int amount = cursor.amount();
+        String target = name(cursor.target());
+        String by = by(cursor.source());
+        return switch (cursor.kind()) {
+            case DAMAGE_DEALT -> target + " takes " + amount + " damage" + by;
+            case BLOCK_GAINED -> target + " gains " + amount + " block" + by;
+            case POISON_APPLIED -> target + " is poisoned for " + amount + by;
+            case HEAL -> target + " heals " + amount + by;
+            case CURSE_RECEIVED -> target + " receives " + amount + " curse(s)" + by;
+            case ENEMY_DIED -> target + " dies" + by;
+            case TURN_ENDED -> "End of turn " + (cursor.turn() + 1);
+            case LEVEL_UP -> "Level up!";
+        };
+    }
+
+    private String name(int id) {
+        if (id == CombatEventBus.HERO) {
+            return "Hero";
+        }
+        return names.getOrDefault(id, "Enemy");
+    }
+
+    // Cause of an event, as written after it: an item, an enemy or nothing.
+    // The item is looked up when the line is formatted, so one used up since
+    // is not named.
+    private String by(int source) {
+        if (source == CombatEventBus.NONE || source == CombatEventBus.HERO) {
+            return "";
+        }
+        if (CombatEventBus.isItem(source)) {
+            Item item = sac.itemInSlot(CombatEventBus.slotOf(source));
+            return item == null ? " (item)" : " (" + item.name() + ")";
+        }
+        return " (" + names.getOrDefault(source, "Enemy") + ")";
+    }
+}
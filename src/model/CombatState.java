@@ -0,0 +1,886 @@
+package model;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+import Enemies.AbstractEnemy;
+import Enemies.Enemy;
+import Enemies.Intent;
+import Items.Armor;
+import Items.EffectTable;
+import Items.Food;
+import Items.Item;
+import Items.MagicItem;
+import Items.ManaStone;
+import Items.MeleeWeapon;
+import Items.Potion;
+import Items.RangedWeapon;
+import Items.Shield;
+import Items.Trigger;
+import effects.AddEnergyCost;
+import effects.AddHpHero;
+import effects.AddMana;
+import effects.ApplyStatus;
+import effects.AttackAllEnemies;
+import effects.Aura;
+import effects.Effect;
+import effects.HeallAllEnemies;
+import effects.NumberUses;
+import effects.PoisonEffect;
+import effects.PoisonHero;
+import effects.ReduceDamageEffectEnemy;
+import model.StatusScheduler.Status;
+
+/**
+ * Image of a fight in plain ints, for searches playing fights ahead many
+ * times: copying a state into another only copies a few small arrays.
+ * <p>
+ * What the hero and the enemies can do is compiled once, when the state is
+ * read from a {@link CombatEngine} or ahead of a fight, and shared by every
+ * copy. The rules mirror the engine and the onUse methods of the items, as
+ * {@link ActionPreview} does, including their quirks: spells keep their
+ * on-use effects without mana. A status counts as all its ticks at once, when
+ * it is applied. Curses received and effects other than those listed in
+ * compile are left out.
+ * </p>
+ * <p>
+ * A move is an int: {@link #END_TURN}, or an item used on a target, see
+ * {@link #item(int)} and {@link #target(int)}.
+ * </p>
+ */
+public final class CombatState {
+    /** Move ending the hero's turn */
+    public static final int END_TURN = 0;
+    // Most items used in one turn: spells without mana can be used forever
+    static final int MAX_ACTIONS = 16;
+    // Same values as CombatEngine and EnemyRoom.startHeroTurn
+    private static final int FIRST_TURN_ACTIONS = 2;
+    private static final int TURN_ACTIONS = 3;
+    private static final int TURN_ENERGY = 3;
+    private static final int TURN_MANA = 2;
+    // Caps applied by Hero.setEnergy and Hero.setMana
+    private static final int MAX_ENERGY = 3;
+    private static final int MAX_MANA = 2;
+
+    // Kinds of item
+    private static final byte INERT = 0;
+    private static final byte MELEE = 1;
+    private static final byte RANGED = 2;
+    private static final byte MAGIC = 3;
+    private static final byte ARMOR = 4;
+    private static final byte SHIELD = 5;
+    private static final byte CONSUMABLE = 6;
+
+    // Compiled effects
+    private static final byte ATTACK_ALL = 0;
+    private static final byte POISON_ALL = 1;
+    private static final byte HEAL_ALL = 2;
+    private static final byte HERO_HP = 3;
+    private static final byte MANA = 4;
+    private static final byte ENERGY = 5;
+    private static final byte USES = 6;
+    private static final byte WEAKEN = 7;
+
+    /* =========================
+       Definition, shared by copies
+       ========================= */
+
+    private final Item[] items;
+    private final byte[] kinds;
+    private final int[] costs;
+    // Effects of item i on use in ops[useStart[i]..passiveStart[i]), passive in
+    // ops[passiveStart[i]..useStart[i + 1]); effects of enemy j with the effect
+    // intent in ops[enemyStart[j]..enemyStart[j + 1])
+    private final int[] useStart;
+    private final int[] passiveStart;
+    private final int[] enemyStart;
+    private final byte[] ops;
+    private final int[] args;
+    // Aura bonuses lost by other items when item i leaves the backpack, in
+    // auraTargets and auraBonuses[auraStart[i]..auraStart[i + 1])
+    private final int[] auraStart;
+    private final int[] auraTargets;
+    private final int[] auraBonuses;
+
+    private final Enemy[] enemies;
+    private final int[] hpMax;
+    private final int[] baseAttack;
+    private final int[] defense;
+    private final int totalHpMax;
+
+    private final int heroHpMax;
+    private final int heroDefence;
+
+    /* =========================
+       Position, copied
+       ========================= */
+
+    private int hp;
+    private int energy;
+    private int mana;
+    private int protection;
+    private int turn;
+    // Items used since the start of the turn
+    private int actions;
+    private CombatEngine.Outcome outcome;
+    // Bit i set while item i is in the backpack, bit j while enemy j is in the
+    // room
+    private long itemMask;
+    private long enemyMask;
+    // Use counter of each item, -1 for items without one
+    private final int[] uses;
+    // Damage of weapons, protection of armors and shields, auras included
+    private final int[] values;
+    private final int[] enemyHp;
+    private final int[] attack;
+    private final int[] intents;
+
+    private CombatState(Item[] items, byte[] kinds, int[] costs, int[] useStart, int[] passiveStart,
+            int[] enemyStart, byte[] ops, int[] args, int[] auraStart, int[] auraTargets, int[] auraBonuses,
+            Enemy[] enemies, int[] hpMax, int[] baseAttack, int[] defense, int heroHpMax, int heroDefence) {
+        this.items = items;
+        this.kinds = kinds;
+        this.costs = costs;
+        this.useStart = useStart;
+        this.passiveStart = passiveStart;
+        this.enemyStart = enemyStart;
+        this.ops = ops;
+        this.args = args;
+        this.auraStart = auraStart;
+        this.auraTargets = auraTargets;
+        this.auraBonuses = auraBonuses;
+        this.enemies = enemies;
+        this.hpMax = hpMax;
+        this.baseAttack = baseAttack;
+        this.defense = defense;
+        this.heroHpMax = heroHpMax;
+        this.heroDefence = heroDefence;
+        int total = 0;
+        for (int max : hpMax) {
+            total += max;
+        }
+        this.totalHpMax = Math.max(1, total);
+        this.uses = new int[items.length];
+        this.values = new int[items.length];
+        this.enemyHp = new int[enemies.length];
+        this.attack = new int[enemies.length];
+        this.intents = new int[enemies.length];
+    }
+
+    /**
+     * Reads the current position of a fight. Items that cannot be used (gold,
+     * keys, curses) are left out; beyond 64 items or 64 enemies, the others
+     * are too.
+     *
+     * @param engine an ongoing fight
+     * @return its position
+     */
+    public static CombatState of(CombatEngine engine) {
+        Objects.requireNonNull(engine);
+        return read(engine.hero(), engine.enemies(), engine.hero().getHp(), engine.turn(), engine.outcome());
+    }
+
+    /**
+     * Reads the position a fight would start from, without starting it: the
+     * hero as it is now but with the given HP, and the enemies with their
+     * current intents, see drawIntents. The passive effects the engine applies
+     * when the fight starts are left out.
+     *
+     * @param hero    the hero
+     * @param enemies the enemies of a room not fought yet
+     * @param hp      HP of the hero when the fight starts
+     * @return the position
+     */
+    public static CombatState ahead(Hero hero, List<Enemy> enemies, int hp) {
+        Objects.requireNonNull(hero);
+        Objects.requireNonNull(enemies);
+        return read(hero, enemies, Math.min(hp, hero.getHpMax()), 0,
+                enemies.isEmpty() ? CombatEngine.Outcome.VICTORY : CombatEngine.Outcome.ONGOING);
+    }
+
+    private static CombatState read(Hero hero, List<Enemy> fighting, int heroHp, int turn,
+            CombatEngine.Outcome outcome) {
+        BackPack sac = hero.getBackpack();
+
+        int n = 0;
+        for (int slot = sac.nextSlot(0); slot >= 0; slot = sac.nextSlot(slot + 1)) {
+            if (kindOf(sac.itemInSlot(slot)) != INERT) {
+                n++;
+            }
+        }
+        Item[] items = new Item[Math.min(n, Long.SIZE)];
+        int[] slots = new int[items.length];
+        n = 0;
+        for (int slot = sac.nextSlot(0); slot >= 0 && n < items.length; slot = sac.nextSlot(slot + 1)) {
+            Item item = sac.itemInSlot(slot);
+            if (kindOf(item) != INERT) {
+                slots[n] = slot;
+                items[n++] = item;
+            }
+        }
+        Enemy[] enemies = fighting.subList(0, Math.min(fighting.size(), Long.SIZE)).toArray(new Enemy[0]);
+
+        byte[] kinds = new byte[items.length];
+        int[] costs = new int[items.length];
+        int[] values = new int[items.length];
+        int[] useStart = new int[items.length + 1];
+        int[] passiveStart = new int[items.length];
+        int[] enemyStart = new int[enemies.length + 1];
+        int[] counters = new int[items.length];
+        int size = 0;
+        for (Item item : items) {
+            EffectTable table = item.effectTable();
+            size += table.count(Trigger.ON_USE) + table.count(Trigger.PASSIVE);
+        }
+        for (Enemy e : enemies) {
+            size += e instanceof AbstractEnemy a ? a.effects().size() : 0;
+        }
+        byte[] ops = new byte[size];
+        int[] args = new int[size];
+
+        int op = 0;
+        for (int i = 0; i < items.length; i++) {
+            Item item = items[i];
+            kinds[i] = kindOf(item);
+            switch (item) {
+                case MeleeWeapon w -> {
+                    costs[i] = w.energyCost();
+                    values[i] = w.damage();
+                }
+                case RangedWeapon w -> {
+                    costs[i] = w.energyCost();
+                    values[i] = w.damage();
+                }
+                case MagicItem w -> {
+                    costs[i] = w.manaCost();
+                    values[i] = w.damage();
+                }
+                case Armor a -> {
+                    costs[i] = a.energyCost();
+                    values[i] = a.protectionValue();
+                }
+                case Shield s -> {
+                    costs[i] = s.energyCost();
+                    values[i] = s.protectionValue();
+                }
+                default -> {
+                }
+            }
+            EffectTable table = item.effectTable();
+            counters[i] = -1;
+            useStart[i] = op;
+            for (int k = 0; k < table.count(Trigger.ON_USE); k++) {
+                if (table.effect(Trigger.ON_USE, k) instanceof NumberUses) {
+                    counters[i] = table.state(Trigger.ON_USE, k);
+                }
+                op = compile(table.effect(Trigger.ON_USE, k), ops, args, op);
+            }
+            passiveStart[i] = op;
+            for (int k = 0; k < table.count(Trigger.PASSIVE); k++) {
+                op = compile(table.effect(Trigger.PASSIVE, k), ops, args, op);
+            }
+        }
+        useStart[items.length] = op;
+        for (int j = 0; j < enemies.length; j++) {
+            enemyStart[j] = op;
+            if (enemies[j] instanceof AbstractEnemy a) {
+                for (Effect effect : a.effects()) {
+                    op = compile(effect, ops, args, op);
+                }
+            }
+        }
+        enemyStart[enemies.length] = op;
+
+        // Only consumables leave the backpack during a fight
+        int[] auraStart = new int[items.length + 1];
+        size = 0;
+        for (int i = 0; i < items.length; i++) {
+            if (kinds[i] == CONSUMABLE) {
+                size += sac.neighbourCount(slots[i]) * items[i].effectTable().count(Trigger.AURA);
+            }
+        }
+        int[] auraTargets = new int[size];
+        int[] auraBonuses = new int[size];
+        int aura = 0;
+        for (int i = 0; i < items.length; i++) {
+            auraStart[i] = aura;
+            EffectTable table = items[i].effectTable();
+            for (int k = 0; kinds[i] == CONSUMABLE && k < sac.neighbourCount(slots[i]); k++) {
+                int j = indexOf(items, sac.itemInSlot(sac.neighbourSlot(slots[i], k)));
+                int bonus = 0;
+                for (int e = 0; j >= 0 && e < table.count(Trigger.AURA); e++) {
+                    bonus += ((Aura) table.effect(Trigger.AURA, e)).bonusTo(items[i], items[j],
+                            sac.neighbourKinds(slots[i], k));
+                }
+                if (bonus != 0) {
+                    auraTargets[aura] = j;
+                    auraBonuses[aura++] = bonus;
+                }
+            }
+        }
+        auraStart[items.length] = aura;
+
+        int[] hpMax = new int[enemies.length];
+        int[] baseAttack = new int[enemies.length];
+        int[] defense = new int[enemies.length];
+        for (int j = 0; j < enemies.length; j++) {
+            hpMax[j] = enemies[j].hpMax();
+            baseAttack[j] = enemies[j] instanceof AbstractEnemy a ? a.group().baseAttack(a.slot())
+                    : enemies[j].attack();
+            defense[j] = enemies[j].defense();
+        }
+
+        CombatState state = new CombatState(items, kinds, costs, useStart, passiveStart, enemyStart, ops, args,
+                auraStart, auraTargets, auraBonuses, enemies, hpMax, baseAttack, defense, hero.getHpMax(),
+                hero.getDefence());
+        state.hp = heroHp;
+        state.energy = hero.getEnergy();
+        state.mana = hero.getMana();
+        state.protection = hero.getProtection();
+        state.turn = turn;
+        state.outcome = outcome;
+        state.itemMask = items.length == Long.SIZE ? -1L : (1L << items.length) - 1;
+        state.enemyMask = enemies.length == Long.SIZE ? -1L : (1L << enemies.length) - 1;
+        System.arraycopy(counters, 0, state.uses, 0, items.length);
+        System.arraycopy(values, 0, state.values, 0, items.length);
+        for (int j = 0; j < enemies.length; j++) {
+            state.enemyHp[j] = enemies[j].hp();
+            state.attack[j] = enemies[j].attack();
+            state.intents[j] = enemies[j].intents();
+        }
+        return state;
+    }
+
+    private static int indexOf(Item[] items, Item item) {
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte kindOf(Item item) {
+        return switch (item) {
+            case MeleeWeapon w -> MELEE;
+            case RangedWeapon w -> RANGED;
+            case MagicItem w -> MAGIC;
+            case Armor a -> ARMOR;
+            case Shield s -> SHIELD;
+            case Food f -> CONSUMABLE;
+            case Potion p -> CONSUMABLE;
+            case ManaStone m -> CONSUMABLE;
+            default -> INERT;
+        };
+    }
+
+    // Appends the op of an effect, returns the next free index
+    private static int compile(Effect effect, byte[] ops, int[] args, int op) {
+        byte code;
+        int arg;
+        switch (effect) {
+            case AttackAllEnemies(int d) -> {
+                code = ATTACK_ALL;
+                arg = d;
+            }
+            case PoisonEffect(int d) -> {
+                code = POISON_ALL;
+                arg = d;
+            }
+            case HeallAllEnemies(int h) -> {
+                code = HEAL_ALL;
+                arg = h;
+            }
+            case AddHpHero(int h) -> {
+                code = HERO_HP;
+                arg = h;
+            }
+            case PoisonHero(int m) -> {
+                code = HERO_HP;
+                arg = -m;
+            }
+            case ApplyStatus(Status status, int amount, int turns, boolean onHero) -> {
+                int total = amount * turns;
+                if (onHero) {
+                    code = HERO_HP;
+                    arg = status == Status.POISON ? -total : total;
+                } else {
+                    code = status == Status.POISON ? POISON_ALL : HEAL_ALL;
+                    arg = total;
+                }
+            }
+            case AddMana(int v) -> {
+                code = MANA;
+                arg = v;
+            }
+            case AddEnergyCost(int v) -> {
+                code = ENERGY;
+                arg = v;
+            }
+            case NumberUses u -> {
+                code = USES;
+                arg = 0;
+            }
+            case ReduceDamageEffectEnemy(int malus) -> {
+                code = WEAKEN;
+                arg = malus;
+            }
+            default -> {
+                return op;
+            }
+        }
+        ops[op] = code;
+        args[op] = arg;
+        return op + 1;
+    }
+
+    /** @return A copy of this state, sharing its definition */
+    public CombatState copy() {
+        CombatState copy = new CombatState(items, kinds, costs, useStart, passiveStart, enemyStart, ops, args,
+                auraStart, auraTargets, auraBonuses, enemies, hpMax, baseAttack, defense, heroHpMax, heroDefence);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Sets this state to the position of another state of the same fight,
+     * without allocating.
+     *
+     * @param other a copy of this state
+     */
+    public void copyFrom(CombatState other) {
+        Objects.requireNonNull(other);
+        if (other.items != items) {
+            throw new IllegalArgumentException("states of different fights");
+        }
+        hp = other.hp;
+        energy = other.energy;
+        mana = other.mana;
+        protection = other.protection;
+        turn = other.turn;
+        actions = other.actions;
+        outcome = other.outcome;
+        itemMask = other.itemMask;
+        enemyMask = other.enemyMask;
+        System.arraycopy(other.uses, 0, uses, 0, uses.length);
+        System.arraycopy(other.values, 0, values, 0, values.length);
+        System.arraycopy(other.enemyHp, 0, enemyHp, 0, enemyHp.length);
+        System.arraycopy(other.attack, 0, attack, 0, attack.length);
+        System.arraycopy(other.intents, 0, intents, 0, intents.length);
+    }
+
+    /* =========================
+       Moves
+       ========================= */
+
+    /** @return Size of the array moves needs */
+    public int maxMoves() {
+        return 1 + items.length * (enemies.length + 1);
+    }
+
+    /**
+     * Lists the moves that would do something, end of turn first.
+     *
+     * @param out receives the moves, at least maxMoves long
+     * @return the number of moves, 0 once the fight is over
+     */
+    public int moves(int[] out) {
+        if (outcome != CombatEngine.Outcome.ONGOING) {
+            return 0;
+        }
+        int n = 0;
+        out[n++] = END_TURN;
+        if (actions >= MAX_ACTIONS) {
+            return n;
+        }
+        for (long m = itemMask; m != 0L; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            boolean effects = useStart[i] != passiveStart[i];
+            switch (kinds[i]) {
+                case MELEE -> {
+                    if (energy >= costs[i]) {
+                        n = targets(i, out, n);
+                    }
+                }
+                case RANGED -> {
+                    if (energy >= costs[i] || effects) {
+                        n = targets(i, out, n);
+                    }
+                }
+                case MAGIC -> {
+                    if (mana >= costs[i] || effects) {
+                        n = targets(i, out, n);
+                    }
+                }
+                case ARMOR -> {
+                    if (energy >= costs[i]) {
+                        out[n++] = move(i, -1);
+                    }
+                }
+                case SHIELD -> {
+                    if (energy >= costs[i] || effects) {
+                        out[n++] = move(i, -1);
+                    }
+                }
+                case CONSUMABLE -> {
+                    if (effects) {
+                        out[n++] = move(i, -1);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return n;
+    }
+
+    private int targets(int i, int[] out, int n) {
+        for (long m = enemyMask; m != 0L; m &= m - 1) {
+            out[n++] = move(i, Long.numberOfTrailingZeros(m));
+        }
+        return n;
+    }
+
+    private int move(int item, int target) {
+        return 1 + item * (enemies.length + 1) + target + 1;
+    }
+
+    /**
+     * @param move a move other than END_TURN
+     * @return the item it uses
+     */
+    public Item item(int move) {
+        return items[(move - 1) / (enemies.length + 1)];
+    }
+
+    /**
+     * @param move a move other than END_TURN
+     * @return the enemy it targets, null for items used on the hero
+     */
+    public Enemy target(int move) {
+        int t = (move - 1) % (enemies.length + 1) - 1;
+        return t < 0 ? null : enemies[t];
+    }
+
+    /**
+     * Plays a move.
+     *
+     * @param move   a move listed by moves
+     * @param random draws the intents of the enemies at the end of the turn
+     */
+    public void play(int move, RandomGenerator random) {
+        if (move == END_TURN) {
+            endTurn(random);
+        } else {
+            useItem((move - 1) / (enemies.length + 1), (move - 1) % (enemies.length + 1) - 1);
+        }
+    }
+
+    // CombatEngine.useItem and the onUse method of the item
+    private void useItem(int i, int t) {
+        switch (kinds[i]) {
+            case MELEE -> {
+                if (energy >= costs[i]) {
+                    energy -= costs[i];
+                    hit(t, values[i]);
+                    run(useStart[i], passiveStart[i], i, t);
+                }
+            }
+            case RANGED -> {
+                if (energy >= costs[i]) {
+                    energy -= costs[i];
+                    hit(t, values[i]);
+                }
+                run(useStart[i], passiveStart[i], i, t);
+            }
+            case MAGIC -> {
+                if (mana >= costs[i]) {
+                    mana -= costs[i];
+                    hit(t, values[i]);
+                    hit(t, values[i]);
+                }
+                run(useStart[i], passiveStart[i], i, t);
+            }
+            case ARMOR -> {
+                if (energy >= costs[i]) {
+                    energy -= costs[i];
+                    protection += values[i];
+                }
+            }
+            case SHIELD -> {
+                if (energy >= costs[i]) {
+                    protection += values[i];
+                    energy -= costs[i];
+                }
+                run(useStart[i], passiveStart[i], i, t);
+            }
+            default -> {
+                run(useStart[i], passiveStart[i], i, t);
+                if (uses[i] == 0) {
+                    itemMask &= ~(1L << i);
+                    for (int k = auraStart[i]; k < auraStart[i + 1]; k++) {
+                        values[auraTargets[k]] -= auraBonuses[k];
+                    }
+                }
+            }
+        }
+        actions++;
+        // Every enemy killed leaves the room, not only the target
+        for (long m = enemyMask; m != 0L; m &= m - 1) {
+            int j = Long.numberOfTrailingZeros(m);
+            if (enemyHp[j] <= 0) {
+                enemyMask &= ~(1L << j);
+            }
+        }
+        if (enemyMask == 0L) {
+            outcome = CombatEngine.Outcome.VICTORY;
+        }
+    }
+
+    // CombatEngine.endTurn
+    private void endTurn(RandomGenerator random) {
+        for (long m = enemyMask; m != 0L; m &= m - 1) {
+            int j = Long.numberOfTrailingZeros(m);
+            if (enemyHp[j] <= 0) {
+                continue;
+            }
+            for (int bits = intents[j]; bits != 0; bits &= bits - 1) {
+                switch (Intent.of(Integer.numberOfTrailingZeros(bits))) {
+                    case ATTACK -> setHp(hp - Math.max(0, attack[j] - protection));
+                    case EFFECT -> run(enemyStart[j], enemyStart[j + 1], -1, -1);
+                    case DEFEND -> {
+                    }
+                }
+            }
+        }
+        for (long m = enemyMask; m != 0L; m &= m - 1) {
+            int j = Long.numberOfTrailingZeros(m);
+            if (enemyHp[j] <= 0) {
+                enemyMask &= ~(1L << j);
+            }
+        }
+        protection = heroDefence;
+        energy = TURN_ENERGY;
+        mana = TURN_MANA;
+        // Passive effects run without enemies: only those on the hero apply
+        for (long m = itemMask; m != 0L; m &= m - 1) {
+            int i = Long.numberOfTrailingZeros(m);
+            for (int k = passiveStart[i]; k < useStart[i + 1]; k++) {
+                if (ops[k] == HERO_HP || ops[k] == MANA || ops[k] == ENERGY) {
+                    run(k, k + 1, i, -1);
+                }
+            }
+        }
+        drawIntents(random, TURN_ACTIONS);
+        for (long m = enemyMask; m != 0L; m &= m - 1) {
+            int j = Long.numberOfTrailingZeros(m);
+            attack[j] = baseAttack[j];
+        }
+        turn++;
+        actions = 0;
+        if (hp <= 0) {
+            outcome = CombatEngine.Outcome.DEFEAT;
+        } else if (enemyMask == 0L) {
+            outcome = CombatEngine.Outcome.VICTORY;
+        }
+    }
+
+    /**
+     * Draws new intents for the enemies in the room, as a fight draws them when
+     * it starts.
+     *
+     * @param random generator of the intents
+     */
+    public void drawIntents(RandomGenerator random) {
+        Objects.requireNonNull(random);
+        drawIntents(random, FIRST_TURN_ACTIONS);
+    }
+
+    // EnemyRoom.chooseActionEnemies, for every enemy in the room
+    private void drawIntents(RandomGenerator random, int actions) {
+        for (long m = enemyMask; m != 0L; m &= m - 1) {
+            int mask = 0;
+            int n = random.nextInt(actions);
+            for (int k = 0; k < n; k++) {
+                mask |= 1 << random.nextInt(Intent.COUNT);
+            }
+            intents[Long.numberOfTrailingZeros(m)] = mask;
+        }
+    }
+
+    // Runs ops[from..to) for item i (-1 for an enemy) on target t (-1 if none)
+    private void run(int from, int to, int i, int t) {
+        for (int k = from; k < to; k++) {
+            int arg = args[k];
+            switch (ops[k]) {
+                case ATTACK_ALL -> {
+                    for (long m = enemyMask; m != 0L; m &= m - 1) {
+                        hit(Long.numberOfTrailingZeros(m), arg);
+                    }
+                }
+                case POISON_ALL -> {
+                    for (long m = enemyMask; m != 0L; m &= m - 1) {
+                        int j = Long.numberOfTrailingZeros(m);
+                        enemyHp[j] = Math.max(0, Math.min(hpMax[j], enemyHp[j] - arg));
+                    }
+                }
+                case HEAL_ALL -> {
+                    for (long m = enemyMask; m != 0L; m &= m - 1) {
+                        int j = Long.numberOfTrailingZeros(m);
+                        enemyHp[j] = Math.min(hpMax[j], enemyHp[j] + arg);
+                    }
+                }
+                case HERO_HP -> setHp(hp + arg);
+                case MANA -> mana = Math.min(mana + arg, MAX_MANA);
+                case ENERGY -> energy = Math.min(energy + arg, MAX_ENERGY);
+                case USES -> {
+                    if (i >= 0 && uses[i] > 0) {
+                        uses[i]--;
+                    }
+                }
+                case WEAKEN -> {
+                    // Enemy.setAttack adds to the current attack
+                    if (t >= 0) {
+                        attack[t] += attack[t] - arg;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    // Enemy.getAttacked: a defending enemy subtracts its defense
+    private void hit(int j, int value) {
+        int taken = (intents[j] & Intent.DEFEND.bit()) != 0 ? Math.max(0, value - defense[j]) : value;
+        enemyHp[j] = Math.max(0, enemyHp[j] - taken);
+    }
+
+    private void setHp(int value) {
+        hp = Math.max(0, Math.min(value, heroHpMax));
+    }
+
+    /* =========================
+       Comparisons
+       ========================= */
+
+    /**
+     * @return Key of the intents of the enemies in the room, telling apart the
+     *         outcomes of an end of turn (exact up to 21 enemies)
+     */
+    public long intentsKey() {
+        long key = 0L;
+        for (long m = enemyMask; m != 0L; m &= m - 1) {
+            key = key << Intent.COUNT | intents[Long.numberOfTrailingZeros(m)];
+        }
+        return key;
+    }
+
+    /**
+     * Gives the enemies of this state the intents they have in another state
+     * of the same enemies.
+     *
+     * @param other a state read from the same fight
+     * @return false if the enemies in the room differ
+     */
+    public boolean takeIntents(CombatState other) {
+        long m = enemyMask;
+        long o = other.enemyMask;
+        while (m != 0L && o != 0L) {
+            int j = Long.numberOfTrailingZeros(m);
+            int k = Long.numberOfTrailingZeros(o);
+            if (enemies[j] != other.enemies[k]) {
+                return false;
+            }
+            intents[j] = other.intents[k];
+            m &= m - 1;
+            o &= o - 1;
+        }
+        return m == 0L && o == 0L;
+    }
+
+    /**
+     * Compares the positions of two states read from the same fight, possibly
+     * at different times: same hero values, same items and enemies with the
+     * same stats. The number of items used this turn is not compared.
+     *
+     * @param other another state
+     * @return true if both describe the same position
+     */
+    public boolean sameAs(CombatState other) {
+        Objects.requireNonNull(other);
+        if (hp != other.hp || energy != other.energy || mana != other.mana || protection != other.protection
+                || outcome != other.outcome || heroHpMax != other.heroHpMax) {
+            return false;
+        }
+        long m = itemMask;
+        long o = other.itemMask;
+        while (m != 0L && o != 0L) {
+            int i = Long.numberOfTrailingZeros(m);
+            int k = Long.numberOfTrailingZeros(o);
+            if (items[i] != other.items[k] || uses[i] != other.uses[k] || values[i] != other.values[k]
+                    || costs[i] != other.costs[k]) {
+                return false;
+            }
+            m &= m - 1;
+            o &= o - 1;
+        }
+        if (m != 0L || o != 0L) {
+            return false;
+        }
+        m = enemyMask;
+        o = other.enemyMask;
+        while (m != 0L && o != 0L) {
+            int j = Long.numberOfTrailingZeros(m);
+            int k = Long.numberOfTrailingZeros(o);
+            if (enemies[j] != other.enemies[k] || enemyHp[j] != other.enemyHp[k] || attack[j] != other.attack[k]
+                    || intents[j] != other.intents[k]) {
+                return false;
+            }
+            m &= m - 1;
+            o &= o - 1;
+        }
+        return m == 0L && o == 0L;
+    }
+
+    /* =========================
+       Getters
+       ========================= */
+
+    /**
+     * Value of the position for the hero, from 0 (dead) to 1 (won without a
+     * scratch): above 1/2 once the fight is won, below while it goes on.
+     *
+     * @return the value
+     */
+    public double score() {
+        double health = (double) hp / Math.max(1, heroHpMax);
+        return switch (outcome) {
+            case DEFEAT -> 0.0;
+            case VICTORY -> 0.5 + 0.5 * health;
+            case ONGOING -> {
+                int left = 0;
+                for (long m = enemyMask; m != 0L; m &= m - 1) {
+                    left += Math.max(0, enemyHp[Long.numberOfTrailingZeros(m)]);
+                }
+                yield 0.25 * health + 0.25 * (1.0 - (double) left / totalHpMax);
+            }
+        };
+    }
+
+    /** @return State of the fight */
+    public CombatEngine.Outcome outcome() {
+        return outcome;
+    }
+
+    /** @return Number of turns ended */
+    public int turn() {
+        return turn;
+    }
+
+    /** @return HP of the hero */
+    public int hp() {
+        return hp;
+    }
+}
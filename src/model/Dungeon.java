@@ -11,6 +11,8 @@ public class Dungeon {
 	private ArrayList<Floor> floors;
 	private Point heroPosition;
 	private int currentFloor;
+	// Seed and random streams of the run
+	private final RunRandom random;
 
 	/**
 	 * @return Current floor index
@@ -49,22 +51,52 @@ public class Dungeon {
 	}
 
 	/**
-	 * Constructor for Dungeon.
+	 * Constructor for Dungeon, with a new seed.
 	 */
 	public Dungeon() {
-		this.floors = generateFloors();
+		this(new RunRandom());
+	}
+
+	/**
+	 * @param seed Seed of the run: the same seed gives the same dungeon
+	 */
+	public Dungeon(long seed) {
+		this(new RunRandom(seed));
+	}
+
+	/**
+	 * @param random Random streams of the run
+	 */
+	public Dungeon(RunRandom random) {
+		this.random = Objects.requireNonNull(random);
+		this.floors = generateFloors(random);
 		this.currentFloor = 0;
 		this.heroPosition = floors.get(currentFloor).getEntrance();
 	}
 
 	/**
+	 * @return Seed of the run
+	 */
+	public long getSeed() {
+		return random.seed();
+	}
+
+	/**
+	 * @return Random streams of the run
+	 */
+	public RunRandom getRandom() {
+		return random;
+	}
+
+	/**
+	 * @param random Random streams of the run
 	 * @return Generated list of floors
 	 */
-	private static ArrayList<Floor> generateFloors() {
+	private static ArrayList<Floor> generateFloors(RunRandom random) {
 		var f = new ArrayList<Floor>();
-		f.add(new Floor());
-		f.add(new Floor());
-		f.add(new Floor());
+		for (int i = 0; i < 3; i++) {
+			f.add(new Floor(random, i));
+		}
 		return f;
 	}
 
@@ -0,0 +1,132 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+import Rooms.EnemyRoom;
+
+/**
+ * Estimates how a fight would go before it starts, by playing it several times
+ * on {@link CombatState} copies. The simulated hero plays, until no move beats
+ * ending the turn, the move whose position after the end of the turn scores
+ * best.
+ * <p>
+ * An estimate is the HP lost in each simulated fight, played from full HP so
+ * that it does not depend on the HP the hero will have when the fight comes:
+ * starting with hp, the hero would win the fights that cost less than hp.
+ * Estimates are cached by the hashes of the enemies, the backpack and the
+ * stats of the hero, and stay valid until one of them changes. The cache is a
+ * {@link TranspositionTable} whose depth is the number of fights simulated, so
+ * it stays bounded over a run.
+ * </p>
+ */
+public final class FightEstimator {
+    /** Loss of a simulated fight that was lost, or that did not end */
+    public static final int LOST = Integer.MAX_VALUE;
+    /** Fights simulated for an estimate by default */
+    public static final int DEFAULT_SAMPLES = 16;
+    // Turns after which a simulated fight counts as lost
+    private static final int MAX_TURNS = 20;
+    // Estimates cached; a run needs a few dozen
+    private static final int CACHE_CAPACITY = 1 << 8;
+
+    private final RandomGenerator random;
+    private final int samples;
+    private final TranspositionTable<int[]> cache = new TranspositionTable<>(CACHE_CAPACITY);
+    private int[] buffer = new int[0];
+
+    /** @param random draws the simulated fights */
+    public FightEstimator(RandomGenerator random) {
+        this(random, DEFAULT_SAMPLES);
+    }
+
+    /**
+     * @param random  draws the simulated fights
+     * @param samples fights simulated for an estimate
+     */
+    public FightEstimator(RandomGenerator random, int samples) {
+        Objects.requireNonNull(random);
+        if (samples < 1) {
+            throw new IllegalArgumentException("samples < 1");
+        }
+        this.random = random;
+        this.samples = samples;
+    }
+
+    /**
+     * @param hero the hero, with the backpack it would fight with
+     * @param room a room not cleared yet
+     * @return HP lost in each simulated fight, LOST for the fights lost, in
+     *         increasing order; the array is shared and must not be modified
+     */
+    public int[] losses(Hero hero, EnemyRoom room) {
+        Objects.requireNonNull(hero);
+        Objects.requireNonNull(room);
+        long key = Zobrist.mix(room.group().hash() ^ Zobrist.mix(hero.getBackpack().hash())
+                ^ (long) hero.getHpMax() << 48 ^ (long) hero.getDefence() << 32 ^ hero.getEnergy() << 16
+                ^ hero.getMana());
+        int[] losses = cache.get(key, samples);
+        if (losses == null) {
+            losses = simulate(hero, room);
+            cache.put(key, samples, losses);
+        }
+        return losses;
+    }
+
+    /** @return Number of estimates cached */
+    public int size() {
+        return cache.size();
+    }
+
+    /** Forgets every estimate. */
+    public void clear() {
+        cache.clear();
+    }
+
+    private int[] simulate(Hero hero, EnemyRoom room) {
+        CombatState start = CombatState.ahead(hero, room.enemies(), hero.getHpMax());
+        CombatState state = start.copy();
+        CombatState probe = start.copy();
+        if (buffer.length < start.maxMoves()) {
+            buffer = new int[start.maxMoves()];
+        }
+        int[] losses = new int[samples];
+        for (int s = 0; s < samples; s++) {
+            state.copyFrom(start);
+            state.drawIntents(random);
+            play(state, probe);
+            losses[s] = state.outcome() == CombatEngine.Outcome.VICTORY ? start.hp() - state.hp() : LOST;
+        }
+        Arrays.sort(losses);
+        return losses;
+    }
+
+    // Plays a simulated fight until it ends or lasts too long
+    private void play(CombatState state, CombatState probe) {
+        while (state.outcome() == CombatEngine.Outcome.ONGOING && state.turn() < MAX_TURNS) {
+            int n = state.moves(buffer);
+            // moves lists END_TURN first
+            int best = CombatState.END_TURN;
+            double bestScore = afterTurn(state, probe, CombatState.END_TURN);
+            for (int k = 1; k < n; k++) {
+                double score = afterTurn(state, probe, buffer[k]);
+                if (score > bestScore) {
+                    best = buffer[k];
+                    bestScore = score;
+                }
+            }
+            state.play(best, random);
+        }
+    }
+
+    // Score once the move is played and the turn ended
+    private double afterTurn(CombatState state, CombatState probe, int move) {
+        probe.copyFrom(state);
+        probe.play(move, random);
+        if (move != CombatState.END_TURN && probe.outcome() == CombatEngine.Outcome.ONGOING) {
+            probe.play(CombatState.END_TURN, random);
+        }
+        return probe.score();
+    }
+}
@@ -2,7 +2,10 @@ package model;
 
 import java.awt.Point;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
+import Enemies.Enemy;
+import Items.Item;
 import Rooms.CorridorRoom;
 import Rooms.EnemyRoom;
 import Rooms.HealerRoom;
@@ -20,6 +23,12 @@ public class Floor {
     private final ArrayList<Point> listPoints;
     private Point entrance;
     private Point exit;
+    // Streams of the run for this floor: spawns, loot and room intents
+    private final RunRandom run;
+    private final int index;
+    private final RandomGenerator spawns;
+    private final RandomGenerator loot;
+    private int enemyRooms;
 
     /**
      * @return The entrance point of the floor
@@ -36,11 +45,24 @@ public class Floor {
     }
 
     /**
-     * Constructor for Floor.
+     * Constructor for Floor, with a run of its own.
      */
     public Floor() {
+        this(new RunRandom(), 0);
+    }
+
+    /**
+     * @param run   Random streams of the run
+     * @param index Index of the floor in the dungeon
+     */
+    public Floor(RunRandom run, int index) {
+        Objects.requireNonNull(run);
         rooms = new RoomType[5][11];
         listPoints = new ArrayList<Point>();
+        this.run = run;
+        this.index = index;
+        this.spawns = run.stream(RunRandom.Stream.ENEMIES, index);
+        this.loot = run.stream(RunRandom.Stream.LOOT, index);
         generateFloor();
     }
 
@@ -83,7 +105,7 @@ public class Floor {
     /**
      * @param random Random generator
      */
-    public void generateEntrance(Random random) {
+    public void generateEntrance(RandomGenerator random) {
         Objects.requireNonNull(random);
         int row = random.nextInt(5);
         int col = 0;
@@ -95,7 +117,7 @@ public class Floor {
     /**
      * @param random Random generator
      */
-    public void generateExit(Random random) {
+    public void generateExit(RandomGenerator random) {
         Objects.requireNonNull(random);
         int row = random.nextInt(5);
         int col = 10;
@@ -107,7 +129,7 @@ public class Floor {
     /**
      * @param random Random generator
      */
-    public void generateEnnemies(Random random) {
+    public void generateEnnemies(RandomGenerator random) {
         Objects.requireNonNull(random);
         int row = random.nextInt(5);
         int col = random.nextInt(11);
@@ -117,14 +139,18 @@ public class Floor {
                 col = random.nextInt(11);
             }
             listPoints.add(new Point(row, col));
-            rooms[row][col] = new EnemyRoom();
+            // One intent stream per room, so fights replay whatever the order
+            // the rooms are visited in
+            RandomGenerator intents = run.stream(RunRandom.Stream.INTENTS, index << 8 | enemyRooms++);
+            rooms[row][col] = new EnemyRoom(new ArrayList<>(Enemy.generateEnmies(spawns)),
+                    new ArrayList<>(Item.generateItems(loot)), intents);
         }
     }
 
     /**
      * @param random Random generator
      */
-    public void generateHealer(Random random) {
+    public void generateHealer(RandomGenerator random) {
         Objects.requireNonNull(random);
         int row = random.nextInt(5);
         int col = random.nextInt(11);
@@ -133,13 +159,13 @@ public class Floor {
             col = random.nextInt(11);
         }
         listPoints.add(new Point(row, col));
-        rooms[row][col] = new HealerRoom();
+        rooms[row][col] = new HealerRoom(loot);
     }
 
     /**
      * @param random Random generator
      */
-    public void generateMerchant(Random random) {
+    public void generateMerchant(RandomGenerator random) {
         Objects.requireNonNull(random);
         int row = random.nextInt(5);
         int col = random.nextInt(11);
@@ -148,13 +174,13 @@ public class Floor {
             col = random.nextInt(11);
         }
         listPoints.add(new Point(row, col));
-        rooms[row][col] = new MerchantRoom();
+        rooms[row][col] = new MerchantRoom(loot);
     }
 
     /**
      * @param random Random generator
      */
-    public void generateTreasures(Random random) {
+    public void generateTreasures(RandomGenerator random) {
         Objects.requireNonNull(random);
         int rows = rooms.length;
         int cols = rooms[0].length;
@@ -168,7 +194,7 @@ public class Floor {
             } while (listPoints.contains(p));
 
             listPoints.add(p);
-            rooms[p.x][p.y] = new TreasureRoom();
+            rooms[p.x][p.y] = new TreasureRoom(new ArrayList<>(Item.generateItems(loot)), loot);
         }
     }
 
@@ -261,7 +287,7 @@ public class Floor {
      * 
      * @param random Random generator
      */
-    public void secondPath(Random random) {
+    public void secondPath(RandomGenerator random) {
         Objects.requireNonNull(random);
         for (Point a : listPoints) {
             if (random.nextDouble() < 0.25) { // 25% chance
@@ -289,7 +315,7 @@ public class Floor {
      * Generates a complete floor layout.
      */
     public void generateFloor() {
-        Random random = new Random();
+        RandomGenerator random = run.stream(RunRandom.Stream.FLOOR, index);
         generateEntrance(random);
         generateExit(random);
         generateEnnemies(random);
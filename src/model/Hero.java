@@ -21,8 +21,12 @@ public class Hero {
     private int protection;
     private ArrayList<Effect> effects;
     private BackPack backpack;
-    private int pendingCurses = 0;
     private int cursesReceivedInBattle = 0;
+    // Statuses lasting several turns, reset at the start of each fight
+    private final StatusScheduler statuses = new StatusScheduler();
+    // Zobrist hash of the values above that matter in a fight, kept up to date
+    // by every setter
+    private long hash;
 
     /**
      * @param name       Hero name
@@ -52,6 +56,9 @@ public class Hero {
         this.protection = protection;
         this.backpack = new BackPack();
         this.effects = new ArrayList<Effect>();
+        this.hash = Zobrist.key(Zobrist.HERO_HP, 0, hp) ^ Zobrist.key(Zobrist.HERO_HP_MAX, 0, hpMax)
+                ^ Zobrist.key(Zobrist.HERO_ENERGY, 0, energy) ^ Zobrist.key(Zobrist.HERO_MANA, 0, mana)
+                ^ Zobrist.key(Zobrist.HERO_PROTECTION, 0, protection) ^ Zobrist.key(Zobrist.HERO_CURSES, 0, 0);
     }
 
     /**
@@ -117,18 +124,33 @@ public class Hero {
         return effects;
     }
 
+    /** @return Zobrist hash of the HP, energy, mana, protection and curses */
+    public long getHash() {
+        return hash;
+    }
+
+    /** @return Statuses of the current fight */
+    public StatusScheduler getStatuses() {
+        return statuses;
+    }
+
     /** @param amount New energy level */
     public void setEnergy(int amount) {
-        energy = Math.min(amount, 3);
+        int value = Math.min(amount, 3);
+        hash ^= Zobrist.update(Zobrist.HERO_ENERGY, 0, energy, value);
+        energy = value;
     }
 
     /** @param amount New mana level */
     public void setMana(int amount) {
-        mana = Math.min(amount, 2);
+        int value = Math.min(amount, 2);
+        hash ^= Zobrist.update(Zobrist.HERO_MANA, 0, mana, value);
+        mana = value;
     }
 
     /** @param amount New protection level */
     public void setProtection(int amount) {
+        hash ^= Zobrist.update(Zobrist.HERO_PROTECTION, 0, protection, amount);
         protection = amount;
     }
 
@@ -138,7 +160,9 @@ public class Hero {
      */
     public boolean setHp(int amount) {
         boolean healing = hp < amount;
-        hp = Math.max(0, Math.min(amount, hpMax));
+        int value = Math.max(0, Math.min(amount, hpMax));
+        hash ^= Zobrist.update(Zobrist.HERO_HP, 0, hp, value);
+        hp = value;
         return healing;
     }
 
@@ -172,6 +196,7 @@ public class Hero {
         while (xp >= level * xpThreshold) {
             xp -= level * xpThreshold;
             level++;
+            hash ^= Zobrist.update(Zobrist.HERO_HP_MAX, 0, hpMax, hpMax + 10);
             hpMax += 10;
             setEnergy(energy + 2);
             setMana(mana + 2);
@@ -185,19 +210,10 @@ public class Hero {
 
     /** Marks a curse to be received. */
     public void applyCurse() {
-        this.pendingCurses++;
+        hash ^= Zobrist.update(Zobrist.HERO_CURSES, 0, cursesReceivedInBattle, cursesReceivedInBattle + 1);
         this.cursesReceivedInBattle++;
     }
 
-    /** @return true if a curse was popped */
-    public boolean popCurse() {
-        if (pendingCurses > 0) {
-            pendingCurses--;
-            return true;
-        }
-        return false;
-    }
-
     /** @return Count of curses received in current battle */
     public int getCursesReceivedInBattle() {
         return cursesReceivedInBattle;
@@ -205,6 +221,7 @@ public class Hero {
 
     /** Resets the battle curse counter. */
     public void resetCursesReceivedInBattle() {
+        hash ^= Zobrist.update(Zobrist.HERO_CURSES, 0, cursesReceivedInBattle, 0);
         this.cursesReceivedInBattle = 0;
     }
 
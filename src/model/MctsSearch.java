@@ -0,0 +1,304 @@
+package model;
+
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+
+import Enemies.Enemy;
+import Items.Item;
+
+/**
+ * Monte Carlo tree search over the hero's moves in a fight: which item to use
+ * next, on which enemy, or whether to end the turn.
+ * <p>
+ * Positions are {@link CombatState} copies: a playout copies the root into a
+ * work state, replays the moves of the selected path and plays random moves
+ * until the fight ends or a few turns have passed, without allocating. The
+ * end of a turn is a chance node whose children are the intents the enemies
+ * may draw; they are sampled as the engine draws them.
+ * </p>
+ * <p>
+ * Nodes are kept in parallel arrays. Between two calls, the tree is kept when
+ * the fight went on as the search expected: the move it returned was played,
+ * or the turn it ended came back with intents the tree can follow. Otherwise,
+ * or when half the nodes are used, the search starts over.
+ * </p>
+ */
+public final class MctsSearch {
+
+    /**
+     * Move returned by the search.
+     *
+     * @param item   the item to use, null to end the turn
+     * @param target the enemy to use it on, null for the hero
+     */
+    public record Move(Item item, Enemy target) {
+        /** Ends the turn */
+        public static final Move END_TURN = new Move(null, null);
+
+        /** @return true if the move ends the turn */
+        public boolean endsTurn() {
+            return item == null;
+        }
+    }
+
+    /** Number of nodes of a search by default */
+    public static final int DEFAULT_NODES = 1 << 18;
+    // Turns played by a playout before its position is scored
+    private static final int PLAYOUT_TURNS = 6;
+    private static final double EXPLORATION = 0.5;
+    // Playouts between two reads of the clock
+    private static final int CLOCK_PERIOD = 64;
+
+    private final RandomGenerator random;
+    // Nodes: parent, first child (-1 before expansion), next sibling, move
+    // leading to the node (intents key below a chance node), visits and total
+    // score. A chance node is reached by END_TURN.
+    private final int[] parents;
+    private final int[] children;
+    private final int[] siblings;
+    private final long[] moves;
+    private final boolean[] chance;
+    private final int[] visits;
+    private final double[] totals;
+    private int used;
+
+    private CombatState rootState;
+    private CombatState work;
+    private int[] buffer = new int[0];
+    private int root = -1;
+    // Move returned by the last search, -1 if none
+    private int lastMove = -1;
+    private int playouts;
+
+    /** @param random draws the playouts and the enemy intents */
+    public MctsSearch(RandomGenerator random) {
+        this(random, DEFAULT_NODES);
+    }
+
+    /**
+     * @param random draws the playouts and the enemy intents
+     * @param nodes  most nodes of the tree
+     */
+    public MctsSearch(RandomGenerator random, int nodes) {
+        Objects.requireNonNull(random);
+        if (nodes < 2) {
+            throw new IllegalArgumentException("nodes < 2");
+        }
+        this.random = random;
+        parents = new int[nodes];
+        children = new int[nodes];
+        siblings = new int[nodes];
+        moves = new long[nodes];
+        chance = new boolean[nodes];
+        visits = new int[nodes];
+        totals = new double[nodes];
+    }
+
+    /**
+     * Searches the best move of the hero for a while.
+     *
+     * @param engine an ongoing fight
+     * @param nanos  time given to the search
+     * @return the move played most often from the current position
+     */
+    public Move search(CombatEngine engine, long nanos) {
+        return search(engine, nanos, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Searches the best move of the hero until the time or the number of
+     * playouts runs out.
+     *
+     * @param engine   an ongoing fight
+     * @param nanos    time given to the search
+     * @param playouts most playouts
+     * @return the move played most often from the current position
+     */
+    public Move search(CombatEngine engine, long nanos, int playouts) {
+        Objects.requireNonNull(engine);
+        if (engine.outcome() != CombatEngine.Outcome.ONGOING) {
+            throw new IllegalStateException("the fight is over: " + engine.outcome());
+        }
+        CombatState fresh = CombatState.of(engine);
+        if (!follow(fresh)) {
+            rootState = fresh;
+            work = fresh.copy();
+            buffer = new int[fresh.maxMoves()];
+            used = 0;
+            root = node(-1, -1, false);
+        }
+
+        long deadline = System.nanoTime() + nanos;
+        this.playouts = 0;
+        while (this.playouts < playouts
+                && (this.playouts % CLOCK_PERIOD != 0 || System.nanoTime() < deadline)) {
+            iterate();
+            this.playouts++;
+        }
+
+        int best = -1;
+        for (int c = children[root]; c >= 0; c = siblings[c]) {
+            if (best < 0 || visits[c] > visits[best]) {
+                best = c;
+            }
+        }
+        lastMove = best < 0 ? CombatState.END_TURN : (int) moves[best];
+        if (lastMove == CombatState.END_TURN) {
+            return Move.END_TURN;
+        }
+        return new Move(rootState.item(lastMove), rootState.target(lastMove));
+    }
+
+    /** @return Playouts of the last search */
+    public int playouts() {
+        return playouts;
+    }
+
+    /** @return Nodes of the tree */
+    public int nodes() {
+        return used;
+    }
+
+    /** Forgets the tree; the next search starts over. */
+    public void reset() {
+        rootState = null;
+        root = -1;
+        lastMove = -1;
+        used = 0;
+    }
+
+    // Moves the root to the node of the fresh position, if the tree holds it
+    private boolean follow(CombatState fresh) {
+        if (rootState == null || used > parents.length / 2) {
+            return false;
+        }
+        if (rootState.sameAs(fresh)) {
+            return true;
+        }
+        int next = lastMove < 0 ? -1 : child(root, lastMove);
+        if (next < 0) {
+            return false;
+        }
+        work.copyFrom(rootState);
+        work.play(lastMove, random);
+        if (lastMove == CombatState.END_TURN) {
+            if (!work.takeIntents(fresh) || !work.sameAs(fresh)) {
+                return false;
+            }
+            int outcome = child(next, work.intentsKey());
+            next = outcome >= 0 ? outcome : node(next, work.intentsKey(), false);
+        } else if (!work.sameAs(fresh)) {
+            return false;
+        }
+        if (next < 0) {
+            return false;
+        }
+        rootState.copyFrom(work);
+        root = next;
+        lastMove = -1;
+        return true;
+    }
+
+    // One playout: selection, expansion, random moves, backup
+    private void iterate() {
+        work.copyFrom(rootState);
+        int node = root;
+        while (work.outcome() == CombatEngine.Outcome.ONGOING) {
+            if (chance[node]) {
+                long key = work.intentsKey();
+                int c = child(node, key);
+                if (c < 0) {
+                    c = node(node, key, false);
+                    node = c < 0 ? node : c;
+                    break;
+                }
+                node = c;
+                continue;
+            }
+            if (children[node] < 0 && !expand(node)) {
+                break;
+            }
+            int c = select(node);
+            work.play((int) moves[c], random);
+            node = c;
+            if (visits[c] == 0) {
+                break;
+            }
+        }
+
+        int horizon = work.turn() + PLAYOUT_TURNS;
+        while (work.outcome() == CombatEngine.Outcome.ONGOING && work.turn() < horizon) {
+            int n = work.moves(buffer);
+            work.play(buffer[random.nextInt(n)], random);
+        }
+        double score = work.score();
+        // Nodes above a reused root belong to past positions
+        for (int n = node;; n = parents[n]) {
+            visits[n]++;
+            totals[n] += score;
+            if (n == root) {
+                break;
+            }
+        }
+    }
+
+    // Adds a child for every move of the work state, false if the tree is full
+    private boolean expand(int node) {
+        int n = work.moves(buffer);
+        if (used + n > parents.length) {
+            return false;
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            node(node, buffer[k], buffer[k] == CombatState.END_TURN);
+        }
+        return true;
+    }
+
+    // UCT: unvisited children first, then the best upper confidence bound
+    private int select(int node) {
+        double log = Math.log(Math.max(1, visits[node]));
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int c = children[node]; c >= 0; c = siblings[c]) {
+            if (visits[c] == 0) {
+                return c;
+            }
+            double value = totals[c] / visits[c] + EXPLORATION * Math.sqrt(log / visits[c]);
+            if (value > bestValue) {
+                best = c;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    private int child(int node, long move) {
+        for (int c = children[node]; c >= 0; c = siblings[c]) {
+            if (moves[c] == move) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    // New node, first child of its parent; -1 if the tree is full
+    private int node(int parent, long move, boolean isChance) {
+        if (used == parents.length) {
+            return -1;
+        }
+        int n = used++;
+        parents[n] = parent;
+        children[n] = -1;
+        moves[n] = move;
+        chance[n] = isChance;
+        visits[n] = 0;
+        totals[n] = 0.0;
+        if (parent >= 0) {
+            siblings[n] = children[parent];
+            children[parent] = n;
+        } else {
+            siblings[n] = -1;
+        }
+        return n;
+    }
+}
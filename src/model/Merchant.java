@@ -1,6 +1,5 @@
 package model;
 
-import java.awt.Point;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Objects;
@@ -38,15 +37,13 @@ public record Merchant(ArrayList<Item> inventory) {
         Objects.requireNonNull(dragging, "dragging cannot be null");
         System.out.println(" BUY ITEM CALLED: " + item.name());
 
-        var backpack = hero.getBackpack();
-        Point gPos = Gold.getGold(backpack);
+        Gold gold = hero.getBackpack().getGold();
 
-        if (gPos == null) {
+        if (gold == null) {
             System.out.println("NO GOLD IN BACKPACK");
             return false;
         }
 
-        Gold gold = (Gold) backpack.getGrille()[gPos.x][gPos.y];
         int price = item.calculatePrice();
 
         System.out.println(
@@ -90,16 +87,8 @@ public record Merchant(ArrayList<Item> inventory) {
         Objects.requireNonNull(dragging, "dragging cannot be null");
         System.out.println(" SELL ITEM CALLED: " + item.name());
 
-        var backpack = hero.getBackpack();
-        Point p = Gold.getGold(backpack);
-        if (p == null) {
-            return false;
-        }
-        Gold gold = (Gold) backpack.getGrille()[p.x][p.y];
-        if (gold == null) {
-            return false;
-        }
-        if (p != null) {
+        Gold gold = hero.getBackpack().getGold();
+        if (gold != null) {
 
             int price = item.calculatePrice();
 
@@ -119,4 +108,47 @@ public record Merchant(ArrayList<Item> inventory) {
         }
         return false;
     }
+
+    /**
+     * The hero buys an item of the inventory, without the user interface:
+     * the hero pays with the gold of its backpack and gets a new instance of
+     * the item, to be placed in the backpack by the caller.
+     *
+     * @param item an item of the inventory
+     * @param hero the hero who wants to buy the item
+     * @return the item bought, or null if the hero cannot afford it
+     */
+    public Item heroBuys(Item item, Hero hero) {
+        Objects.requireNonNull(item, "item cannot be null");
+        Objects.requireNonNull(hero, "hero cannot be null");
+        Gold gold = hero.getBackpack().getGold();
+        int price = item.calculatePrice();
+        if (gold == null || gold.goldValue() < price) {
+            return null;
+        }
+        gold.setGoldValue(gold.goldValue() - price);
+        return item.createNewInstance();
+    }
+
+    /**
+     * The hero sells an item of its backpack, without the user interface: the
+     * item leaves the backpack, its price is added to the hero's gold and the
+     * merchant can sell it again.
+     *
+     * @param item an item of the hero's backpack
+     * @param hero the hero who sells the item
+     * @return true if the hero had gold to add the price to and the item was in
+     *         the backpack
+     */
+    public boolean heroSells(Item item, Hero hero) {
+        Objects.requireNonNull(item, "item cannot be null");
+        Objects.requireNonNull(hero, "hero cannot be null");
+        Gold gold = hero.getBackpack().getGold();
+        if (gold == null || item == gold || !hero.getBackpack().removeItem(item)) {
+            return false;
+        }
+        gold.setGoldValue(gold.goldValue() + item.calculatePrice());
+        inventory.add(item.createNewInstance());
+        return true;
+    }
 }
@@ -0,0 +1,54 @@
+package model;
+
+/**
+ * Id counters of the run played by the current thread.
+ * <p>
+ * Items, enemies and item images take their id from the context of the thread
+ * creating them. A thread only ever touches its own context, so the counters
+ * are plain ints, and a run that starts with {@link #begin()} numbers its
+ * objects from 0 whatever the other threads do: the same seed gives the same
+ * ids.
+ * </p>
+ */
+public final class RunContext {
+    private static final ThreadLocal<RunContext> CURRENT = ThreadLocal.withInitial(RunContext::new);
+
+    private int items;
+    private int enemies;
+    private int images;
+
+    private RunContext() {
+    }
+
+    /** @return Context of the run played by this thread */
+    public static RunContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a new run on this thread, with every counter back to 0. Objects of
+     * the previous run must not be mixed with the new ones.
+     *
+     * @return the new context
+     */
+    public static RunContext begin() {
+        RunContext context = new RunContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    /** @return A new id for an item, unique in the run */
+    public int nextItemId() {
+        return items++;
+    }
+
+    /** @return A new id for an enemy, unique in the run */
+    public int nextEnemyId() {
+        return enemies++;
+    }
+
+    /** @return A new id for an item image, unique in the run */
+    public int nextImageId() {
+        return images++;
+    }
+}
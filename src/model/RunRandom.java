@@ -0,0 +1,60 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random generators of one run, all derived from the run seed.
+ * <p>
+ * Each use (floor layout, enemy spawns, loot, enemy intents) draws from its own
+ * stream, identified by its kind and an index, so the same seed gives the same
+ * run whatever the order the streams are asked for. Streams are independent
+ * generators: two runs, or two threads of one run, never share state.
+ * </p>
+ */
+public final class RunRandom {
+
+    /** Use of a stream */
+    public enum Stream {
+        /** Layout of a floor, indexed by floor */
+        FLOOR,
+        /** Enemies of the rooms of a floor, indexed by floor */
+        ENEMIES,
+        /** Items of the rooms of a floor, indexed by floor, -1 for the starting kit */
+        LOOT,
+        /** Intents and curses of an enemy room, indexed by room */
+        INTENTS,
+        /** Choices of a simulated player, index 0 */
+        PLAYER,
+        /** Move hints of the combat screen, indexed by floor and room position */
+        HINTS
+    }
+
+    private final long seed;
+
+    /** Starts a run with a seed of its own. */
+    public RunRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /** @param seed seed of the run */
+    public RunRandom(long seed) {
+        this.seed = seed;
+    }
+
+    /** @return Seed of the run, to play it again */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @param stream use of the generator
+     * @param index  index of the floor or room it is for
+     * @return a new generator, always the same sequence for the same seed,
+     *         stream and index
+     */
+    public SplittableRandom stream(Stream stream, int index) {
+        long id = (long) stream.ordinal() << 32 | (index & 0xFFFFFFFFL);
+        // The golden gamma keeps id 0 away from the fixed point of mix
+        return new SplittableRandom(Zobrist.mix(seed ^ Zobrist.mix(id + 0x9E3779B97F4A7C15L)));
+    }
+}
@@ -0,0 +1,316 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import Enemies.Enemy;
+
+/**
+ * Effects lasting several turns (poison, regeneration) on the hero and the
+ * enemies of a fight, kept in a timing wheel indexed by turn number.
+ * <p>
+ * Each status sits in the bucket of the turn it is next due, so a tick only
+ * visits the statuses due this turn instead of scanning every status of every
+ * entity. Statuses are stored in parallel arrays reused through a free list:
+ * scheduling only allocates when the pool grows.
+ * </p>
+ * <p>
+ * A Zobrist hash of the running statuses is updated whenever a status is
+ * added, ticks or ends. Keys are summed rather than xored so that two equal
+ * statuses do not cancel out.
+ * </p>
+ * <p>
+ * A {@link Listener} is told of every status put on a target, whether it is
+ * scheduled here or applied at once by an effect.
+ * </p>
+ */
+public final class StatusScheduler {
+
+    /** Kind of status */
+    public enum Status {
+        /** Loses amount HP each tick, ignoring protection */
+        POISON,
+        /** Gains amount HP each tick */
+        REGEN
+    }
+
+    /** Told of the statuses put on the hero and the enemies */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param status kind of status
+         * @param target the enemy affected, or null for the hero
+         * @param total  HP the status takes or gives over all its ticks
+         */
+        void applied(Status status, Enemy target, int total);
+    }
+
+    // Number of buckets, a power of two; statuses due later than that many
+    // turns go around the wheel and are skipped until their turn comes
+    private static final int WHEEL = 16;
+    private static final Status[] STATUSES = Status.values();
+
+    // Head of the list of statuses of each bucket, -1 if empty
+    private final int[] heads = new int[WHEEL];
+    // Status pool: kind, target (null for the hero), amount per tick, ticks
+    // left, turns between ticks, turn of the next tick, next status in the same
+    // bucket or in the free list
+    private byte[] kinds;
+    private Enemy[] targets;
+    private int[] amounts;
+    private int[] remaining;
+    private int[] periods;
+    private int[] due;
+    private int[] next;
+    private int free = -1;
+    private int used;
+    private int active;
+    // Turn of the next tick
+    private int turn;
+    private long hash;
+    private Listener listener;
+
+    public StatusScheduler() {
+        int capacity = 16;
+        kinds = new byte[capacity];
+        targets = new Enemy[capacity];
+        amounts = new int[capacity];
+        remaining = new int[capacity];
+        periods = new int[capacity];
+        due = new int[capacity];
+        next = new int[capacity];
+        Arrays.fill(heads, -1);
+    }
+
+    /** Removes every status and starts again at turn 0. */
+    public void clear() {
+        Arrays.fill(heads, -1);
+        Arrays.fill(targets, 0, used, null);
+        free = -1;
+        used = 0;
+        active = 0;
+        turn = 0;
+        hash = 0L;
+    }
+
+    /**
+     * Registers a status ticking at the end of the current turn and of the
+     * following ones, then expiring.
+     *
+     * @param status kind of status
+     * @param target the enemy affected, or null for the hero
+     * @param amount value applied on each tick
+     * @param turns  number of ticks
+     */
+    public void schedule(Status status, Enemy target, int amount, int turns) {
+        schedule(status, target, amount, turns, 1);
+    }
+
+    /**
+     * Registers a status ticking every period turns, starting at the end of
+     * the current turn, then expiring.
+     *
+     * @param status kind of status
+     * @param target the enemy affected, or null for the hero
+     * @param amount value applied on each tick
+     * @param ticks  number of ticks
+     * @param period turns between two ticks
+     */
+    public void schedule(Status status, Enemy target, int amount, int ticks, int period) {
+        Objects.requireNonNull(status);
+        if (amount < 0 || ticks < 1 || period < 1) {
+            throw new IllegalArgumentException("invalid status " + amount + " x " + ticks + " every " + period);
+        }
+        int s = allocate();
+        kinds[s] = (byte) status.ordinal();
+        targets[s] = target;
+        amounts[s] = amount;
+        remaining[s] = ticks;
+        periods[s] = period;
+        link(s, turn);
+        active++;
+        hash += key(s);
+        applied(status, target, amount * ticks);
+    }
+
+    /**
+     * Tells the listener of a status applied at once by an effect, without
+     * being scheduled.
+     *
+     * @param status kind of status
+     * @param target the enemy affected, or null for the hero
+     * @param amount value applied
+     */
+    public void applied(Status status, Enemy target, int amount) {
+        Objects.requireNonNull(status);
+        if (listener != null) {
+            listener.applied(status, target, amount);
+        }
+    }
+
+    /**
+     * @param listener told of the statuses put on a target from now on, null
+     *                 to stop
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Removes the statuses of a kind on a target before they expire.
+     *
+     * @param status kind of status
+     * @param target the enemy, or null for the hero
+     * @return number of statuses removed
+     */
+    public int cancel(Status status, Enemy target) {
+        Objects.requireNonNull(status);
+        int removed = 0;
+        for (int b = 0; b < WHEEL; b++) {
+            int prev = -1;
+            for (int s = heads[b]; s >= 0;) {
+                int following = next[s];
+                if (kinds[s] == status.ordinal() && targets[s] == target) {
+                    unlink(b, prev, s);
+                    hash -= key(s);
+                    release(s);
+                    removed++;
+                } else {
+                    prev = s;
+                }
+                s = following;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Applies the statuses due this turn and moves to the next turn. Statuses
+     * on dead enemies are dropped.
+     *
+     * @param hero the hero of the fight
+     */
+    public void tick(Hero hero) {
+        Objects.requireNonNull(hero);
+        // Detach the bucket, then put back what is not due yet
+        int b = turn & (WHEEL - 1);
+        int s = heads[b];
+        heads[b] = -1;
+        while (s >= 0) {
+            int following = next[s];
+            Enemy target = targets[s];
+            if (due[s] != turn) {
+                // A later round of the wheel
+                link(s, due[s]);
+            } else {
+                hash -= key(s);
+                if (target == null || !target.isDead()) {
+                    apply(STATUSES[kinds[s]], hero, target, amounts[s]);
+                }
+                if (--remaining[s] > 0 && (target == null || !target.isDead())) {
+                    link(s, turn + periods[s]);
+                    hash += key(s);
+                } else {
+                    release(s);
+                }
+            }
+            s = following;
+        }
+        turn++;
+    }
+
+    private static void apply(Status status, Hero hero, Enemy target, int amount) {
+        int delta = status == Status.POISON ? -amount : amount;
+        if (target == null) {
+            hero.setHp(hero.getHp() + delta);
+        } else {
+            // setHp adds to the current HP of an enemy
+            target.setHp(delta);
+        }
+    }
+
+    /** @return Number of statuses still running */
+    public int active() {
+        return active;
+    }
+
+    /** @return Zobrist hash of the running statuses */
+    public long hash() {
+        return hash;
+    }
+
+    // Key of a running status: everything that decides its next ticks
+    private long key(int s) {
+        Enemy target = targets[s];
+        int index = target == null ? -1 : target.id();
+        return Zobrist.mix(Zobrist.key(Zobrist.STATUS, index, kinds[s] << 16 ^ amounts[s])
+                ^ (long) remaining[s] << 40 ^ (long) periods[s] << 32 ^ (due[s] & 0xFFFFFFFFL));
+    }
+
+    /** @return Turn of the next tick */
+    public int turn() {
+        return turn;
+    }
+
+    /**
+     * @param status kind of status
+     * @param target the enemy, or null for the hero
+     * @return total amount applied on the next tick by the statuses of that
+     *         kind on the target
+     */
+    public int amount(Status status, Enemy target) {
+        Objects.requireNonNull(status);
+        int total = 0;
+        for (int b = 0; b < WHEEL; b++) {
+            for (int s = heads[b]; s >= 0; s = next[s]) {
+                if (kinds[s] == status.ordinal() && targets[s] == target) {
+                    total += amounts[s];
+                }
+            }
+        }
+        return total;
+    }
+
+    // Puts a status in the bucket of the given turn
+    private void link(int s, int when) {
+        int b = when & (WHEEL - 1);
+        due[s] = when;
+        next[s] = heads[b];
+        heads[b] = s;
+    }
+
+    private void unlink(int b, int prev, int s) {
+        if (prev < 0) {
+            heads[b] = next[s];
+        } else {
+            next[prev] = next[s];
+        }
+    }
+
+    // Index of a free status, growing the pool when needed
+    private int allocate() {
+        if (free >= 0) {
+            int s = free;
+            free = next[s];
+            return s;
+        }
+        if (used == kinds.length) {
+            int capacity = used * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            remaining = Arrays.copyOf(remaining, capacity);
+            periods = Arrays.copyOf(periods, capacity);
+            due = Arrays.copyOf(due, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return used++;
+    }
+
+    private void release(int s) {
+        targets[s] = null;
+        next[s] = free;
+        free = s;
+        active--;
+    }
+}
@@ -0,0 +1,116 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Fixed-size cache of evaluated fight positions, indexed by their Zobrist
+ * hash (see {@link CombatEngine#hash()}).
+ * <p>
+ * Positions reached through different orders of the same actions share a
+ * hash, so a search finds them here instead of expanding them again. Each
+ * hash maps to one entry; on a collision the entry searched deeper is kept,
+ * so the table never grows however many positions it meets.
+ * </p>
+ *
+ * @param <V> value of a position
+ */
+public final class TranspositionTable<V> {
+    /** Number of entries of the default table */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final long[] keys;
+    private final Object[] values;
+    // Depth of the search that produced each value, -1 for an empty entry
+    private final int[] depths;
+    private final int mask;
+    private int size;
+    private long hits;
+    private long probes;
+
+    public TranspositionTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** @param capacity number of entries, a power of two */
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        keys = new long[capacity];
+        values = new Object[capacity];
+        depths = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(depths, -1);
+    }
+
+    // Entry of a hash, from its high bits: the low ones are the most regular
+    private int index(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    /**
+     * @param key   hash of a position
+     * @param depth depth the caller needs
+     * @return the value stored for this position by a search at least that
+     *         deep, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key, int depth) {
+        probes++;
+        int i = index(key);
+        if (depths[i] >= depth && keys[i] == key) {
+            hits++;
+            return (V) values[i];
+        }
+        return null;
+    }
+
+    /**
+     * Stores the value of a position, unless its entry holds another position
+     * searched deeper.
+     *
+     * @param key   hash of the position
+     * @param depth depth of the search that produced value, 0 or more
+     * @param value value of the position
+     */
+    public void put(long key, int depth, V value) {
+        Objects.requireNonNull(value);
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth < 0");
+        }
+        int i = index(key);
+        if (depths[i] < 0) {
+            size++;
+        } else if (keys[i] != key && depths[i] > depth) {
+            return;
+        }
+        keys[i] = key;
+        depths[i] = depth;
+        values[i] = value;
+    }
+
+    /** Empties the table. */
+    public void clear() {
+        Arrays.fill(depths, -1);
+        Arrays.fill(values, null);
+        size = 0;
+        hits = 0;
+        probes = 0;
+    }
+
+    /** @return Number of entries in use */
+    public int size() {
+        return size;
+    }
+
+    /** @return Number of entries */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** @return Share of the lookups answered by the table since the last clear */
+    public double hitRate() {
+        return probes == 0 ? 0.0 : (double) hits / probes;
+    }
+}
@@ -0,0 +1,70 @@
+package model;
+
+/**
+ * Keys of the Zobrist hashes of a fight.
+ * <p>
+ * A hash is the xor of one key per (feature, index, value) of the state, so
+ * changing one value updates it in O(1):
+ * {@code hash ^= update(feature, index, oldValue, newValue)}. Keys are
+ * computed by a mixing function rather than drawn into tables because values
+ * such as HP have no fixed bound.
+ * </p>
+ */
+public final class Zobrist {
+
+    /** Hero features, index 0 */
+    public static final int HERO_HP = 0;
+    public static final int HERO_HP_MAX = 1;
+    public static final int HERO_ENERGY = 2;
+    public static final int HERO_MANA = 3;
+    public static final int HERO_PROTECTION = 4;
+    public static final int HERO_CURSES = 5;
+    /** Backpack features, indexed by slot */
+    public static final int ITEM = 6;
+    public static final int ITEM_PLACE = 7;
+    public static final int ITEM_STAT = 8;
+    public static final int ITEM_USES = 9;
+    /** Enemy features, indexed by slot in the group */
+    public static final int ENEMY = 10;
+    public static final int ENEMY_HP = 11;
+    public static final int ENEMY_ATTACK = 12;
+    public static final int ENEMY_INTENTS = 13;
+    /** Statuses, indexed by target */
+    public static final int STATUS = 14;
+
+    // Changes every key together without changing how they combine
+    private static final long SEED = 0x5DEECE66DL;
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param feature one of the constants of this class
+     * @param index   slot or index of the entity having the feature
+     * @param value   value of the feature
+     * @return the key of that value
+     */
+    public static long key(int feature, int index, int value) {
+        return mix(SEED ^ (long) feature << 56 ^ (long) index << 32 ^ (value & 0xFFFFFFFFL));
+    }
+
+    /**
+     * @return the value to xor into a hash when a feature goes from oldValue
+     *         to newValue
+     */
+    public static long update(int feature, int index, int oldValue, int newValue) {
+        return oldValue == newValue ? 0L : key(feature, index, oldValue) ^ key(feature, index, newValue);
+    }
+
+    /**
+     * SplitMix64 finalizer: spreads every bit of z over the result.
+     *
+     * @param z any value
+     * @return its mix
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -12,9 +12,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.random.RandomGenerator;
 
 import Enemies.Enemy;
+import Enemies.Intent;
 import Enemies.LivingShadow;
 import Enemies.Ratwolf;
 import Enemies.QueenBee;
@@ -25,14 +26,19 @@ import Items.Item;
 import Items.Curse;
 import Rooms.EnemyRoom;
 import model.BackPack;
+import model.ActionPreview;
+import model.CombatEngine;
+import model.CombatEventBus;
+import model.CombatLog;
 import model.Dungeon;
 import model.Hero;
+import model.MctsSearch;
 
 public class EcranCombat implements Screen, DragSupport {
     // a lis of the cells to expand the backpack
     ArrayList<Point> expandBag;
-    // expand cells list
-    ArrayList<Point> availableCells;
+    // true once the backpack was expanded after the fight
+    boolean expanded;
     // boolean for combat mode
     boolean combatMode = true;
     // Reference to the game window/view
@@ -69,7 +75,21 @@ public class EcranCombat implements Screen, DragSupport {
 
 
     private EnemyRoom room; // Current combat room holding enemies
-    private int totalXP = 0; // Total XP from enemies in this room
+    private final CombatEngine engine; // Combat rules, shared with simulations
+    private final CombatLog log; // Last combat events, shown under the hero stats
+    private final ActionPreview preview = new ActionPreview(); // Reused on every pointer move
+    private EnemyGraphique previewEnemy; // Enemy under the dragged item, null if none
+    private static final int LOG_LINES = 8;
+    private final RandomGenerator hints; // Draws the playouts of the hints, from the run
+    private MctsSearch search; // Suggests moves, created on the first request
+    private String hint; // Last suggested move, cleared once a move is played
+    private int hintPlayouts; // Playouts left before the hint is shown, 0 if none is searched
+    // A hint is searched a few playouts per frame so the screen keeps
+    // answering; counting playouts rather than time gives the same hint for
+    // the same run
+    private static final int HINT_PLAYOUTS = 50_000;
+    private static final int FRAME_PLAYOUTS = 2_048;
+    private static final long FRAME_NANOS = 4_000_000L;
 
     /**
      * Loads enemies for the combat screen and sets up their graphical
@@ -127,8 +147,6 @@ public class EcranCombat implements Screen, DragSupport {
             // Create a graphic representation of enemy
             EnemyGraphique eg = new EnemyGraphique(eimage, x, y, desiredWidth, desiredHeight);
             index++;
-            // Prepare enemy AI actions (called here on every enemy)
-            room.enemies().forEach(e -> room.chooseActionEnemies(e, 2));
 
             // Store graphic-enemy pair
             enemyGraphique.put(eg, enemy);
@@ -284,6 +302,53 @@ public class EcranCombat implements Screen, DragSupport {
         g.drawString("Protection: " + hero.getProtection(), x + 15, y + line);
     }
 
+    /**
+     * Draws the last combat events under the hero's statistics panel.
+     */
+    private void drawCombatLog(Graphics2D g) {
+        log.update();
+        List<String> lines = log.lines();
+        if (lines.isEmpty()) {
+            return;
+        }
+        int x = 20;
+        int y = 245;
+        int width = 240;
+        int height = 20 + lines.size() * 18;
+
+        g.setColor(new Color(30, 30, 30, 200));
+        g.fillRoundRect(x, y, width, height, 20, 20);
+        g.setColor(Color.WHITE);
+        g.setFont(new Font("Arial", Font.PLAIN, 13));
+        for (int i = 0; i < lines.size(); i++) {
+            g.drawString(lines.get(i), x + 15, y + 22 + i * 18);
+        }
+    }
+
+    /**
+     * Draws the predicted result of dropping the dragged item on the enemy under
+     * the pointer.
+     */
+    private void drawPreview(Graphics2D g) {
+        if (previewEnemy == null || dragging == null) {
+            return;
+        }
+        String text = preview.killsTarget() ? "-" + preview.damage() + " KILL" : "-" + preview.damage();
+        if (preview.block() > 0) {
+            text += "  +" + preview.block() + " block";
+        }
+        g.setFont(new Font("Arial", Font.BOLD, 16));
+        FontMetrics fm = g.getFontMetrics();
+        int w = fm.stringWidth(text) + 16;
+        int x = previewEnemy.getScreenX() + (previewEnemy.getWidth() - w) / 2;
+        int y = previewEnemy.getScreenY() - 60;
+
+        g.setColor(new Color(30, 30, 30, 200));
+        g.fillRoundRect(x, y, w, 26, 12, 12);
+        g.setColor(preview.killsTarget() ? Color.RED : Color.WHITE);
+        g.drawString(text, x + 8, y + 19);
+    }
+
     /**
      * Draws a health bar above the enemy graphic.
      */
@@ -341,11 +406,8 @@ public class EcranCombat implements Screen, DragSupport {
             g.drawImage(eg.getImage(), x, y, w, h, null);
 
             // Draw actions above the enemy
-            var actions = enemy.actions();
-            if (actions != null && !actions.isEmpty()) {
-                String actionsText = actions.stream()
-                        .map(this::actionToString)
-                        .collect(Collectors.joining(", "));
+            if (enemy.intents() != 0) {
+                String actionsText = Intent.label(enemy.intents());
 
                 // Background for readability
                 FontMetrics fm = g.getFontMetrics();
@@ -440,37 +502,30 @@ public class EcranCombat implements Screen, DragSupport {
         }
     }
 
-    // Helper method to convert action codes to strings
-    private String actionToString(int actionCode) {
-        return switch (actionCode) {
-            case 1 -> "Attack";
-            case 2 -> "Defend";
-            case 3 -> "Effect";
-            default -> "Unknown";
-        };
-    }
-
     /**
      * Constructor initializes the combat screen with the game view and hero.
+     *
+     * @param hints generator of the move hints, a stream of the run
      */
-    public EcranCombat(ZenGameView fenetre, Hero hero, EnemyRoom room) {
+    public EcranCombat(ZenGameView fenetre, Hero hero, EnemyRoom room, RandomGenerator hints) {
         Objects.requireNonNull(fenetre);
         Objects.requireNonNull(hero);
         Objects.requireNonNull(room);
+        Objects.requireNonNull(hints);
+        this.hints = hints;
         this.expandBag = new ArrayList<Point>();
         this.fenetre = fenetre;
         this.itemsGraphique = fenetre.getItems(); // Get all items from the view
         this.sac = hero.getBackpack();
-        sac.activate(hero);
         this.room = room;
-        availableCells = sac.getExpandList();
+        // The log subscribes first, to show the passive effects of the start
+        CombatEventBus events = new CombatEventBus();
+        this.log = new CombatLog(events, hero, room.enemies(), LOG_LINES);
+        this.engine = new CombatEngine(hero, room, events);
         this.itemsDepart = new ArrayList<>();
         chargerBG(); // Load background image
         chargerImages(); // Load heroine image
         chargerEnemies(fenetre.getRealWidth(), fenetre.getRealHeight()); // Load enemies for screen
-
-        // Calculate total XP from enemies
-        this.totalXP = room.enemies().stream().mapToInt(Enemy::exp).sum();
     }
 
     /**
@@ -549,20 +604,22 @@ public class EcranCombat implements Screen, DragSupport {
         }
     }
 
-    private void drawAvailableCases(Graphics2D g, ArrayList<Point> cases) {
+    private void drawAvailableCases(Graphics2D g) {
         Objects.requireNonNull(g);
-        Objects.requireNonNull(cases);
-        if (cases.isEmpty())
+        if (expanded || sac.frontierCount() == 0)
             return;
 
         g.setColor(new Color(255, 215, 0)); // doré
         g.setStroke(new BasicStroke(2));
 
-        for (Point p : cases) {
-            int x = sacX + p.x * cellSize;
-            int y = sacY + p.y * cellSize;
+        // cells the backpack can grow into, read from the frontier kept by the model
+        for (int row = 0; row < sac.rows(); row++) {
+            for (long m = sac.frontierRow(row); m != 0L; m &= m - 1) {
+                int x = sacX + Long.numberOfTrailingZeros(m) * cellSize;
+                int y = sacY + row * cellSize;
 
-            g.drawRect(x, y, cellSize, cellSize);
+                g.drawRect(x, y, cellSize, cellSize);
+            }
         }
     }
 
@@ -587,10 +644,11 @@ public class EcranCombat implements Screen, DragSupport {
 
         // Draw hero stats panel
         drawHeroStats(g, hero);
+        drawCombatLog(g);
 
         if (combatMode) {
             // Draw the "End Turn" Mark
-            drawButtonRemark(g, "Press K to end");
+            drawButtonRemark(g, "K: end  H: hint");
         } else {
             // Draw the "Expand" Mark
             drawButtonRemark(g, "Press A to expand");
@@ -621,6 +679,9 @@ public class EcranCombat implements Screen, DragSupport {
                 g.fillRoundRect(x, y, cellSize - 6, cellSize - 6, 15, 15);
             }
         }
+        if (dragging != null) {
+            Screen.drawDropTargets(g, sac, itemsGraphique.get(dragging), sacX, sacY, cellSize);
+        }
 
         // Draw all items inside the backpack (not in itemsDepart)
         for (Map.Entry<ItemGraphique, Item> entry : itemsGraphique.entrySet()) {
@@ -639,7 +700,7 @@ public class EcranCombat implements Screen, DragSupport {
         drawEnemies(g);
         // draw the available cells to expand and selected ones after the combat
         if (combatMode == false) {
-            drawAvailableCases(g, availableCells);
+            drawAvailableCases(g);
             drawSelectedCases(g, expandBag);
         }
         if (currentHoveredItem != null) {
@@ -647,6 +708,9 @@ public class EcranCombat implements Screen, DragSupport {
         }
         drawEnemiesStats(g);
         drawItemInfo(g);
+        drawPreview(g);
+        searchHint();
+        drawHint(g);
         
         if (showVictory) {
             drawVictoryMessage(g, W, H);
@@ -797,37 +861,40 @@ public class EcranCombat implements Screen, DragSupport {
         Objects.requireNonNull(hero);
         // Case: Using an item on the hero while dragging
         if (dragging != null) {
-            if (x >= sacX && x <= sacX + cellSize * 7 &&
-                    y >= sacY && y <= sacY + cellSize * 5) {
+            if (x >= sacX && x <= sacX + cellSize * sac.cols() &&
+                    y >= sacY && y <= sacY + cellSize * sac.rows()) {
 
-                int col = Math.min(Math.max((x - sacX) / cellSize, 0), 6);
-                int row = Math.min(Math.max((y - sacY) / cellSize, 0), 4);
+                int col = Math.min(Math.max((x - sacX) / cellSize, 0), sac.cols() - 1);
+                int row = Math.min(Math.max((y - sacY) / cellSize, 0), sac.rows() - 1);
 
                 Item itemInSac = sac.getItemAtPoint(row, col);
                 Item model = itemsGraphique.get(dragging);
 
                 // If the item clicked is the same as the dragged item, use it on hero (except
                 // weapon)
-                if (itemInSac != null && model.equals(itemInSac) && !(itemInSac instanceof Weapon)) {
-                    model.onUse(hero, null, room.enemies());
-                    if (!sac.getItems().containsKey(model)) {
+                if (itemInSac != null && model.equals(itemInSac) && !(itemInSac instanceof Weapon)
+                        && engine.outcome() == CombatEngine.Outcome.ONGOING) {
+                    CombatEngine.Outcome outcome = engine.useItem(model, null);
+                    forgetHint();
+                    if (!sac.contains(model)) {
                         sac.removeItem(row, col); // Remove item from backpack
                         itemsGraphique.remove(dragging); // Remove from graphics map
                         itemsDepart.remove(dragging); // Remove from outside items
                     }
 
                     dragging = null;
+                    afterCommand(outcome);
                     return;
                 }
             }
         }
 
         // Case: Click on an item inside the backpack to pick it up (start dragging)
-        if (x >= sacX && x <= sacX + cellSize * 7 &&
-                y >= sacY && y <= sacY + cellSize * 5) {
+        if (x >= sacX && x <= sacX + cellSize * sac.cols() &&
+                y >= sacY && y <= sacY + cellSize * sac.rows()) {
 
-            int col = Math.min(Math.max((x - sacX) / cellSize, 0), 6);
-            int row = Math.min(Math.max((y - sacY) / cellSize, 0), 4);
+            int col = Math.min(Math.max((x - sacX) / cellSize, 0), sac.cols() - 1);
+            int row = Math.min(Math.max((y - sacY) / cellSize, 0), sac.rows() - 1);
 
             Item itemInSac = sac.getItemAtPoint(row, col);
 
@@ -866,8 +933,8 @@ public class EcranCombat implements Screen, DragSupport {
 
     // Handles clicks after the fight , for bag expansion, and awards.
     private boolean isInsideBackpack(int x, int y) {
-        return x >= sacX && x <= sacX + cellSize * 7 &&
-                y >= sacY && y <= sacY + cellSize * 5;
+        return x >= sacX && x <= sacX + cellSize * sac.cols() &&
+                y >= sacY && y <= sacY + cellSize * sac.rows();
     }
 
     private int getBackpackColumn(int x) {
@@ -959,10 +1026,10 @@ public class EcranCombat implements Screen, DragSupport {
         selecteditem = dragging; // update selected item
         if (dragging != null) {
             // Check if dropped inside backpack area
-            if (x >= sacX && x <= (sacX + cellSize * 7) && y >= sacY && y <= (sacY + cellSize * 5)) {
+            if (x >= sacX && x <= (sacX + cellSize * sac.cols()) && y >= sacY && y <= (sacY + cellSize * sac.rows())) {
                 // Calculate grid cell for drop
-                int col = Math.min(Math.max((dragging.getScreenX() - sacX) / cellSize, 0), 6);
-                int row = Math.min(Math.max((dragging.getScreenY() - sacY) / cellSize, 0), 4);
+                int col = Math.min(Math.max((dragging.getScreenX() - sacX) / cellSize, 0), sac.cols() - 1);
+                int row = Math.min(Math.max((dragging.getScreenY() - sacY) / cellSize, 0), sac.rows() - 1);
                 // Snap item to cell grid position
                 dragging.SetscreenX(sacX + col * cellSize);
                 dragging.SetscreenY(sacY + row * cellSize);
@@ -986,8 +1053,8 @@ public class EcranCombat implements Screen, DragSupport {
             selecteditem = dragging;
             dragging = null; // stop dragging
         } else {
-            int col = Math.min(Math.max((x - sacX) / cellSize, 0), 6);
-            int row = Math.min(Math.max((y - sacY) / cellSize, 0), 4);
+            int col = Math.min(Math.max((x - sacX) / cellSize, 0), sac.cols() - 1);
+            int row = Math.min(Math.max((y - sacY) / cellSize, 0), sac.rows() - 1);
             Point p = new Point(col, row);
 
             // if we click on the same cell two times we cancel it
@@ -1006,11 +1073,12 @@ public class EcranCombat implements Screen, DragSupport {
         Objects.requireNonNull(hero);
         if (dragging != null) {
             for (var e : enemyGraphique.keySet()) {
-                if (x >= e.getScreenX() && x <= (e.getScreenX() + e.getWidth()) &&
+                if (engine.outcome() == CombatEngine.Outcome.ONGOING &&
+                        x >= e.getScreenX() && x <= (e.getScreenX() + e.getWidth()) &&
                         y >= e.getScreenY() && y <= (e.getScreenY() + e.getHeight())) {
 
-                    int col = Math.min(Math.max((dragging.getScreenXO() - sacX) / cellSize, 0), 6);
-                    int row = Math.min(Math.max((dragging.getScreenYO() - sacY) / cellSize, 0), 4);
+                    int col = Math.min(Math.max((dragging.getScreenXO() - sacX) / cellSize, 0), sac.cols() - 1);
+                    int row = Math.min(Math.max((dragging.getScreenYO() - sacY) / cellSize, 0), sac.rows() - 1);
 
                     dragging.SetscreenX(sacX + col * cellSize);
                     dragging.SetscreenY(sacY + row * cellSize);
@@ -1018,43 +1086,9 @@ public class EcranCombat implements Screen, DragSupport {
                     Item model = itemsGraphique.get(dragging);
 
                     Enemy new_enemy = enemyGraphique.get(e);
-                    model.onUse(hero, new_enemy, room.enemies());
-                    if (new_enemy.isDead()) {
-                        room.enemies().remove(new_enemy);
-                        enemyGraphique.remove(e);
-                        // room.setEnnemies(tempList);
-
-                        if (room.enemies().isEmpty()) {
-                            room.setCleared(true);
-                            hero.gainXP(totalXP);
-                            hero.levelUp();
-                           
-                            showVictory = true;
-                            endMessageStartTime = System.currentTimeMillis();
-                            combatMode = false;
-
-
-                            for (var item : itemsDepart) {
-                                itemsGraphique.remove(item);
-                            }
-
-                            itemsDepart.clear();
-
-                            // Create a list for curses received during battle
-                            ArrayList<Item> curseList = new ArrayList<>();
-                            int cursesReceived = hero.getCursesReceivedInBattle();
-                            for (int i = 0; i < cursesReceived; i++) {
-                                curseList.add(new Curse("Curse"));
-                            }
-
-                            // Add the curse list to rewards
-                            room.rewards().addAll(curseList);
-                            hero.resetCursesReceivedInBattle(); // Reset for next battle
-
-                            chargerItemsDepart(room.rewards());
-                            combatMode = false;
-                        }
-                    }
+                    CombatEngine.Outcome outcome = engine.useItem(model, new_enemy);
+                    forgetHint();
+                    afterCommand(outcome);
 
                     itemsGraphique.put(dragging, model);
                     itemsDepart.remove(dragging);
@@ -1071,8 +1105,8 @@ public class EcranCombat implements Screen, DragSupport {
 
             // If not dropped on enemy, snap back to backpack grid
 
-            int col = Math.min(Math.max((dragging.getScreenXO() - sacX) / cellSize, 0), 6);
-            int row = Math.min(Math.max((dragging.getScreenYO() - sacY) / cellSize, 0), 4);
+            int col = Math.min(Math.max((dragging.getScreenXO() - sacX) / cellSize, 0), sac.cols() - 1);
+            int row = Math.min(Math.max((dragging.getScreenYO() - sacY) / cellSize, 0), sac.rows() - 1);
 
             dragging.SetscreenX(sacX + col * cellSize);
             dragging.SetscreenY(sacY + row * cellSize);
@@ -1135,11 +1169,10 @@ public class EcranCombat implements Screen, DragSupport {
     private boolean inside(ItemGraphique it, int x, int y) {
         Objects.requireNonNull(it);
         var item = itemsGraphique.get(it);
-        var shape = item.occupiedCases();
 
         // Calculate width and height in pixels based on occupied cells
-        int w = (shape.stream().mapToInt(p -> p.x).max().orElse(0) + 1) * cellSize;
-        int h = (shape.stream().mapToInt(p -> p.y).max().orElse(0) + 1) * cellSize;
+        int w = item.widthItem() * cellSize;
+        int h = item.heightItem() * cellSize;
 
         return x >= it.getScreenX() && x <= it.getScreenX() + w &&
                 y >= it.getScreenY() && y <= it.getScreenY() + h;
@@ -1147,34 +1180,113 @@ public class EcranCombat implements Screen, DragSupport {
 
     public void enemyTurn(Hero hero) {
         // Case: Click on the "End Turn" button
-        room.enemiesTurn(hero);
-        sac.desactivate(hero);
-        sac.activate(hero);
-        // Execute enemies' turn
-        room.enemies().forEach(e -> {
-            room.chooseActionEnemies(e, 3);
-            e.baseShape();
-        }); // Prepare enemy actions
-
-        // Curses applied during enemy turn are now tracked and will appear as rewards
-        // after battle
-        // No need to spawn them immediately during combat
-        // Clear any pending curses since they'll be added to rewards at battle end
-        while (hero.popCurse()) {
-            // Just consume the pending curses, they're already counted in
-            // cursesReceivedInBattle
+        if (engine.outcome() != CombatEngine.Outcome.ONGOING) {
+            return;
+        }
+        forgetHint();
+        // Execute enemies' turn; curses received are given as rewards after battle
+        afterCommand(engine.endTurn());
+    }
+
+    /**
+     * Brings the screen in line with the fight after a command: removes the
+     * enemies that died, whatever killed them, and shows the victory with its
+     * rewards or the defeat once the fight is over.
+     */
+    private void afterCommand(CombatEngine.Outcome outcome) {
+        enemyGraphique.values().removeIf(enemy -> !engine.enemies().contains(enemy));
+        switch (outcome) {
+            case VICTORY -> {
+                showVictory = true;
+                endMessageStartTime = System.currentTimeMillis();
+                combatMode = false;
+
+                // Items left outside the backpack are lost
+                for (var item : itemsDepart) {
+                    if (!sac.contains(itemsGraphique.get(item))) {
+                        itemsGraphique.remove(item);
+                    }
+                }
+                itemsDepart.clear();
+
+                // Rewards include the curses received during battle
+                chargerItemsDepart(engine.rewards());
+            }
+            case DEFEAT -> {
+                // display lose screen
+                showDefeat = true;
+                endMessageStartTime = System.currentTimeMillis();
+                System.out.println("End of the game, the hero is dead");
+            }
+            case ONGOING -> {
+            }
         }
+    }
 
-        if (hero.isDied()) {
-            // display lose screen
-      
-        	showDefeat = true;
-        	endMessageStartTime = System.currentTimeMillis();
+    /**
+     * Starts searching the best move; it is shown once found, until a move is
+     * played.
+     */
+    public void suggestMove() {
+        if (!combatMode || engine.outcome() != CombatEngine.Outcome.ONGOING || hintPlayouts > 0) {
+            return;
+        }
+        if (search == null) {
+            search = new MctsSearch(hints);
+        }
+        hintPlayouts = HINT_PLAYOUTS;
+        hint = "Hint: thinking...";
+    }
 
-            System.out.println("End of the game, the hero is dead");
+    /**
+     * Spends the playouts of one frame on the hint being searched, and shows
+     * the move once they are all spent.
+     */
+    private void searchHint() {
+        if (hintPlayouts == 0) {
             return;
         }
-        return;
+        if (engine.outcome() != CombatEngine.Outcome.ONGOING) {
+            forgetHint();
+            return;
+        }
+        MctsSearch.Move move = search.search(engine, FRAME_NANOS, Math.min(FRAME_PLAYOUTS, hintPlayouts));
+        hintPlayouts -= search.playouts();
+        if (hintPlayouts > 0) {
+            return;
+        }
+        if (move.endsTurn()) {
+            hint = "Hint: end the turn";
+        } else if (move.target() == null) {
+            hint = "Hint: use " + move.item().name();
+        } else {
+            hint = "Hint: " + move.item().name() + " on " + move.target().getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Stops the hint being searched and hides the one shown.
+     */
+    private void forgetHint() {
+        hint = null;
+        hintPlayouts = 0;
+    }
+
+    /**
+     * Draws the suggested move under the turn button.
+     */
+    private void drawHint(Graphics2D g) {
+        if (hint == null) {
+            return;
+        }
+        g.setFont(new Font("Arial", Font.BOLD, 15));
+        int w = g.getFontMetrics().stringWidth(hint) + 30;
+        int x = fenetre.getRealWidth() - w - 20;
+        int y = 80;
+        g.setColor(new Color(30, 30, 30, 200));
+        g.fillRoundRect(x, y, w, 30, 15, 15);
+        g.setColor(Color.YELLOW);
+        g.drawString(hint, x + 15, y + 20);
     }
 
     /**
@@ -1241,10 +1353,23 @@ public class EcranCombat implements Screen, DragSupport {
         Objects.requireNonNull(sac);
         sac.expand(expandBag);
         expandBag.clear();
-        availableCells.clear();
+        expanded = true;
     }
 
     public void hover(int x, int y) {
+        previewEnemy = null;
+        if (dragging != null && combatMode && engine.outcome() == CombatEngine.Outcome.ONGOING) {
+            for (var e : enemyGraphique.keySet()) {
+                if (x >= e.getScreenX() && x <= e.getScreenX() + e.getWidth()
+                        && y >= e.getScreenY() && y <= e.getScreenY() + e.getHeight()) {
+                    if (preview.evaluate(itemsGraphique.get(dragging), engine.hero(), enemyGraphique.get(e),
+                            room.enemies())) {
+                        previewEnemy = e;
+                    }
+                    break;
+                }
+            }
+        }
         for (var ig : itemsGraphique.keySet()) {
             if (inside(ig, x, y)) {
                 currentHoveredItem = ig;
@@ -1295,7 +1420,7 @@ public class EcranCombat implements Screen, DragSupport {
      */
     public void spawnCurse() {
         Objects.requireNonNull(sac);
-        Curse curse = new Curse("Curse");
+        Curse curse = new Curse("Curse", room.random());
         ItemGraphique ig = new ItemGraphique(curse.name(), Screen.load("/ressources/icones/curse.png"));
         if (ig.getImage() == null) {
             System.err.println("Curse image not found, using valid placeholder if available");
@@ -1321,7 +1446,7 @@ public class EcranCombat implements Screen, DragSupport {
             Item item = entry.getValue();
 
             // If item is not in backpack's item map AND not in itemsDepart, remove it
-            if (!sac.getItems().containsKey(item) && !itemsDepart.contains(ig)) {
+            if (!sac.contains(item) && !itemsDepart.contains(ig)) {
                 it.remove();
             }
         }
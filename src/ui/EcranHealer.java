@@ -267,12 +267,9 @@ public class EcranHealer implements Screen {
         // Get the model item associated with this graphical item
         var item = itemsGraphique.get(it);
 
-        // Get shape (occupied cells) to calculate width and height in cells
-        var shape = item.occupiedCases();
-
-        // Width and height in cells (grid units)
-        int wCases = shape.stream().mapToInt(p -> p.x).max().orElse(0) + 1;
-        int hCases = shape.stream().mapToInt(p -> p.y).max().orElse(0) + 1;
+        // Width and height in cells (grid units), precomputed by the shape
+        int wCases = item.widthItem();
+        int hCases = item.heightItem();
 
         // Convert to pixel size using cellSize
         int w = wCases * cellSize;
@@ -89,7 +89,7 @@ public class EcranMenuPrincipal implements Screen {
         // --- Button 1: Play ---
         int by1 = realH / 3;
         if (inButton(x, y, bx, by1, bw, bh)) {
-            fenetre.setScreen(new EcranPartie(fenetre, hero, new ArrayList<>()));
+            fenetre.setScreen(new EcranPartie(fenetre, hero, new ArrayList<>(), d.getRandom()));
             return;
         }
 
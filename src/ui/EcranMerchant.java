@@ -50,15 +50,20 @@ public class EcranMerchant implements Screen, DragSupport {
 
     /* ========================= CONSTRUCTEUR ========================= */
 
-    public EcranMerchant(ZenGameView fenetre, Hero hero) {
+    /**
+     * @param merchant the merchant of the room, stocked when the floor was
+     *                 generated and keeping what was not sold between visits
+     */
+    public EcranMerchant(ZenGameView fenetre, Hero hero, Merchant merchant) {
         Objects.requireNonNull(fenetre);
         Objects.requireNonNull(hero);
+        Objects.requireNonNull(merchant);
 
         this.fenetre = fenetre;
         this.hero = hero;
         this.sac = hero.getBackpack();
         this.itemsGraphique = fenetre.getItems();
-        this.merchant = new Merchant();
+        this.merchant = merchant;
 
         chargerBG();
         chargerImages();
@@ -157,6 +162,9 @@ public class EcranMerchant implements Screen, DragSupport {
 
         calculateBackpackDimensions(W, H);
         drawBackpackGrid(g);
+        if (dragging != null) {
+            Screen.drawDropTargets(g, sac, itemsGraphique.get(dragging), sacX, sacY, cellSize);
+        }
         drawAllItems(g);
         drawBuyButton(g, "Press S to sell, B to buy");
 
@@ -375,24 +383,16 @@ public class EcranMerchant implements Screen, DragSupport {
     }
 
     private int getHeroGold() {
-        BackPack bp = hero.getBackpack();
-
-        for (int r = 0; r < bp.getGrille().length; r++) {
-            for (int c = 0; c < bp.getGrille()[0].length; c++) {
-                if (bp.getGrille()[r][c] instanceof Items.Gold g) {
-                    return g.goldValue();
-                }
-            }
-        }
-        return 0;
+        // Purchases only take gold from the canonical stack
+        return hero.getBackpack().spendableGold();
     }
 
     private int getBackpackColumn(int x) {
-        return Math.min(Math.max((x - sacX) / cellSize, 0), 6);
+        return Math.min(Math.max((x - sacX) / cellSize, 0), sac.cols() - 1);
     }
 
     private int getBackpackRow(int y) {
-        return Math.min(Math.max((y - sacY) / cellSize, 0), 4);
+        return Math.min(Math.max((y - sacY) / cellSize, 0), sac.rows() - 1);
     }
 
     private void snapToGrid(int col, int row) {
@@ -535,8 +535,8 @@ public class EcranMerchant implements Screen, DragSupport {
     }
 
     private boolean isInsideBackpack(int x, int y) {
-        return x >= sacX && x <= sacX + cellSize * 7 &&
-                y >= sacY && y <= sacY + cellSize * 5;
+        return x >= sacX && x <= sacX + cellSize * sac.cols() &&
+                y >= sacY && y <= sacY + cellSize * sac.rows();
     }
 
     private void ensureItemInOutsideList() {
@@ -18,6 +18,7 @@ import Items.Curse;
 import model.BackPack;
 import model.Dungeon;
 import model.Hero;
+import model.RunRandom;
 
 public class EcranPartie implements Screen, DragSupport {
 
@@ -33,11 +34,18 @@ public class EcranPartie implements Screen, DragSupport {
     // Size in pixels of one cell in the backpack grid
     private int cellSize;
     private int sacX, sacY;
+    // Layouts saved before each move, for undo
+    private final UndoHistory history = new UndoHistory();
     private Button button;
 
-    public EcranPartie(ZenGameView fenetre, Hero hero, List<Item> awards) {
+    /**
+     * @param awards items offered, the starting kit of the run when empty
+     * @param run    random streams of the run, drawing the starting kit
+     */
+    public EcranPartie(ZenGameView fenetre, Hero hero, List<Item> awards, RunRandom run) {
         Objects.requireNonNull(fenetre);
         Objects.requireNonNull(hero);
+        Objects.requireNonNull(run);
         this.fenetre = fenetre;
         this.itemsGraphique = fenetre.getItems();
         this.sac = hero.getBackpack();
@@ -46,7 +54,7 @@ public class EcranPartie implements Screen, DragSupport {
         chargerImages();
 
         if (awards.isEmpty()) {
-            chargerItemsEcranPartie();
+            chargerItemsEcranPartie(run);
         } else {
             Screen.ajouterItemsFromList(awards, 0, 0, 4, itemsDepart, itemsGraphique);
         }
@@ -60,9 +68,9 @@ public class EcranPartie implements Screen, DragSupport {
         heroine = Screen.load("/ressources/hero/heroine.png");
     }
 
-    private void chargerItemsEcranPartie() {
+    private void chargerItemsEcranPartie(RunRandom run) {
         Objects.requireNonNull(itemsGraphique);
-        List<Item> items = Item.generateItems();
+        List<Item> items = Item.generateItems(run.stream(RunRandom.Stream.LOOT, -1));
         int colCount = 4;
         int index = 0;
 
@@ -85,6 +93,9 @@ public class EcranPartie implements Screen, DragSupport {
         drawHero(g, W, H);
         calculateBackpackDimensions(W, H);
         drawBackpackGrid(g);
+        if (dragging != null) {
+            Screen.drawDropTargets(g, sac, itemsGraphique.get(dragging), sacX, sacY, cellSize);
+        }
         drawAllItems(g);
         drawEndTurnRemark(g);
 
@@ -242,16 +253,16 @@ public class EcranPartie implements Screen, DragSupport {
     }
 
     private boolean isInsideBackpack(int x, int y) {
-        return x >= sacX && x <= sacX + cellSize * 7 &&
-                y >= sacY && y <= sacY + cellSize * 5;
+        return x >= sacX && x <= sacX + cellSize * sac.cols() &&
+                y >= sacY && y <= sacY + cellSize * sac.rows();
     }
 
     private int getBackpackColumn(int x) {
-        return Math.min(Math.max((x - sacX) / cellSize, 0), 6);
+        return Math.min(Math.max((x - sacX) / cellSize, 0), sac.cols() - 1);
     }
 
     private int getBackpackRow(int y) {
-        return Math.min(Math.max((y - sacY) / cellSize, 0), 4);
+        return Math.min(Math.max((y - sacY) / cellSize, 0), sac.rows() - 1);
     }
 
     private void pickItemFromBackpack(Item itemInSac, int x, int y) {
@@ -259,6 +270,7 @@ public class EcranPartie implements Screen, DragSupport {
         int col = getBackpackColumn(x);
         int row = getBackpackRow(y);
 
+        history.push(sac, itemsGraphique, itemsDepart);
         sac.removeItem(row, col);
 
         dragging = findGraphicalItem(itemInSac);
@@ -300,6 +312,7 @@ public class EcranPartie implements Screen, DragSupport {
 
     private void startDraggingOutsideItem(ItemGraphique ig, int x, int y) {
         Objects.requireNonNull(ig);
+        history.push(sac, itemsGraphique, itemsDepart);
         dragging = ig;
         selecteditem = dragging;
 
@@ -369,6 +382,25 @@ public class EcranPartie implements Screen, DragSupport {
         }
     }
 
+    /**
+     * Packs the backpack automatically, rewards included.
+     */
+    public void autoArrange() {
+        if (dragging != null)
+            return;
+        history.push(sac, itemsGraphique, itemsDepart);
+        Screen.autoArrange(sac, itemsGraphique, itemsDepart, sacX, sacY, cellSize);
+    }
+
+    /**
+     * Cancels the last move of an item.
+     */
+    public void undo() {
+        if (dragging != null)
+            return;
+        history.undo(sac, itemsGraphique, itemsDepart);
+    }
+
     public void onRotate() {
         if (selecteditem == null)
             return;
@@ -34,6 +34,8 @@ public class EcranTreasure implements Screen, DragSupport {
     private int dragOffsetX, dragOffsetY;
     private int cellSize;
     private int sacX, sacY;
+    // Layouts saved before each move, for undo
+    private final UndoHistory history = new UndoHistory();
     private TreasureRoom room;
     private BufferedImage treasuredImage;
 
@@ -139,6 +141,9 @@ public class EcranTreasure implements Screen, DragSupport {
         drawTreasureChest(g, W, H);
         calculateBackpackDimensions(W, H);
         drawBackpackGrid(g);
+        if (dragging != null) {
+            Screen.drawDropTargets(g, sac, itemsGraphique.get(dragging), sacX, sacY, cellSize);
+        }
         drawAllItems(g);
 
         if (room.needKey()) {
@@ -310,8 +315,8 @@ public class EcranTreasure implements Screen, DragSupport {
     }
 
     private boolean isInsideBackpack(int x, int y) {
-        return x >= sacX && x <= sacX + cellSize * 7 &&
-                y >= sacY && y <= sacY + cellSize * 5;
+        return x >= sacX && x <= sacX + cellSize * sac.cols() &&
+                y >= sacY && y <= sacY + cellSize * sac.rows();
     }
 
     private int getBackpackColumn(int x) {
@@ -324,6 +329,7 @@ public class EcranTreasure implements Screen, DragSupport {
 
     private void pickItemFromBackpack(Item item, int x, int y, int row, int col) {
         Objects.requireNonNull(item);
+        history.push(sac, itemsGraphique, itemsDepart);
         sac.removeItem(row, col);
 
         dragging = findGraphicalItem(item);
@@ -369,6 +375,7 @@ public class EcranTreasure implements Screen, DragSupport {
 
     private void startDraggingOutsideItem(ItemGraphique ig, int x, int y) {
         Objects.requireNonNull(ig);
+        history.push(sac, itemsGraphique, itemsDepart);
         dragging = ig;
         dragOffsetX = x - ig.getScreenX();
         dragOffsetY = y - ig.getScreenY();
@@ -407,23 +414,23 @@ public class EcranTreasure implements Screen, DragSupport {
 
     private int calculateDropColumn() {
         Objects.requireNonNull(dragging);
-        return Math.min(Math.max((dragging.getScreenX() - sacX) / cellSize, 0), 6);
+        return Math.min(Math.max((dragging.getScreenX() - sacX) / cellSize, 0), sac.cols() - 1);
     }
 
     private int calculateDropRow() {
         Objects.requireNonNull(dragging);
-        return Math.min(Math.max((dragging.getScreenY() - sacY) / cellSize, 0), 4);
+        return Math.min(Math.max((dragging.getScreenY() - sacY) / cellSize, 0), sac.rows() - 1);
     }
 
     private int calculateDropColumnKey() {
         Objects.requireNonNull(selecteditem);
-        return Math.min(Math.max((selecteditem.getScreenX() - sacX) / cellSize, 0), 6);
+        return Math.min(Math.max((selecteditem.getScreenX() - sacX) / cellSize, 0), sac.cols() - 1);
 
     }
 
     private int calculateDropRowKey() {
         Objects.requireNonNull(selecteditem);
-        return Math.min(Math.max((selecteditem.getScreenY() - sacY) / cellSize, 0), 4);
+        return Math.min(Math.max((selecteditem.getScreenY() - sacY) / cellSize, 0), sac.rows() - 1);
     }
 
     private void snapToGrid(int col, int row) {
@@ -445,6 +452,25 @@ public class EcranTreasure implements Screen, DragSupport {
         }
     }
 
+    /**
+     * Packs the backpack automatically, rewards included.
+     */
+    public void autoArrange() {
+        if (dragging != null)
+            return;
+        history.push(sac, itemsGraphique, itemsDepart);
+        Screen.autoArrange(sac, itemsGraphique, itemsDepart, sacX, sacY, cellSize);
+    }
+
+    /**
+     * Cancels the last move of an item.
+     */
+    public void undo() {
+        if (dragging != null)
+            return;
+        history.undo(sac, itemsGraphique, itemsDepart);
+    }
+
     public void onRotate() {
         if (selecteditem == null)
             return;
@@ -501,6 +527,8 @@ public class EcranTreasure implements Screen, DragSupport {
         System.out.println("Need KEY : ");
 
         if (tryOpenWithKey()) {
+            // The key is spent: earlier layouts would bring it back
+            history.clear();
             unlockTreasure();
         }
 
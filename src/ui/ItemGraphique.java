@@ -3,9 +3,10 @@ package ui;
 import java.awt.image.BufferedImage;
 import java.util.Objects;
 
+import model.RunContext;
+
 public class ItemGraphique {
 
-    static int ID = 0;
     // Name identifier of the item (e.g., "sword", "shield")
     private String name;
     // id identiffier of the item
@@ -34,7 +35,7 @@ public class ItemGraphique {
         Objects.requireNonNull(image);
         this.name = name;
         this.image = image;
-        this.id = ID++;
+        this.id = RunContext.current().nextImageId();
     }
 
     /**
@@ -14,6 +14,7 @@ import Rooms.MerchantRoom;
 import Rooms.RoomType;
 import Rooms.TreasureRoom;
 import model.Dungeon;
+import model.RunRandom;
 import model.Hero;
 
 /**
@@ -312,11 +313,14 @@ public class MapOverlay implements Screen {
         switch (room) {
             case EnemyRoom r -> {
                 if (!r.isCleared()) {
-                    fenetre.setScreen(new EcranCombat(fenetre, hero, r));
+                    Point p = dungeon.getHeroPosition();
+                    int index = dungeon.getCurrentFloorIndex() << 16 | p.x << 8 | p.y;
+                    fenetre.setScreen(new EcranCombat(fenetre, hero, r,
+                            dungeon.getRandom().stream(RunRandom.Stream.HINTS, index)));
                 }
             }
             case TreasureRoom r -> fenetre.setScreen(new EcranTreasure(fenetre, hero, r));
-            case MerchantRoom _ -> fenetre.setScreen(new EcranMerchant(fenetre, hero));
+            case MerchantRoom r -> fenetre.setScreen(new EcranMerchant(fenetre, hero, r.merchant()));
             case HealerRoom r -> fenetre.setScreen(new EcranHealer(fenetre, hero, r));
             case CorridorRoom _ -> {
             }
@@ -15,6 +15,7 @@ import javax.imageio.ImageIO;
 
 import Items.Item;
 import Items.Curse;
+import model.AutoArranger;
 import model.BackPack;
 import model.Dungeon;
 import model.Hero;
@@ -206,6 +207,73 @@ public interface Screen extends GameInterface {
         g.drawRect(x - 1, y - 1, displayW + 2, displayH + 2);
     }
 
+    /**
+     * Highlights the backpack cells where the dragged item can be dropped in its
+     * current rotation (top-left cell of each legal placement).
+     * 
+     * @param g        Graphics context
+     * @param sac      Backpack model
+     * @param item     Dragged item model, may be null
+     * @param sacX     Backpack grid X
+     * @param sacY     Backpack grid Y
+     * @param cellSize Cell size
+     */
+    static void drawDropTargets(Graphics2D g, BackPack sac, Item item, int sacX, int sacY, int cellSize) {
+        if (item == null)
+            return;
+        long[] anchors = new long[sac.rows()];
+        sac.legalAnchors(item, item.rotation(), anchors);
+        g.setColor(new Color(0, 220, 120, 90));
+        for (int row = 0; row < anchors.length; row++) {
+            for (long m = anchors[row]; m != 0L; m &= m - 1) {
+                int x = sacX + Long.numberOfTrailingZeros(m) * cellSize;
+                int y = sacY + row * cellSize;
+                g.fillRoundRect(x, y, cellSize - 6, cellSize - 6, 15, 15);
+            }
+        }
+    }
+
+    /**
+     * Rearranges the backpack to maximize adjacency bonuses, also packing the
+     * items waiting outside when they fit, then moves the graphical items onto
+     * their new cells.
+     * 
+     * @param sac            Backpack model
+     * @param itemsGraphique Graphical mapping
+     * @param itemsDepart    Items waiting outside the backpack
+     * @param sacX           Backpack grid X
+     * @param sacY           Backpack grid Y
+     * @param cellSize       Cell size
+     */
+    static void autoArrange(BackPack sac, HashMap<ItemGraphique, Item> itemsGraphique,
+            ArrayList<ItemGraphique> itemsDepart, int sacX, int sacY, int cellSize) {
+        List<Item> extras = new ArrayList<>();
+        for (ItemGraphique ig : itemsDepart) {
+            Item item = itemsGraphique.get(ig);
+            if (item != null) {
+                extras.add(item);
+            }
+        }
+        AutoArranger arranger = new AutoArranger(sac, extras);
+        // Stay within one frame
+        AutoArranger.Result result = arranger.solve(10);
+        arranger.apply(result);
+
+        for (Map.Entry<ItemGraphique, Item> entry : itemsGraphique.entrySet()) {
+            for (AutoArranger.Placement p : result.placements()) {
+                if (p.item() != entry.getValue())
+                    continue;
+                ItemGraphique ig = entry.getKey();
+                while (ig.getRotation() != p.rotation()) {
+                    ig.setRotation();
+                }
+                ig.SetscreenX(sacX + p.col() * cellSize);
+                ig.SetscreenY(sacY + p.row() * cellSize);
+                itemsDepart.remove(ig);
+            }
+        }
+    }
+
     /**
      * Checks if coordinates are inside an item box.
      * 
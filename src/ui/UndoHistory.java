@@ -0,0 +1,99 @@
+package ui;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import Items.Item;
+import model.BackPack;
+
+/**
+ * Undo stack of a screen where the player moves items around the backpack.
+ * Each entry pairs a backpack snapshot with the state of the graphical items,
+ * so undoing a move is instant and never clones any item.
+ */
+final class UndoHistory {
+
+    // Older entries are dropped past this depth
+    private static final int LIMIT = 32;
+
+    /**
+     * @param sac       Backpack snapshot
+     * @param items     Graphical mapping at that time
+     * @param outside   Items that were waiting outside the backpack
+     * @param positions Screen X, screen Y, graphical rotation and item rotation
+     *                  of each graphical item, in the order of items
+     */
+    private record Entry(BackPack.Snapshot sac, Map<ItemGraphique, Item> items, ArrayList<ItemGraphique> outside,
+            int[] positions) {
+    }
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+    /**
+     * Saves the current state, before the player changes it.
+     *
+     * @param sac            Backpack model
+     * @param itemsGraphique Graphical mapping
+     * @param itemsDepart    Items outside the backpack
+     */
+    void push(BackPack sac, HashMap<ItemGraphique, Item> itemsGraphique, ArrayList<ItemGraphique> itemsDepart) {
+        Objects.requireNonNull(sac);
+        Map<ItemGraphique, Item> items = new HashMap<>(itemsGraphique);
+        int[] positions = new int[items.size() * 4];
+        int i = 0;
+        for (Map.Entry<ItemGraphique, Item> e : items.entrySet()) {
+            positions[i++] = e.getKey().getScreenX();
+            positions[i++] = e.getKey().getScreenY();
+            positions[i++] = e.getKey().getRotation();
+            positions[i++] = e.getValue().rotation();
+        }
+        if (entries.size() == LIMIT) {
+            entries.removeLast();
+        }
+        entries.push(new Entry(sac.snapshot(), items, new ArrayList<>(itemsDepart), positions));
+    }
+
+    /**
+     * Puts back the last saved state.
+     *
+     * @param sac            Backpack model
+     * @param itemsGraphique Graphical mapping (restored in place)
+     * @param itemsDepart    Items outside the backpack (restored in place)
+     * @return false if there is nothing to undo
+     */
+    boolean undo(BackPack sac, HashMap<ItemGraphique, Item> itemsGraphique, ArrayList<ItemGraphique> itemsDepart) {
+        Entry entry = entries.poll();
+        if (entry == null) {
+            return false;
+        }
+        sac.restore(entry.sac());
+        itemsGraphique.clear();
+        itemsDepart.clear();
+        itemsDepart.addAll(entry.outside());
+        int i = 0;
+        // Same iteration order as in push: the map was copied untouched
+        for (Map.Entry<ItemGraphique, Item> e : entry.items().entrySet()) {
+            ItemGraphique ig = e.getKey();
+            ig.SetscreenX(entry.positions()[i++]);
+            ig.SetscreenY(entry.positions()[i++]);
+            int rotation = entry.positions()[i++];
+            while (ig.getRotation() != rotation) {
+                ig.setRotation();
+            }
+            int itemRotation = entry.positions()[i++];
+            if (!entry.sac().contains(e.getValue())) {
+                e.getValue().setRotation(itemRotation);
+            }
+            itemsGraphique.put(ig, e.getValue());
+        }
+        return true;
+    }
+
+    /** Forgets every saved state, when a change cannot be undone. */
+    void clear() {
+        entries.clear();
+    }
+}
@@ -136,6 +136,10 @@ public class ZenGameView {
                     ep.openTreasure();
                 if (key == KeyboardEvent.Key.K)
                     ep.onRotate();
+                if (key == KeyboardEvent.Key.R)
+                    ep.autoArrange();
+                if (key == KeyboardEvent.Key.U)
+                    ep.undo();
             }
             case EcranMerchant ep -> {
                 if (key == KeyboardEvent.Key.B)
@@ -153,6 +157,9 @@ public class ZenGameView {
                 if (key == KeyboardEvent.Key.A) {
                 	ep.expand();
                 }
+                if (key == KeyboardEvent.Key.H) {
+                    ep.suggestMove();
+                }
             }
             case EcranHealer ep -> {
                 if (key == KeyboardEvent.Key.H)
@@ -161,6 +168,10 @@ public class ZenGameView {
             case EcranPartie ep -> {
                 if (key == KeyboardEvent.Key.K)
                     ep.onRotate();
+                if (key == KeyboardEvent.Key.R)
+                    ep.autoArrange();
+                if (key == KeyboardEvent.Key.U)
+                    ep.undo();
             }
             default -> {
             }